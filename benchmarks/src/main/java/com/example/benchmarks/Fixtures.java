@@ -0,0 +1,36 @@
+package com.example.benchmarks;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.common_dto.OrderItemDto;
+import com.example.common.common_dto.PaymentEvent;
+import com.example.common.money.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Realistic event instances shared by the suites
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static OrderEvent orderEvent(int itemCount) {
+        List<OrderItemDto> items = new ArrayList<>(itemCount);
+        long total = 0;
+        for (int i = 0; i < itemCount; i++) {
+            long price = 499 + 100L * (i % 50);
+            int quantity = 1 + i % 3;
+            items.add(new OrderItemDto("PRD-" + (100000 + i), "Product number " + i,
+                    "Description of product " + i + " with some marketing text", quantity, Money.ofMinor(price, "USD")));
+            total += price * quantity;
+        }
+        return new OrderEvent("ORD-" + itemCount + "-2f7c1e9a", "CUST-000123", "Jane Customer",
+                "jane.customer@example.com", "221B Baker Street, London NW1 6XE", items, Money.ofMinor(total, "USD"),
+                "CREATED");
+    }
+
+    static PaymentEvent paymentEvent() {
+        return new PaymentEvent("8d0f3c2e-6a4b-4f7e-9c1d-2b5a7e9f0c31", "ORD-10-2f7c1e9a", "CUST-000123",
+                Money.ofMinor(24995, "USD"), "COMPLETED", "CREDIT_CARD");
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.benchmarks;
+
+import com.example.common.concurrent.KeyOrderedDispatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records per second of one listener for a poll of 500 records over 100 keys, where every
+ * record blocks for a simulated JDBC round trip. "record" is the default listener (one record
+ * after the other); the others hand the poll to KeyOrderedDispatcher.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListenerDispatchBenchmark {
+    private static final int POLL_SIZE = 500;
+    private static final int KEYS = 100;
+
+    @Param({"200"})
+    private long blockingMicros;
+
+    @Param({"32"})
+    private int maxInFlight;
+
+    private List<String> poll;
+    private KeyOrderedDispatcher virtualDispatcher;
+    private KeyOrderedDispatcher platformDispatcher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        poll = new ArrayList<>(POLL_SIZE);
+        for (int i = 0; i < POLL_SIZE; i++) {
+            poll.add("ORD-" + (i % KEYS));
+        }
+        virtualDispatcher = KeyOrderedDispatcher.virtualThreads(maxInFlight);
+        platformDispatcher = KeyOrderedDispatcher.platformThreads(maxInFlight);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        virtualDispatcher.close();
+        platformDispatcher.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POLL_SIZE)
+    public void record() {
+        for (String key : poll) {
+            handle(key);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POLL_SIZE)
+    public void keyOrderedPlatformThreads() {
+        platformDispatcher.dispatch(poll, key -> key, this::handle);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POLL_SIZE)
+    public void keyOrderedVirtualThreads() {
+        virtualDispatcher.dispatch(poll, key -> key, this::handle);
+    }
+
+    private void handle(String key) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(blockingMicros));
+    }
+}
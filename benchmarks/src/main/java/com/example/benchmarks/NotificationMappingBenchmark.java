@@ -0,0 +1,53 @@
+package com.example.benchmarks;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.common_dto.PaymentEvent;
+import com.example.notificationservice.mapper.NotificationMapper;
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.service.CustomerContactProjection.CustomerContact;
+import com.example.notificationservice.template.NotificationTemplates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Notification construction done by the notification-service listeners for every event
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class NotificationMappingBenchmark {
+
+    private PaymentEvent paymentEvent;
+    private CustomerContact contact;
+    private NotificationTemplates templates;
+    private OrderEvent orderEvent;
+
+    @Setup
+    public void setUp() {
+        paymentEvent = Fixtures.paymentEvent();
+        contact = new CustomerContact("jane.customer@example.com", "Jane Customer", "de-DE");
+        orderEvent = Fixtures.orderEvent(10);
+        templates = new NotificationTemplates("", "en");
+    }
+
+    @Benchmark
+    public Notification paymentEventToNotification() {
+        return NotificationMapper.fromPaymentEvent(paymentEvent, contact, templates);
+    }
+
+    @Benchmark
+    public Notification orderEventToNotification() {
+        return NotificationMapper.fromOrderEvent(orderEvent, templates);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.benchmarks;
+
+import com.example.common.codec.BinaryEventCodec;
+import com.example.common.codec.EventDeserializer;
+import com.example.common.codec.EventSerializer;
+import com.example.common.codec.WireFormat;
+import com.example.common.common_dto.OrderEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * (De)serialization cost of an OrderEvent on the orders topic, JSON (as produced by the
+ * Jackson serializers) against the binary codec, for growing item lists.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class OrderEventSerializationBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int itemCount;
+
+    private OrderEvent event;
+    private EventSerializer<OrderEvent> jsonSerializer;
+    private EventSerializer<OrderEvent> binarySerializer;
+    private EventDeserializer<OrderEvent> deserializer;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        event = Fixtures.orderEvent(itemCount);
+        jsonSerializer = new EventSerializer<>(WireFormat.JSON);
+        binarySerializer = new EventSerializer<>(WireFormat.BINARY);
+        deserializer = new EventDeserializer<>(OrderEvent.class);
+        json = jsonSerializer.serialize("orders", event);
+        binary = BinaryEventCodec.encode(event);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return jsonSerializer.serialize("orders", event);
+    }
+
+    @Benchmark
+    public OrderEvent deserializeJson() {
+        return deserializer.deserialize("orders", json);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binarySerializer.serialize("orders", event);
+    }
+
+    @Benchmark
+    public OrderEvent deserializeBinary() {
+        return deserializer.deserialize("orders", binary);
+    }
+}
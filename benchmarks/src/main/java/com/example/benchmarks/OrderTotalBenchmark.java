@@ -0,0 +1,77 @@
+package com.example.benchmarks;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.common_dto.OrderItemDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order total over the items: Money minor units summed in a primitive loop, against the
+ * boxed Double prices the DTOs used to carry and against BigDecimal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class OrderTotalBenchmark {
+
+    @Param({"10", "100"})
+    private int itemCount;
+
+    private OrderEvent event;
+    private List<Double> doublePrices;
+    private List<Integer> boxedQuantities;
+    private List<BigDecimal> decimalPrices;
+
+    @Setup
+    public void setUp() {
+        event = Fixtures.orderEvent(itemCount);
+        doublePrices = new ArrayList<>(itemCount);
+        boxedQuantities = new ArrayList<>(itemCount);
+        decimalPrices = new ArrayList<>(itemCount);
+        for (OrderItemDto item : event.getItems()) {
+            doublePrices.add(item.getPrice().toBigDecimal().doubleValue());
+            boxedQuantities.add(item.getQuantity());
+            decimalPrices.add(item.getPrice().toBigDecimal());
+        }
+    }
+
+    @Benchmark
+    public Object moneyTotal() {
+        return event.itemsTotal();
+    }
+
+    @Benchmark
+    public Double boxedDoubleTotal() {
+        Double total = 0.0;
+        for (int i = 0; i < itemCount; i++) {
+            total += doublePrices.get(i) * boxedQuantities.get(i);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < itemCount; i++) {
+            total = total.add(decimalPrices.get(i).multiply(BigDecimal.valueOf(boxedQuantities.get(i))));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.benchmarks;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.common_dto.PaymentEvent;
+import com.example.paymentservice.mapper.PaymentMapper;
+import com.example.paymentservice.model.Payment;
+import com.example.paymentservice.risk.RiskDecision;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// OrderEvent -> Payment -> PaymentEvent, the per-record work of the payment-service order listeners
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PaymentMappingBenchmark {
+
+    private OrderEvent orderEvent;
+    private Payment payment;
+
+    @Setup
+    public void setUp() {
+        orderEvent = Fixtures.orderEvent(10);
+        payment = PaymentMapper.fromOrderEvent(orderEvent, RiskDecision.APPROVED);
+    }
+
+    @Benchmark
+    public Payment orderEventToPayment() {
+        return PaymentMapper.fromOrderEvent(orderEvent, RiskDecision.APPROVED);
+    }
+
+    @Benchmark
+    public PaymentEvent paymentToPaymentEvent() {
+        return PaymentMapper.toPaymentEvent(payment);
+    }
+}
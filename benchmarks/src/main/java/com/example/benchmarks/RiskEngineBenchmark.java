@@ -0,0 +1,89 @@
+package com.example.benchmarks;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.paymentservice.risk.RiskEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-order cost of the payment risk checks with the default rule set: total verification,
+ * static rules and the velocity windows, for orders spread over many customers with the
+ * clock advancing so buckets roll over and expire.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RiskEngineBenchmark {
+    private static final String RULES = "large-order: amount > 5000; bulk-order: items > 200; "
+            + "burst: count(10m) > 20; hourly-orders: count(1h) > 60; hourly-spend: sum(1h) > 20000";
+    private static final String[] CUSTOMER_IDS = new String[100_000];
+    // Far more than the decision cache holds, so repeats do not short-cut the evaluation
+    private static final String[] ORDER_IDS = new String[1 << 20];
+
+    static {
+        for (int i = 0; i < CUSTOMER_IDS.length; i++) {
+            CUSTOMER_IDS[i] = "CUST-" + (100000 + i);
+        }
+        for (int i = 0; i < ORDER_IDS.length; i++) {
+            ORDER_IDS[i] = "ORD-" + i;
+        }
+    }
+
+    @Param({"1", "10"})
+    private int itemCount;
+
+    @Param({"1000", "100000"})
+    private int customers;
+
+    private OrderEvent[] events;
+    private RiskEngine engine;
+    private RiskEngine totalOnlyEngine;
+    private int next;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        events = new OrderEvent[1024];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = Fixtures.orderEvent(itemCount);
+        }
+        engine = new RiskEngine(new SimpleMeterRegistry(), true, true, RULES, 10, 64, 1_000_000, 100_000);
+        totalOnlyEngine = new RiskEngine(new SimpleMeterRegistry(), true, true, "", 10, 64, 1_000_000, 100_000);
+        now = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public Object evaluate() {
+        int i = next++;
+        OrderEvent event = events[i & (events.length - 1)];
+        event.setCustomerId(customerId(i));
+        event.setOrderId(ORDER_IDS[i & (ORDER_IDS.length - 1)]);
+        // About 100 orders per simulated second
+        return engine.evaluate(event, now + i / 100 * 1000L);
+    }
+
+    @Benchmark
+    public Object verifyTotalOnly() {
+        int i = next++;
+        return totalOnlyEngine.evaluate(events[i & (events.length - 1)], now);
+    }
+
+    private String customerId(int i) {
+        return CUSTOMER_IDS[Math.floorMod(i * 31, customers)];
+    }
+}
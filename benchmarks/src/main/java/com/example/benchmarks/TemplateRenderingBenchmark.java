@@ -0,0 +1,94 @@
+package com.example.benchmarks;
+
+import com.example.common.common_dto.PaymentEvent;
+import com.example.notificationservice.template.CompiledTemplate;
+import com.example.notificationservice.template.NotificationTemplates;
+import com.example.notificationservice.template.NotificationType;
+import com.samskivert.mustache.Mustache;
+import com.samskivert.mustache.Template;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of producing the payment notification text: the compiled render plans of
+ * NotificationTemplates against a generic engine (JMustache, template compiled once), a
+ * precompiled MessageFormat and the string concatenation the listeners used before.
+ * Run with -prof gc to compare allocation per message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class TemplateRenderingBenchmark {
+    private static final String MUSTACHE_SOURCE = "Payment for order {{orderId}} is {{status}}";
+
+    private PaymentEvent event;
+    private String amount;
+    private CompiledTemplate compiled;
+    private StringBuilder reusedBuffer;
+    private Template mustache;
+    private MessageFormat messageFormat;
+
+    @Setup
+    public void setUp() {
+        event = Fixtures.paymentEvent();
+        amount = String.valueOf(event.getAmount());
+        compiled = new NotificationTemplates("", "en").resolve(NotificationType.PAYMENT_STATUS, Locale.ENGLISH);
+        reusedBuffer = new StringBuilder(256);
+        mustache = Mustache.compiler().escapeHTML(false).compile(MUSTACHE_SOURCE);
+        messageFormat = new MessageFormat("Payment for order {0} is {1}", Locale.ENGLISH);
+    }
+
+    @Benchmark
+    public String compiledTemplate() {
+        return compiled.render(event.getOrderId(), event.getPaymentId(), event.getCustomerId(), null,
+                event.getStatus(), amount, event.getPaymentMethod());
+    }
+
+    // Rendering only, into a caller-owned buffer; no String is materialised
+    @Benchmark
+    public StringBuilder compiledTemplateIntoBuffer() {
+        reusedBuffer.setLength(0);
+        compiled.renderTo(reusedBuffer, event.getOrderId(), event.getPaymentId(), event.getCustomerId(), null,
+                event.getStatus(), amount, event.getPaymentMethod());
+        return reusedBuffer;
+    }
+
+    @Benchmark
+    public String mustache() {
+        Map<String, Object> context = new HashMap<>();
+        context.put("orderId", event.getOrderId());
+        context.put("paymentId", event.getPaymentId());
+        context.put("customerId", event.getCustomerId());
+        context.put("status", event.getStatus());
+        context.put("amount", amount);
+        context.put("paymentMethod", event.getPaymentMethod());
+        return mustache.execute(context);
+    }
+
+    @Benchmark
+    public String messageFormat() {
+        return messageFormat.format(new Object[]{event.getOrderId(), event.getStatus()});
+    }
+
+    @Benchmark
+    public String concatenation() {
+        return "Payment for order " + event.getOrderId() + " is " + event.getStatus();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.benchmarks;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.constants.TopicConstants;
+import com.example.common.trace.SpanRecorder;
+import com.example.common.trace.TraceContext;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-record cost of flow tracing on a consumer: reading the context off the headers, adding a
+ * hop, writing it onto the outgoing record and recording the finished flow.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class TraceOverheadBenchmark {
+    private ConsumerRecord<String, OrderEvent> tracedRecord;
+    private ConsumerRecord<String, OrderEvent> untracedRecord;
+    private SpanRecorder spanRecorder;
+
+    @Setup
+    public void setUp() {
+        OrderEvent event = Fixtures.orderEvent(3);
+        untracedRecord = new ConsumerRecord<>(TopicConstants.ORDER_TOPIC, 0, 0L, event.getOrderId(), event);
+        tracedRecord = new ConsumerRecord<>(TopicConstants.ORDER_TOPIC, 0, 0L, event.getOrderId(), event);
+        TraceContext.start("corr-2f7c1e9a")
+                .hop(TraceContext.ORDER_PUBLISHED)
+                .hop(TraceContext.PAYMENT_RECEIVED)
+                .hop(TraceContext.PAYMENT_SAVED)
+                .hop(TraceContext.PAYMENT_PUBLISHED)
+                .writeTo(tracedRecord.headers());
+        spanRecorder = new SpanRecorder(4096);
+    }
+
+    @Benchmark
+    public TraceContext readUntraced() {
+        return TraceContext.fromRecord(untracedRecord, "ORD-3", TraceContext.ORDER_PUBLISHED)
+                .hop(TraceContext.PAYMENT_RECEIVED);
+    }
+
+    @Benchmark
+    public TraceContext readTraced() {
+        return TraceContext.fromRecord(tracedRecord, "ORD-3", TraceContext.PAYMENT_PUBLISHED)
+                .hop(TraceContext.NOTIFICATION_RECEIVED);
+    }
+
+    @Benchmark
+    public ProducerRecord<String, OrderEvent> readHopAndWrite() {
+        TraceContext trace = TraceContext.fromRecord(untracedRecord, "ORD-3", TraceContext.ORDER_PUBLISHED)
+                .hop(TraceContext.PAYMENT_RECEIVED);
+        ProducerRecord<String, OrderEvent> out =
+                new ProducerRecord<>(TopicConstants.PAYMENT_TOPIC, untracedRecord.key(), untracedRecord.value());
+        trace.hop(TraceContext.PAYMENT_PUBLISHED).writeTo(out.headers());
+        return out;
+    }
+
+    @Benchmark
+    public void record() {
+        spanRecorder.record(TraceContext.fromRecord(tracedRecord, "ORD-3", TraceContext.PAYMENT_PUBLISHED),
+                TraceContext.NOTIFICATION_PERSISTED);
+    }
+}
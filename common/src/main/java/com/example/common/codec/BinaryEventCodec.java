@@ -0,0 +1,234 @@
+package com.example.common.codec;
+
+import com.example.common.common_dto.NotificationEvent;
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.common_dto.OrderItemDto;
+import com.example.common.common_dto.PaymentEvent;
+import com.example.common.money.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of the events exchanged over Kafka.
+ *
+ * <p>Layout: magic byte, schema version, type tag, then the fields in declaration order.
+ * New schema versions normally only append fields; readers stop after the fields they know,
+ * so an older consumer can still read records written by a newer producer. Version 3 is the
+ * exception: it re-encodes the amounts, so consumers have to be upgraded before producers
+ * switch to it. Readers keep decoding every older version.
+ */
+public final class BinaryEventCodec {
+    public static final int MAGIC = 0xB1;
+    // 2: createdAt on OrderEvent, createdAt and orderCreatedAt on PaymentEvent
+    // 3: amounts as Money (minor units + currency) instead of doubles, quantity no longer nullable
+    // 4: locale on OrderEvent
+    public static final int SCHEMA_VERSION = 4;
+
+    private static final int ORDER_EVENT = 1;
+    private static final int PAYMENT_EVENT = 2;
+    private static final int NOTIFICATION_EVENT = 3;
+
+    private BinaryEventCodec() {
+    }
+
+    // JSON never starts with this byte, so records without a format header can be sniffed
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && (data[0] & 0xFF) == MAGIC;
+    }
+
+    public static byte[] encode(Object event) {
+        if (event instanceof OrderEvent orderEvent) {
+            BinaryWriter writer = header(ORDER_EVENT, 128 + 64 * sizeOf(orderEvent.getItems()));
+            writeOrderEvent(writer, orderEvent);
+            return writer.toByteArray();
+        }
+        if (event instanceof PaymentEvent paymentEvent) {
+            BinaryWriter writer = header(PAYMENT_EVENT, 160);
+            writePaymentEvent(writer, paymentEvent);
+            return writer.toByteArray();
+        }
+        if (event instanceof NotificationEvent notificationEvent) {
+            BinaryWriter writer = header(NOTIFICATION_EVENT, 256);
+            writeNotificationEvent(writer, notificationEvent);
+            return writer.toByteArray();
+        }
+        throw new IllegalArgumentException("No binary encoding for " + event.getClass().getName());
+    }
+
+    public static <T> T decode(byte[] data, Class<T> type) {
+        BinaryReader reader = new BinaryReader(data);
+        if (reader.readByte() != MAGIC) {
+            throw new IllegalArgumentException("Not a binary event");
+        }
+        int version = reader.readByte();
+        if (version < 1) {
+            throw new IllegalArgumentException("Unsupported binary event schema version " + version);
+        }
+
+        int typeTag = reader.readByte();
+        Object event = switch (typeTag) {
+            case ORDER_EVENT -> readOrderEvent(reader, version);
+            case PAYMENT_EVENT -> readPaymentEvent(reader, version);
+            case NOTIFICATION_EVENT -> readNotificationEvent(reader);
+            default -> throw new IllegalArgumentException("Unknown binary event type " + typeTag);
+        };
+        if (!type.isInstance(event)) {
+            throw new IllegalArgumentException("Binary event of type " + event.getClass().getSimpleName()
+                    + " cannot be read as " + type.getSimpleName());
+        }
+        return type.cast(event);
+    }
+
+    private static BinaryWriter header(int typeTag, int sizeHint) {
+        BinaryWriter writer = new BinaryWriter(sizeHint);
+        writer.writeByte(MAGIC);
+        writer.writeByte(SCHEMA_VERSION);
+        writer.writeByte(typeTag);
+        return writer;
+    }
+
+    private static void writeOrderEvent(BinaryWriter writer, OrderEvent event) {
+        writer.writeString(event.getOrderId());
+        writer.writeString(event.getCustomerId());
+        writer.writeString(event.getCustomerName());
+        writer.writeString(event.getCustomerEmail());
+        writer.writeString(event.getShippingAddress());
+        List<OrderItemDto> items = event.getItems();
+        if (items == null) {
+            writer.writeVarLong(0);
+        } else {
+            writer.writeVarLong(items.size() + 1L);
+            for (OrderItemDto item : items) {
+                writeOrderItem(writer, item);
+            }
+        }
+        writeMoney(writer, event.getTotalAmount());
+        writer.writeString(event.getStatus());
+        writer.writeNullableLong(event.getCreatedAt());
+        writer.writeString(event.getLocale());
+    }
+
+    private static OrderEvent readOrderEvent(BinaryReader reader, int version) {
+        OrderEvent event = new OrderEvent();
+        event.setOrderId(reader.readString());
+        event.setCustomerId(reader.readString());
+        event.setCustomerName(reader.readString());
+        event.setCustomerEmail(reader.readString());
+        event.setShippingAddress(reader.readString());
+        long itemsHeader = reader.readVarLong();
+        if (itemsHeader > 0) {
+            int count = Math.toIntExact(itemsHeader - 1);
+            List<OrderItemDto> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                items.add(readOrderItem(reader, version));
+            }
+            event.setItems(items);
+        }
+        event.setTotalAmount(readMoney(reader, version));
+        event.setStatus(reader.readString());
+        if (version >= 2) {
+            event.setCreatedAt(reader.readNullableLong());
+        }
+        if (version >= 4) {
+            event.setLocale(reader.readString());
+        }
+        return event;
+    }
+
+    private static void writeOrderItem(BinaryWriter writer, OrderItemDto item) {
+        writer.writeString(item.getProductId());
+        writer.writeString(item.getProductName());
+        writer.writeString(item.getDescription());
+        writer.writeSignedVarLong(item.getQuantity());
+        writeMoney(writer, item.getPrice());
+    }
+
+    private static OrderItemDto readOrderItem(BinaryReader reader, int version) {
+        OrderItemDto item = new OrderItemDto();
+        item.setProductId(reader.readString());
+        item.setProductName(reader.readString());
+        item.setDescription(reader.readString());
+        if (version >= 3) {
+            item.setQuantity(Math.toIntExact(reader.readSignedVarLong()));
+        } else {
+            Integer quantity = reader.readNullableInt();
+            item.setQuantity(quantity == null ? 0 : quantity);
+        }
+        item.setPrice(readMoney(reader, version));
+        return item;
+    }
+
+    // Presence byte, then signed varint minor units and the currency code
+    private static void writeMoney(BinaryWriter writer, Money money) {
+        if (money == null) {
+            writer.writeByte(0);
+            return;
+        }
+        writer.writeByte(1);
+        writer.writeSignedVarLong(money.getMinorUnits());
+        writer.writeString(money.getCurrency());
+    }
+
+    private static Money readMoney(BinaryReader reader, int version) {
+        if (version < 3) {
+            Double amount = reader.readNullableDouble();
+            return amount == null ? null : Money.rounded(amount, Money.DEFAULT_CURRENCY);
+        }
+        if (reader.readByte() == 0) {
+            return null;
+        }
+        long minorUnits = reader.readSignedVarLong();
+        return Money.ofMinor(minorUnits, reader.readString());
+    }
+
+    private static void writePaymentEvent(BinaryWriter writer, PaymentEvent event) {
+        writer.writeString(event.getPaymentId());
+        writer.writeString(event.getOrderId());
+        writer.writeString(event.getCustomerId());
+        writeMoney(writer, event.getAmount());
+        writer.writeString(event.getStatus());
+        writer.writeString(event.getPaymentMethod());
+        writer.writeNullableLong(event.getCreatedAt());
+        writer.writeNullableLong(event.getOrderCreatedAt());
+    }
+
+    private static PaymentEvent readPaymentEvent(BinaryReader reader, int version) {
+        PaymentEvent event = new PaymentEvent();
+        event.setPaymentId(reader.readString());
+        event.setOrderId(reader.readString());
+        event.setCustomerId(reader.readString());
+        event.setAmount(readMoney(reader, version));
+        event.setStatus(reader.readString());
+        event.setPaymentMethod(reader.readString());
+        if (version >= 2) {
+            event.setCreatedAt(reader.readNullableLong());
+            event.setOrderCreatedAt(reader.readNullableLong());
+        }
+        return event;
+    }
+
+    private static void writeNotificationEvent(BinaryWriter writer, NotificationEvent event) {
+        writer.writeString(event.getNotificationId());
+        writer.writeString(event.getOrderId());
+        writer.writeString(event.getCustomerId());
+        writer.writeString(event.getCustomerEmail());
+        writer.writeString(event.getMessage());
+        writer.writeString(event.getStatus());
+    }
+
+    private static NotificationEvent readNotificationEvent(BinaryReader reader) {
+        NotificationEvent event = new NotificationEvent();
+        event.setNotificationId(reader.readString());
+        event.setOrderId(reader.readString());
+        event.setCustomerId(reader.readString());
+        event.setCustomerEmail(reader.readString());
+        event.setMessage(reader.readString());
+        event.setStatus(reader.readString());
+        return event;
+    }
+
+    private static int sizeOf(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+}
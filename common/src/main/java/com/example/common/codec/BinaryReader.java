@@ -0,0 +1,82 @@
+package com.example.common.codec;
+
+import java.nio.charset.StandardCharsets;
+
+// Counterpart of BinaryWriter over a byte array
+public final class BinaryReader {
+    private final byte[] buffer;
+    private int position;
+
+    public BinaryReader(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    public int readByte() {
+        checkAvailable(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    public long readSignedVarLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public String readString() {
+        long header = readVarLong();
+        if (header == 0) {
+            return null;
+        }
+        int length = Math.toIntExact(header - 1);
+        checkAvailable(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public Double readNullableDouble() {
+        if (readByte() == 0) {
+            return null;
+        }
+        checkAvailable(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | (buffer[position++] & 0xFF);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public Integer readNullableInt() {
+        long header = readVarLong();
+        if (header == 0) {
+            return null;
+        }
+        long raw = header - 1;
+        return Math.toIntExact((raw >>> 1) ^ -(raw & 1));
+    }
+
+    public Long readNullableLong() {
+        return readByte() == 0 ? null : readSignedVarLong();
+    }
+
+    public boolean hasRemaining() {
+        return position < buffer.length;
+    }
+
+    private void checkAvailable(int length) {
+        if (length < 0 || position + length > buffer.length) {
+            throw new IllegalArgumentException("Truncated binary event at offset " + position);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.common.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads events written as JSON or in the binary format. The {@link WireFormat#HEADER}
+ * header decides; records without it (older producers) are recognised by their first byte.
+ */
+public class EventDeserializer<T> implements Deserializer<T> {
+    private final Class<T> type;
+    private final ObjectMapper objectMapper;
+
+    public EventDeserializer(Class<T> type) {
+        this(type, defaultObjectMapper());
+    }
+
+    public EventDeserializer(Class<T> type, ObjectMapper objectMapper) {
+        this.type = type;
+        this.objectMapper = objectMapper;
+    }
+
+    static ObjectMapper defaultObjectMapper() {
+        return new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Header format = headers == null ? null : headers.lastHeader(WireFormat.HEADER);
+        if (format != null) {
+            String value = new String(format.value(), StandardCharsets.UTF_8);
+            return WireFormat.BINARY.equals(value) ? decodeBinary(topic, data) : decodeJson(topic, data);
+        }
+        return deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return BinaryEventCodec.isBinary(data) ? decodeBinary(topic, data) : decodeJson(topic, data);
+    }
+
+    private T decodeBinary(String topic, byte[] data) {
+        try {
+            return BinaryEventCodec.decode(data, type);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not decode binary " + type.getSimpleName() + " from " + topic, e);
+        }
+    }
+
+    private T decodeJson(String topic, byte[] data) {
+        try {
+            return objectMapper.readValue(data, type);
+        } catch (IOException e) {
+            throw new SerializationException("Could not decode JSON " + type.getSimpleName() + " from " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.common.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes events either as JSON or in the {@link BinaryEventCodec} format and records the
+ * choice in the {@link WireFormat#HEADER} header, so consumers can read both during a rollout.
+ * Raw bytes (an undecodable record on its way to the DLT) are written as they are, with the
+ * header they came with.
+ */
+public class EventSerializer<T> implements Serializer<T> {
+    private static final byte[] JSON_HEADER = WireFormat.JSON.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BINARY_HEADER = WireFormat.BINARY.getBytes(StandardCharsets.UTF_8);
+
+    private final boolean binary;
+    private final ObjectMapper objectMapper;
+
+    public EventSerializer(String wireFormat) {
+        this(wireFormat, EventDeserializer.defaultObjectMapper());
+    }
+
+    public EventSerializer(String wireFormat, ObjectMapper objectMapper) {
+        this.binary = WireFormat.BINARY.equalsIgnoreCase(wireFormat);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (data == null || data instanceof byte[]) {
+            return serialize(topic, data);
+        }
+        headers.remove(WireFormat.HEADER);
+        headers.add(WireFormat.HEADER, binary ? BINARY_HEADER : JSON_HEADER);
+        return serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) {
+            return null;
+        }
+        if (data instanceof byte[] raw) {
+            return raw;
+        }
+        if (binary) {
+            return BinaryEventCodec.encode(data);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(data);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Could not serialize event for topic " + topic, e);
+        }
+    }
+}
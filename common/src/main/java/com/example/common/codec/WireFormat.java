@@ -0,0 +1,11 @@
+package com.example.common.codec;
+
+// Kafka header that tells consumers how a record value is encoded
+public final class WireFormat {
+    public static final String HEADER = "oms-wire-format";
+    public static final String JSON = "json";
+    public static final String BINARY = "binary";
+
+    private WireFormat() {
+    }
+}
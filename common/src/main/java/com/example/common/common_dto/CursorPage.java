@@ -0,0 +1,46 @@
+package com.example.common.common_dto;
+
+import java.util.List;
+
+// One page of a keyset-paginated listing; pass nextCursor back as "after" to get the next one
+public class CursorPage<T> {
+    private List<T> items;
+    private Long nextCursor;
+    private boolean hasMore;
+
+    // Default constructor
+    public CursorPage() {
+    }
+
+    // All-args constructor
+    public CursorPage(List<T> items, Long nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.common.common_dto;
 
+import com.example.common.money.Money;
+import com.example.common.money.PositiveMoney;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Email;
-import jakarta.validation.constraints.Positive;
 import java.util.List;
 
 public class OrderEvent {               
@@ -23,22 +25,30 @@ public class OrderEvent {
     @NotBlank(message = "Shipping address is required")
     private String shippingAddress;
     
+    @Valid
     @NotNull(message = "Order items cannot be null")
     private List<OrderItemDto> items;
     
-    @Positive(message = "Total amount must be positive")
-    private Double totalAmount;
+    @PositiveMoney(message = "Total amount must be positive")
+    @NotNull(message = "Total amount is required")
+    private Money totalAmount;
     
     @NotBlank(message = "Order status is required")
     private String status;
 
+    // Epoch millis when the order was published, for end-to-end latency; null from older producers
+    private Long createdAt;
+
+    // BCP 47 tag of the customer's language for notifications, e.g. "de-DE"; null for the default
+    private String locale;
+
     // Default constructor
     public OrderEvent() {
     }
 
     // All-args constructor
     public OrderEvent(String orderId, String customerId, String customerName, String customerEmail, 
-                     String shippingAddress, List<OrderItemDto> items, Double totalAmount, String status) {
+                     String shippingAddress, List<OrderItemDto> items, Money totalAmount, String status) {
         this.orderId = orderId;
         this.customerId = customerId;
         this.customerName = customerName;
@@ -98,11 +108,11 @@ public class OrderEvent {
         this.items = items;
     }
 
-    public Double getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(Double totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
 
@@ -113,4 +123,49 @@ public class OrderEvent {
     public void setStatus(String status) {
         this.status = status;
     }
+
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getLocale() {
+        return locale;
+    }
+
+    public void setLocale(String locale) {
+        this.locale = locale;
+    }
+
+    /**
+     * Sum of price x quantity over the items, in one pass over primitive minor units.
+     *
+     * @return null if there are no items or an item has no price
+     * @throws IllegalArgumentException if the items are priced in different currencies
+     * @throws ArithmeticException on overflow
+     */
+    public Money itemsTotal() {
+        if (items == null || items.isEmpty()) {
+            return null;
+        }
+        String currency = null;
+        long total = 0;
+        for (int i = 0, n = items.size(); i < n; i++) {
+            OrderItemDto item = items.get(i);
+            Money price = item == null ? null : item.getPrice();
+            if (price == null) {
+                return null;
+            }
+            if (currency == null) {
+                currency = price.getCurrency();
+            } else if (!currency.equals(price.getCurrency())) {
+                throw new IllegalArgumentException("Order items priced in " + currency + " and " + price.getCurrency());
+            }
+            total = Math.addExact(total, Math.multiplyExact(price.getMinorUnits(), item.getQuantity()));
+        }
+        return Money.ofMinor(total, currency);
+    }
 }
\ No newline at end of file
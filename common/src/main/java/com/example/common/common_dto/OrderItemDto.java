@@ -1,5 +1,7 @@
 package com.example.common.common_dto;
 
+import com.example.common.money.Money;
+import com.example.common.money.PositiveMoney;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -13,20 +15,20 @@ public class OrderItemDto {
     
     private String description;
     
+    // 0 when missing, which the constraint rejects as well
     @Positive(message = "Quantity must be positive")
-    @NotNull(message = "Quantity is required")
-    private Integer quantity;
+    private int quantity;
     
-    @Positive(message = "Price must be positive")
+    @PositiveMoney(message = "Price must be positive")
     @NotNull(message = "Price is required")
-    private Double price;
+    private Money price;
 
     // Default constructor
     public OrderItemDto() {
     }
 
     // All-args constructor
-    public OrderItemDto(String productId, String productName, String description, Integer quantity, Double price) {
+    public OrderItemDto(String productId, String productName, String description, int quantity, Money price) {
         this.productId = productId;
         this.productName = productName;
         this.description = description;
@@ -59,19 +61,19 @@ public class OrderItemDto {
         this.description = description;
     }
 
-    public Integer getQuantity() {
+    public int getQuantity() {
         return quantity;
     }
 
-    public void setQuantity(Integer quantity) {
+    public void setQuantity(int quantity) {
         this.quantity = quantity;
     }
 
-    public Double getPrice() {
+    public Money getPrice() {
         return price;
     }
 
-    public void setPrice(Double price) {
+    public void setPrice(Money price) {
         this.price = price;
     }
 }
\ No newline at end of file
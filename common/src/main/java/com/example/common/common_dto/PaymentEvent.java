@@ -1,8 +1,9 @@
 package com.example.common.common_dto;
 
+import com.example.common.money.Money;
+import com.example.common.money.PositiveMoney;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Positive;
 
 public class PaymentEvent {
     @NotBlank(message = "Payment ID is required")
@@ -14,9 +15,9 @@ public class PaymentEvent {
     @NotBlank(message = "Customer ID is required")
     private String customerId;
     
-    @Positive(message = "Amount must be positive")
+    @PositiveMoney(message = "Amount must be positive")
     @NotNull(message = "Amount is required")
-    private Double amount;
+    private Money amount;
     
     @NotBlank(message = "Payment status is required")
     private String status;
@@ -24,12 +25,16 @@ public class PaymentEvent {
     @NotBlank(message = "Payment method is required")
     private String paymentMethod;
 
+    // Epoch millis when this event and the order it pays for were created; null from older producers
+    private Long createdAt;
+    private Long orderCreatedAt;
+
     // Default constructor
     public PaymentEvent() {
     }
 
     // All-args constructor
-    public PaymentEvent(String paymentId, String orderId, String customerId, Double amount, String status, String paymentMethod) {
+    public PaymentEvent(String paymentId, String orderId, String customerId, Money amount, String status, String paymentMethod) {
         this.paymentId = paymentId;
         this.orderId = orderId;
         this.customerId = customerId;
@@ -63,11 +68,11 @@ public class PaymentEvent {
         this.customerId = customerId;
     }
 
-    public Double getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(Double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -86,4 +91,20 @@ public class PaymentEvent {
     public void setPaymentMethod(String paymentMethod) {
         this.paymentMethod = paymentMethod;
     }
+
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getOrderCreatedAt() {
+        return orderCreatedAt;
+    }
+
+    public void setOrderCreatedAt(Long orderCreatedAt) {
+        this.orderCreatedAt = orderCreatedAt;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.example.common.concurrent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Processes a batch of records with different keys in parallel while keeping the order of
+ * records that share a key. Records are grouped by key and every group runs sequentially on
+ * the executor; {@link #dispatch} returns once the whole batch is done, so a listener can
+ * let its offsets be committed afterwards and commits never overtake unfinished records.
+ * At most {@code maxInFlight} key groups run at the same time; the dispatching thread blocks
+ * until a slot frees up, which pushes back on the poll loop.
+ */
+public class KeyOrderedDispatcher implements AutoCloseable {
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+
+    public KeyOrderedDispatcher(ExecutorService executor, int maxInFlight) {
+        this.executor = executor;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    public static KeyOrderedDispatcher virtualThreads(int maxInFlight) {
+        return new KeyOrderedDispatcher(Executors.newVirtualThreadPerTaskExecutor(), maxInFlight);
+    }
+
+    public static KeyOrderedDispatcher platformThreads(int threads) {
+        return new KeyOrderedDispatcher(Executors.newFixedThreadPool(threads), threads);
+    }
+
+    /**
+     * Runs {@code handler} for every item, in order per key and in parallel across keys.
+     * All started groups are allowed to finish; the first failure is rethrown afterwards.
+     */
+    public <T> void dispatch(List<T> items, Function<T, String> keyExtractor, Consumer<T> handler) {
+        Map<String, List<T>> groups = new LinkedHashMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(keyExtractor.apply(item), key -> new ArrayList<>()).add(item);
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(groups.size());
+        try {
+            for (List<T> group : groups.values()) {
+                inFlight.acquire();
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        group.forEach(handler);
+                    } finally {
+                        inFlight.release();
+                    }
+                }, executor));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.add(CompletableFuture.failedFuture(e));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
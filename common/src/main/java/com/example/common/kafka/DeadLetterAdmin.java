@@ -0,0 +1,160 @@
+package com.example.common.kafka;
+
+import com.example.common.codec.BinaryEventCodec;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Inspects and replays the DLT records of one consumer group with plain Kafka clients, payloads
+ * stay raw bytes. Replay progress is the committed offset of {@code replayGroupId} on the DLT:
+ * inspect shows what has not been replayed yet, replay sends it to the group's first retry tier
+ * (see {@link RetryTopics#replayRecord}) and then commits. Only the DLTs of the given source
+ * topics, the ones the owning service consumes, are handled.
+ */
+public class DeadLetterAdmin implements AutoCloseable {
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final long READ_TIMEOUT_MS = 10_000;
+
+    private final String bootstrapServers;
+    private final String replayGroupId;
+    private final RetryTopics retryTopics;
+    private final Set<String> sourceTopics;
+    private final KafkaProducer<byte[], byte[]> producer;
+
+    public DeadLetterAdmin(String bootstrapServers, String replayGroupId, RetryTopics retryTopics,
+                           Set<String> sourceTopics) {
+        this.bootstrapServers = bootstrapServers;
+        this.replayGroupId = replayGroupId;
+        this.retryTopics = retryTopics;
+        this.sourceTopics = Set.copyOf(sourceTopics);
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+        this.producer = new KafkaProducer<>(props, new ByteArraySerializer(), new ByteArraySerializer());
+    }
+
+    public boolean handles(String sourceTopic) {
+        return sourceTopics.contains(sourceTopic);
+    }
+
+    public List<DeadLetterRecord> inspect(String topic, int limit) {
+        try (KafkaConsumer<byte[], byte[]> consumer = consumer(limit)) {
+            List<DeadLetterRecord> records = new ArrayList<>();
+            for (ConsumerRecord<byte[], byte[]> record : read(consumer, retryTopics.dltTopic(topic), limit)) {
+                records.add(toDeadLetterRecord(record, topic));
+            }
+            return records;
+        }
+    }
+
+    /**
+     * @return the number of records sent back to the group's first retry tier
+     */
+    public int replay(String topic, int limit) {
+        try (KafkaConsumer<byte[], byte[]> consumer = consumer(limit)) {
+            List<ConsumerRecord<byte[], byte[]>> records = read(consumer, retryTopics.dltTopic(topic), limit);
+            List<Future<RecordMetadata>> sends = new ArrayList<>(records.size());
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            for (ConsumerRecord<byte[], byte[]> record : records) {
+                String originalTopic = RetryTopics.originalTopic(record.headers(), topic);
+                sends.add(producer.send(retryTopics.replayRecord(originalTopic, record.key(), record.value(),
+                        record.headers())));
+                offsets.put(new TopicPartition(record.topic(), record.partition()),
+                        new OffsetAndMetadata(record.offset() + 1));
+            }
+            producer.flush();
+            for (Future<RecordMetadata> send : sends) {
+                send.get();
+            }
+            consumer.commitSync(offsets);
+            return records.size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying " + retryTopics.dltTopic(topic), e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not replay " + retryTopics.dltTopic(topic), e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        producer.close(Duration.ofSeconds(5));
+    }
+
+    private KafkaConsumer<byte[], byte[]> consumer(int limit) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, replayGroupId);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.max(1, limit));
+        return new KafkaConsumer<>(props, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+    }
+
+    // Reads from the committed position up to limit records or the current end of the DLT
+    private static List<ConsumerRecord<byte[], byte[]>> read(KafkaConsumer<byte[], byte[]> consumer, String dlt,
+                                                             int limit) {
+        List<PartitionInfo> infos = consumer.partitionsFor(dlt);
+        if (infos == null || infos.isEmpty()) {
+            return List.of();
+        }
+        List<TopicPartition> partitions = infos.stream()
+                .map(info -> new TopicPartition(dlt, info.partition()))
+                .toList();
+        consumer.assign(partitions);
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        List<ConsumerRecord<byte[], byte[]>> records = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + READ_TIMEOUT_MS;
+        while (records.size() < limit && !atEnd(consumer, endOffsets) && System.currentTimeMillis() < deadline) {
+            for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                if (records.size() < limit) {
+                    records.add(record);
+                }
+            }
+        }
+        return records;
+    }
+
+    private static boolean atEnd(KafkaConsumer<byte[], byte[]> consumer, Map<TopicPartition, Long> endOffsets) {
+        for (Map.Entry<TopicPartition, Long> end : endOffsets.entrySet()) {
+            if (consumer.position(end.getKey()) < end.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static DeadLetterRecord toDeadLetterRecord(ConsumerRecord<byte[], byte[]> record, String topic) {
+        byte[] value = record.value();
+        String text = value == null ? null : BinaryEventCodec.isBinary(value)
+                ? Base64.getEncoder().encodeToString(value)
+                : new String(value, StandardCharsets.UTF_8);
+        return new DeadLetterRecord(record.partition(), record.offset(), record.timestamp(),
+                record.key() == null ? null : new String(record.key(), StandardCharsets.UTF_8),
+                RetryTopics.originalTopic(record.headers(), topic), RetryTopics.attempt(record.headers()),
+                RetryTopics.header(record.headers(), RetryTopics.EXCEPTION_HEADER), text);
+    }
+}
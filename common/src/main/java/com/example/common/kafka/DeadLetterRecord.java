@@ -0,0 +1,9 @@
+package com.example.common.kafka;
+
+/**
+ * A record parked on a DLT, as shown by the admin endpoints. JSON payloads are returned as
+ * text, binary ones base64 encoded.
+ */
+public record DeadLetterRecord(int partition, long offset, long timestamp, String key, String originalTopic,
+                               int attempts, String exception, String value) {
+}
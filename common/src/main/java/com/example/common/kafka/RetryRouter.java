@@ -0,0 +1,121 @@
+package com.example.common.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Moves a record that failed processing to its next retry tier or to the DLT (see
+ * {@link RetryTopics}), so the listener can acknowledge it and carry on with the partition.
+ * Records whose value could not be deserialized go straight to the DLT with their original
+ * bytes. Counts the moves as &lt;metricPrefix&gt;.consumer.rerouted{destination=retry|dlt}.
+ */
+public class RetryRouter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryRouter.class);
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(RetryRouter.class);
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final RetryTopics retryTopics;
+    private final Counter retryCounter;
+    private final Counter deadLetterCounter;
+
+    public RetryRouter(KafkaTemplate<String, Object> kafkaTemplate, RetryTopics retryTopics,
+                       MeterRegistry meterRegistry, String metricPrefix) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.retryTopics = retryTopics;
+        this.retryCounter = meterRegistry.counter(metricPrefix + ".consumer.rerouted", "destination", "retry");
+        this.deadLetterCounter = meterRegistry.counter(metricPrefix + ".consumer.rerouted", "destination", "dlt");
+    }
+
+    // Completes once the record is safely on its next topic; only then may the source offset be committed
+    public CompletableFuture<?> route(ConsumerRecord<String, ?> record, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        ProducerRecord<String, Object> next = retryTopics.nextRecord(record.topic(), record.key(),
+                record.value(), record.headers(), cause, System.currentTimeMillis());
+        boolean deadLetter = next.topic().endsWith("-dlt");
+        if (deadLetter) {
+            LOGGER.error("Retries exhausted for record {}-{}@{}, moving it to {}", record.topic(), record.partition(),
+                    record.offset(), next.topic(), cause);
+            deadLetterCounter.increment();
+        } else {
+            LOGGER.warn("Record {}-{}@{} failed, retrying through {}", record.topic(), record.partition(),
+                    record.offset(), next.topic());
+            retryCounter.increment();
+        }
+        return kafkaTemplate.send(next);
+    }
+
+    /**
+     * Error handler for the listener containers. A record the ErrorHandlingDeserializer could not
+     * decode never reaches a record listener and is dead-lettered here; anything else a listener
+     * lets escape is retried in place twice and then routed like any failed record. Recovered
+     * offsets are committed, also with manual acks.
+     */
+    public CommonErrorHandler errorHandler() {
+        return new DefaultErrorHandler((record, e) -> {
+            DeserializationException undecodable = deserializationFailure(record, e);
+            @SuppressWarnings("unchecked")
+            ConsumerRecord<String, ?> failed = (ConsumerRecord<String, ?>) record;
+            (undecodable != null ? deadLetter(failed, undecodable) : route(failed, e)).join();
+        }, new FixedBackOff(1000L, 2L));
+    }
+
+    /**
+     * Batch listeners get undecodable records in the batch, with a null value; this dead-letters
+     * them and returns the records that can be processed.
+     */
+    public <V> List<ConsumerRecord<String, V>> decodable(List<ConsumerRecord<String, V>> records) {
+        List<ConsumerRecord<String, V>> decodable = new ArrayList<>(records.size());
+        List<CompletableFuture<?>> deadLettered = new ArrayList<>();
+        for (ConsumerRecord<String, V> record : records) {
+            if (record.value() != null) {
+                decodable.add(record);
+            } else {
+                deadLettered.add(deadLetter(record, deserializationFailure(record, null)));
+            }
+        }
+        CompletableFuture.allOf(deadLettered.toArray(CompletableFuture[]::new)).join();
+        return deadLettered.isEmpty() ? records : decodable;
+    }
+
+    // Sends the record's original bytes to the DLT; failure is null for a record that arrived without a value
+    public CompletableFuture<?> deadLetter(ConsumerRecord<String, ?> record, DeserializationException failure) {
+        Object value = failure != null ? failure.getData() : null;
+        Throwable cause = failure == null ? new IllegalArgumentException("Record has no value")
+                : failure.getCause() != null ? failure.getCause() : failure;
+        ProducerRecord<String, Object> next = retryTopics.deadLetterRecord(record.topic(), record.key(), value,
+                record.headers(), cause);
+        // The serialized exception is already summarized in the oms-exception header
+        next.headers().remove(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER);
+        next.headers().remove(SerializationUtils.KEY_DESERIALIZER_EXCEPTION_HEADER);
+        LOGGER.error("Record {}-{}@{} cannot be deserialized, moving it to {}", record.topic(), record.partition(),
+                record.offset(), next.topic(), cause);
+        deadLetterCounter.increment();
+        return kafkaTemplate.send(next);
+    }
+
+    private static DeserializationException deserializationFailure(ConsumerRecord<?, ?> record, Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeserializationException undecodable) {
+                return undecodable;
+            }
+        }
+        return SerializationUtils.getExceptionFromHeader(record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER,
+                LOG_ACCESSOR);
+    }
+}
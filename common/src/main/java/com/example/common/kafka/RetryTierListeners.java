@@ -0,0 +1,52 @@
+package com.example.common.kafka;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listener containers for the retry tiers of one source topic, one container per tier. Retry
+ * listeners nack a record that is not due yet, and nack(Duration) pauses the whole consumer it
+ * came from; with a shared container a tier-2 record waiting for its delay would hold back tier-0
+ * records that are already due. Each container runs the factory's concurrency, so with as many
+ * consumers as partitions the pause stays within the record's own partition.
+ */
+public class RetryTierListeners<V> implements SmartLifecycle {
+    private final List<ConcurrentMessageListenerContainer<String, V>> containers = new ArrayList<>();
+
+    public RetryTierListeners(ConcurrentKafkaListenerContainerFactory<String, V> factory, String[] tierTopics,
+                              AcknowledgingMessageListener<String, V> listener) {
+        for (String topic : tierTopics) {
+            ConcurrentMessageListenerContainer<String, V> container = factory.createContainer(topic);
+            container.setBeanName(topic);
+            container.setupMessageListener(listener);
+            containers.add(container);
+        }
+    }
+
+    @Override
+    public void start() {
+        containers.forEach(ConcurrentMessageListenerContainer::start);
+    }
+
+    @Override
+    public void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return containers.stream().anyMatch(ConcurrentMessageListenerContainer::isRunning);
+    }
+
+    // Same phase as the @KafkaListener containers, so they start and stop together
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE;
+    }
+}
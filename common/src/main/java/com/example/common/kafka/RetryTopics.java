@@ -0,0 +1,168 @@
+package com.example.common.kafka;
+
+import com.example.common.codec.WireFormat;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Non-blocking retry layout: a record that consumer group {@code group} fails on {@code topic}
+ * is republished to {@code topic.group-retry-0}, then {@code topic.group-retry-1}, ... (one topic
+ * per delay tier, so every partition of a tier is ordered by due time) and finally to
+ * {@code topic.group-dlt}. The topics belong to the group, so other groups reading the same
+ * source never see its retries. The source partition moves on immediately. Progress travels in
+ * the oms-* headers.
+ */
+public final class RetryTopics {
+    public static final String ORIGINAL_TOPIC_HEADER = "oms-original-topic";
+    public static final String ATTEMPT_HEADER = "oms-retry-attempt";
+    public static final String DUE_AT_HEADER = "oms-retry-due-at";
+    public static final String EXCEPTION_HEADER = "oms-exception";
+    private static final Set<String> RETRY_HEADERS =
+            Set.of(ORIGINAL_TOPIC_HEADER, ATTEMPT_HEADER, DUE_AT_HEADER, EXCEPTION_HEADER);
+    private static final int MAX_EXCEPTION_LENGTH = 512;
+
+    private final String group;
+    private final int tiers;
+    private final long initialDelayMs;
+    private final double multiplier;
+    private final long maxDelayMs;
+
+    public RetryTopics(String group, int tiers, long initialDelayMs, double multiplier, long maxDelayMs) {
+        this.group = group;
+        this.tiers = tiers;
+        this.initialDelayMs = initialDelayMs;
+        this.multiplier = multiplier;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public String retryTopic(String topic, int tier) {
+        return topic + "." + group + "-retry-" + tier;
+    }
+
+    public String dltTopic(String topic) {
+        return topic + "." + group + "-dlt";
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public int getTiers() {
+        return tiers;
+    }
+
+    public String[] retryTopics(String topic) {
+        String[] topics = new String[tiers];
+        for (int tier = 0; tier < tiers; tier++) {
+            topics[tier] = retryTopic(topic, tier);
+        }
+        return topics;
+    }
+
+    // Exponential backoff per tier, capped at maxDelayMs
+    public long delayMs(int tier) {
+        return Math.min(maxDelayMs, (long) (initialDelayMs * Math.pow(multiplier, tier)));
+    }
+
+    /**
+     * Builds the record that carries a failed event to its next tier, or to the DLT once every
+     * tier has been tried.
+     *
+     * @param topic   topic the record failed on (source or retry topic)
+     * @param headers headers of the failed record, may be null
+     */
+    public <V> ProducerRecord<String, V> nextRecord(String topic, String key, V value, Headers headers,
+                                                     Throwable cause, long now) {
+        String originalTopic = originalTopic(headers, topic);
+        int attempt = attempt(headers);
+        Headers next = withoutRetryHeaders(headers);
+        next.remove(WireFormat.HEADER);
+        next.add(ORIGINAL_TOPIC_HEADER, bytes(originalTopic));
+        next.add(ATTEMPT_HEADER, bytes(Integer.toString(attempt + 1)));
+        next.add(EXCEPTION_HEADER, bytes(describe(cause)));
+        if (attempt >= tiers) {
+            return new ProducerRecord<>(dltTopic(originalTopic), null, key, value, next);
+        }
+        next.add(DUE_AT_HEADER, bytes(Long.toString(now + delayMs(attempt))));
+        return new ProducerRecord<>(retryTopic(originalTopic, attempt), null, key, value, next);
+    }
+
+    /**
+     * Builds the record that sends a failed event straight to the DLT, skipping the tiers no
+     * retry could help with (a payload that cannot be deserialized). The wire format header
+     * stays, since the value is forwarded as the raw bytes it describes.
+     */
+    public <V> ProducerRecord<String, V> deadLetterRecord(String topic, String key, V value, Headers headers,
+                                                           Throwable cause) {
+        String originalTopic = originalTopic(headers, topic);
+        Headers next = withoutRetryHeaders(headers);
+        next.add(ORIGINAL_TOPIC_HEADER, bytes(originalTopic));
+        next.add(ATTEMPT_HEADER, bytes(Integer.toString(attempt(headers) + 1)));
+        next.add(EXCEPTION_HEADER, bytes(describe(cause)));
+        return new ProducerRecord<>(dltTopic(originalTopic), null, key, value, next);
+    }
+
+    /**
+     * Builds the record that sends a DLT record back to this group alone: to its first retry
+     * tier, due at once and with every tier available again. Replaying to the source topic
+     * would deliver it to every group reading that topic.
+     */
+    public <K, V> ProducerRecord<K, V> replayRecord(String originalTopic, K key, V value, Headers headers) {
+        Headers replay = withoutRetryHeaders(headers);
+        replay.add(ORIGINAL_TOPIC_HEADER, bytes(originalTopic));
+        replay.add(ATTEMPT_HEADER, bytes("1"));
+        return new ProducerRecord<>(retryTopic(originalTopic, 0), null, key, value, replay);
+    }
+
+    // How long a record read from a retry topic still has to wait, 0 when due. Retry listeners nack
+    // a record that is not due for this long, which pauses the consumer of its tier's container (see
+    // RetryTierListeners): everything behind it in the same tier is due even later
+    public static long remainingDelayMs(Headers headers, long now) {
+        String dueAt = header(headers, DUE_AT_HEADER);
+        return dueAt == null ? 0 : Math.max(0, Long.parseLong(dueAt) - now);
+    }
+
+    public static int attempt(Headers headers) {
+        String attempt = header(headers, ATTEMPT_HEADER);
+        return attempt == null ? 0 : Integer.parseInt(attempt);
+    }
+
+    public static String originalTopic(Headers headers, String fallback) {
+        String originalTopic = header(headers, ORIGINAL_TOPIC_HEADER);
+        return originalTopic != null ? originalTopic : fallback;
+    }
+
+    public static String header(Headers headers, String name) {
+        Header header = headers == null ? null : headers.lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    // Copy of the headers without retry bookkeeping
+    public static Headers withoutRetryHeaders(Headers headers) {
+        List<Header> kept = new ArrayList<>();
+        if (headers != null) {
+            for (Header header : headers) {
+                if (!RETRY_HEADERS.contains(header.key())) {
+                    kept.add(header);
+                }
+            }
+        }
+        return new RecordHeaders(kept);
+    }
+
+    private static String describe(Throwable cause) {
+        String description = cause == null ? "unknown" : cause.getClass().getName() + ": " + cause.getMessage();
+        return description.length() > MAX_EXCEPTION_LENGTH ? description.substring(0, MAX_EXCEPTION_LENGTH) : description;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
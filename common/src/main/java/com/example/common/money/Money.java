@@ -0,0 +1,135 @@
+package com.example.common.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * Immutable amount of money: a long count of the currency's minor units (cents for USD, yen
+ * for JPY) and its ISO 4217 code. Arithmetic is exact and overflow-checked, and nothing
+ * between parsing "59.98" and printing it again goes through floating point.
+ */
+@JsonSerialize(using = MoneyJson.Serializer.class)
+@JsonDeserialize(using = MoneyJson.Deserializer.class)
+public final class Money implements Comparable<Money> {
+    // Currency of amounts that arrive as bare numbers, from producers that predate this type
+    public static final String DEFAULT_CURRENCY = "USD";
+
+    private final long minorUnits;
+    private final String currency;
+
+    private Money(long minorUnits, String currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, canonical(currency));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the amount has more decimals than the currency has minor units
+     */
+    public static Money of(BigDecimal amount, String currency) {
+        String code = canonical(currency);
+        try {
+            return new Money(amount.movePointRight(scaleOf(code)).longValueExact(), code);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString() + " is not a whole number of "
+                    + code + " minor units or out of range");
+        }
+    }
+
+    public static Money parse(String amount, String currency) {
+        try {
+            return of(new BigDecimal(amount.trim()), currency);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount '" + amount + "'");
+        }
+    }
+
+    // Only for amounts that were already stored or sent as doubles
+    public static Money rounded(double amount, String currency) {
+        String code = canonical(currency);
+        return new Money(BigDecimal.valueOf(amount).setScale(scaleOf(code), RoundingMode.HALF_EVEN)
+                .unscaledValue().longValueExact(), code);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public int getScale() {
+        return scaleOf(currency);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(minorUnits, factor), currency);
+    }
+
+    public boolean isSameCurrency(Money other) {
+        // Codes are canonical instances, see canonical()
+        return currency == other.currency;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, getScale());
+    }
+
+    // "59.98", for display
+    public String toPlainString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Money other && minorUnits == other.minorUnits && currency == other.currency;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toPlainString() + " " + currency;
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (currency != other.currency) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+    }
+
+    // Currency keeps one instance per code, so its code strings can be compared by reference
+    static String canonical(String currency) {
+        return Currency.getInstance(currency == null ? DEFAULT_CURRENCY : currency).getCurrencyCode();
+    }
+
+    private static int scaleOf(String currency) {
+        return Math.max(Currency.getInstance(currency).getDefaultFractionDigits(), 0);
+    }
+}
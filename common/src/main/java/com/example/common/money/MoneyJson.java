@@ -0,0 +1,76 @@
+package com.example.common.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+/**
+ * JSON form of {@link Money}: {"minorUnits":5998,"currency":"USD"}. Also reads
+ * {"amount":"59.98","currency":"EUR"}, and bare numbers or decimal strings in the
+ * default currency as sent before amounts had a currency. Decimals are read from the
+ * token text, never through a double.
+ */
+public final class MoneyJson {
+
+    private MoneyJson() {
+    }
+
+    public static final class Serializer extends JsonSerializer<Money> {
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartObject();
+            gen.writeNumberField("minorUnits", value.getMinorUnits());
+            gen.writeStringField("currency", value.getCurrency());
+            gen.writeEndObject();
+        }
+    }
+
+    public static final class Deserializer extends JsonDeserializer<Money> {
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            try {
+                if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    return Money.of(p.getDecimalValue(), Money.DEFAULT_CURRENCY);
+                }
+                if (token == JsonToken.VALUE_STRING) {
+                    return Money.parse(p.getText(), Money.DEFAULT_CURRENCY);
+                }
+                if (token == JsonToken.START_OBJECT) {
+                    return readObject(p);
+                }
+            } catch (IllegalArgumentException e) {
+                return (Money) ctxt.handleWeirdStringValue(Money.class, p.getText(), e.getMessage());
+            }
+            return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+        }
+
+        private static Money readObject(JsonParser p) throws IOException {
+            Long minorUnits = null;
+            String amount = null;
+            String currency = null;
+            for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+                p.nextToken();
+                switch (field) {
+                    case "minorUnits" -> minorUnits = p.getLongValue();
+                    case "amount" -> amount = p.getText();
+                    case "currency" -> currency = p.getValueAsString();
+                    default -> p.skipChildren();
+                }
+            }
+            if (minorUnits != null) {
+                return Money.ofMinor(minorUnits, currency);
+            }
+            if (amount != null) {
+                return Money.parse(amount, currency);
+            }
+            throw new IllegalArgumentException("Money needs minorUnits or amount");
+        }
+    }
+}
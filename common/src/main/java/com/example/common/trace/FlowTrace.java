@@ -0,0 +1,21 @@
+package com.example.common.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One recorded flow as shown by the flows endpoints; elapsedMs of a stage is the time since the previous one
+public record FlowTrace(String correlationId, long startedAt, long totalMs, List<Stage> stages) {
+
+    public record Stage(String name, long at, long elapsedMs) {
+    }
+
+    static FlowTrace of(TraceContext trace) {
+        List<Stage> stages = new ArrayList<>(trace.size());
+        for (int i = 0; i < trace.size(); i++) {
+            long elapsed = i == 0 ? 0 : trace.time(i) - trace.time(i - 1);
+            stages.add(new Stage(trace.stage(i), trace.time(i), elapsed));
+        }
+        long startedAt = trace.size() == 0 ? 0 : trace.time(0);
+        return new FlowTrace(trace.getCorrelationId(), startedAt, trace.totalMs(), stages);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.common.trace;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the last capacity finished flows in a ring buffer. Recording is one getAndIncrement plus
+ * one array store of the (immutable) context, with no lock and no per-stage bookkeeping; all the
+ * sorting and formatting happens in {@link #slowest}, when somebody asks.
+ */
+public final class SpanRecorder {
+    private final AtomicReferenceArray<TraceContext> ring;
+    private final AtomicLong next = new AtomicLong();
+
+    public SpanRecorder(int capacity) {
+        this.ring = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void record(TraceContext trace, String finalStage) {
+        if (trace == null) {
+            return;
+        }
+        int slot = (int) (next.getAndIncrement() % ring.length());
+        ring.lazySet(slot, trace.hop(finalStage));
+    }
+
+    public List<FlowTrace> slowest(int limit) {
+        List<TraceContext> recent = new ArrayList<>(ring.length());
+        for (int i = 0; i < ring.length(); i++) {
+            TraceContext trace = ring.get(i);
+            if (trace != null) {
+                recent.add(trace);
+            }
+        }
+        return recent.stream()
+                .sorted(Comparator.comparingLong(TraceContext::totalMs).reversed())
+                .limit(limit)
+                .map(FlowTrace::of)
+                .toList();
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.common.trace;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Correlation id of one order flow plus the wall-clock time (epoch millis) each hop was reached,
+ * in order. Travels as Kafka headers: oms-correlation-id once and one oms-hop header
+ * ("stage=millis") per hop. Immutable; {@link #hop} returns a copy with one more entry.
+ */
+public final class TraceContext {
+    public static final String CORRELATION_ID_HEADER = "oms-correlation-id";
+    public static final String HOP_HEADER = "oms-hop";
+
+    public static final String ORDER_PUBLISHED = "order.published";
+    public static final String PAYMENT_RECEIVED = "payment.received";
+    public static final String PAYMENT_SAVED = "payment.saved";
+    public static final String PAYMENT_PUBLISHED = "payment.published";
+    public static final String PAYMENT_ACKED = "payment.acked";
+    public static final String NOTIFICATION_RECEIVED = "notification.received";
+    public static final String NOTIFICATION_PERSISTED = "notification.persisted";
+
+    private static final String[] NO_STAGES = new String[0];
+    private static final long[] NO_TIMES = new long[0];
+    // Header values of the known stages are parsed back to these instances instead of new Strings
+    private static final String[] KNOWN_STAGES = {ORDER_PUBLISHED, PAYMENT_RECEIVED, PAYMENT_SAVED,
+            PAYMENT_PUBLISHED, PAYMENT_ACKED, NOTIFICATION_RECEIVED, NOTIFICATION_PERSISTED};
+    private static final byte[][] KNOWN_STAGE_BYTES = Arrays.stream(KNOWN_STAGES)
+            .map(stage -> stage.getBytes(StandardCharsets.US_ASCII))
+            .toArray(byte[][]::new);
+
+    private final String correlationId;
+    private final String[] stages;
+    private final long[] times;
+
+    private TraceContext(String correlationId, String[] stages, long[] times) {
+        this.correlationId = correlationId;
+        this.stages = stages;
+        this.times = times;
+    }
+
+    public static TraceContext start(String correlationId) {
+        return new TraceContext(correlationId, NO_STAGES, NO_TIMES);
+    }
+
+    /**
+     * Reads the context off a consumed record. Records from producers that do not trace yet get
+     * the fallback correlation id and, as first hop, publishedStage at the record's timestamp.
+     */
+    public static TraceContext fromRecord(ConsumerRecord<?, ?> record, String fallbackCorrelationId,
+                                          String publishedStage) {
+        Headers headers = record.headers();
+        Header correlation = headers.lastHeader(CORRELATION_ID_HEADER);
+        String correlationId = correlation != null
+                ? new String(correlation.value(), StandardCharsets.UTF_8)
+                : fallbackCorrelationId;
+        String[] stages = NO_STAGES;
+        long[] times = NO_TIMES;
+        int count = 0;
+        for (Header hop : headers.headers(HOP_HEADER)) {
+            byte[] value = hop.value();
+            int separator = lastIndexOf(value, (byte) '=');
+            if (separator <= 0) {
+                continue;
+            }
+            if (count == stages.length) {
+                stages = Arrays.copyOf(stages, Math.max(8, count * 2));
+                times = Arrays.copyOf(times, stages.length);
+            }
+            stages[count] = stageName(value, separator);
+            times[count] = parseTime(value, separator + 1);
+            count++;
+        }
+        if (count == 0) {
+            return start(correlationId).hop(publishedStage, record.timestamp());
+        }
+        return new TraceContext(correlationId, Arrays.copyOf(stages, count), Arrays.copyOf(times, count));
+    }
+
+    // Counterpart of encodeHops, for contexts that were parked in a database row
+    public static TraceContext decode(String correlationId, String encodedHops) {
+        if (correlationId == null) {
+            return null;
+        }
+        TraceContext context = start(correlationId);
+        if (encodedHops == null || encodedHops.isEmpty()) {
+            return context;
+        }
+        for (String hop : encodedHops.split(",")) {
+            int separator = hop.lastIndexOf('=');
+            if (separator > 0) {
+                context = context.hop(hop.substring(0, separator), parseTime(hop.substring(separator + 1)));
+            }
+        }
+        return context;
+    }
+
+    public TraceContext hop(String stage) {
+        return hop(stage, System.currentTimeMillis());
+    }
+
+    public TraceContext hop(String stage, long at) {
+        String[] nextStages = Arrays.copyOf(stages, stages.length + 1);
+        long[] nextTimes = Arrays.copyOf(times, times.length + 1);
+        nextStages[stages.length] = stage;
+        nextTimes[times.length] = at;
+        return new TraceContext(correlationId, nextStages, nextTimes);
+    }
+
+    public void writeTo(Headers headers) {
+        headers.add(CORRELATION_ID_HEADER, correlationId.getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < stages.length; i++) {
+            headers.add(HOP_HEADER, hopValue(stages[i], times[i]));
+        }
+    }
+
+    public String encodeHops() {
+        StringBuilder encoded = new StringBuilder(stages.length * 32);
+        for (int i = 0; i < stages.length; i++) {
+            if (i > 0) {
+                encoded.append(',');
+            }
+            encoded.append(stages[i]).append('=').append(times[i]);
+        }
+        return encoded.toString();
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public int size() {
+        return stages.length;
+    }
+
+    public String stage(int index) {
+        return stages[index];
+    }
+
+    public long time(int index) {
+        return times[index];
+    }
+
+    // First to last hop, 0 with fewer than two hops
+    public long totalMs() {
+        return times.length < 2 ? 0 : times[times.length - 1] - times[0];
+    }
+
+    private static String stageName(byte[] value, int length) {
+        for (int i = 0; i < KNOWN_STAGE_BYTES.length; i++) {
+            if (Arrays.equals(KNOWN_STAGE_BYTES[i], 0, KNOWN_STAGE_BYTES[i].length, value, 0, length)) {
+                return KNOWN_STAGES[i];
+            }
+        }
+        return new String(value, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // "stage=millis" as bytes, without going through an intermediate String
+    private static byte[] hopValue(String stage, long at) {
+        byte[] name = stage.getBytes(StandardCharsets.UTF_8);
+        int digits = at <= 0 ? 1 : (int) Math.log10(at) + 1;
+        byte[] value = Arrays.copyOf(name, name.length + 1 + digits);
+        value[name.length] = '=';
+        long remaining = Math.max(at, 0);
+        for (int i = value.length - 1; i > name.length; i--) {
+            value[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return value;
+    }
+
+    private static long parseTime(byte[] value, int from) {
+        long time = 0;
+        for (int i = from; i < value.length; i++) {
+            int digit = value[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return 0L;
+            }
+            time = time * 10 + digit;
+        }
+        return time;
+    }
+
+    private static int lastIndexOf(byte[] value, byte b) {
+        for (int i = value.length - 1; i >= 0; i--) {
+            if (value[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long parseTime(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.common.codec;
+
+import com.example.common.common_dto.NotificationEvent;
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.common_dto.OrderItemDto;
+import com.example.common.common_dto.PaymentEvent;
+import com.example.common.money.Money;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryEventCodecTest {
+    private static final long CREATED_AT = 1_700_000_000_000L;
+
+    @Test
+    void roundTripsOrderEvent() {
+        OrderEvent event = orderEvent();
+
+        byte[] data = BinaryEventCodec.encode(event);
+
+        assertThat(BinaryEventCodec.isBinary(data)).isTrue();
+        assertThat(data[1]).isEqualTo((byte) BinaryEventCodec.SCHEMA_VERSION);
+        assertThat(BinaryEventCodec.decode(data, OrderEvent.class)).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void roundTripsOrderEventWithNullFields() {
+        OrderEvent event = new OrderEvent();
+        event.setOrderId("order-1");
+
+        OrderEvent decoded = BinaryEventCodec.decode(BinaryEventCodec.encode(event), OrderEvent.class);
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+        assertThat(decoded.getItems()).isNull();
+    }
+
+    @Test
+    void roundTripsPaymentEvent() {
+        PaymentEvent event = paymentEvent();
+
+        PaymentEvent decoded = BinaryEventCodec.decode(BinaryEventCodec.encode(event), PaymentEvent.class);
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void roundTripsNotificationEvent() {
+        NotificationEvent event = new NotificationEvent();
+        event.setNotificationId("notification-1");
+        event.setOrderId("order-1");
+        event.setCustomerId("customer-1");
+        event.setCustomerEmail("jane@example.com");
+        event.setMessage("Grüße, Jane");
+        event.setStatus("SENT");
+
+        NotificationEvent decoded = BinaryEventCodec.decode(BinaryEventCodec.encode(event), NotificationEvent.class);
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void readsVersion1OrderEvent() {
+        BinaryWriter writer = header(1, 1);
+        writeOrderPrefix(writer);
+        writer.writeNullableInt(2);
+        writer.writeNullableDouble(29.99);
+        writer.writeNullableDouble(59.98);
+        writer.writeString("CREATED");
+
+        OrderEvent decoded = BinaryEventCodec.decode(writer.toByteArray(), OrderEvent.class);
+
+        assertOrderPrefix(decoded);
+        assertThat(decoded.getItems().get(0).getQuantity()).isEqualTo(2);
+        assertThat(decoded.getItems().get(0).getPrice()).isEqualTo(Money.ofMinor(2999, "USD"));
+        assertThat(decoded.getTotalAmount()).isEqualTo(Money.ofMinor(5998, "USD"));
+        assertThat(decoded.getStatus()).isEqualTo("CREATED");
+        assertThat(decoded.getCreatedAt()).isNull();
+        assertThat(decoded.getLocale()).isNull();
+    }
+
+    @Test
+    void readsVersion2OrderEventWithMissingQuantity() {
+        BinaryWriter writer = header(2, 1);
+        writeOrderPrefix(writer);
+        writer.writeNullableInt(null);
+        writer.writeNullableDouble(null);
+        writer.writeNullableDouble(0.105);
+        writer.writeString("CREATED");
+        writer.writeNullableLong(CREATED_AT);
+
+        OrderEvent decoded = BinaryEventCodec.decode(writer.toByteArray(), OrderEvent.class);
+
+        assertOrderPrefix(decoded);
+        assertThat(decoded.getItems().get(0).getQuantity()).isZero();
+        assertThat(decoded.getItems().get(0).getPrice()).isNull();
+        // Doubles from before Money are rounded half-even to the currency's scale
+        assertThat(decoded.getTotalAmount()).isEqualTo(Money.ofMinor(10, "USD"));
+        assertThat(decoded.getCreatedAt()).isEqualTo(CREATED_AT);
+        assertThat(decoded.getLocale()).isNull();
+    }
+
+    @Test
+    void readsVersion3OrderEvent() {
+        BinaryWriter writer = header(3, 1);
+        writeOrderPrefix(writer);
+        writer.writeSignedVarLong(2);
+        writeMoney(writer, 2999, "EUR");
+        writeMoney(writer, 5998, "EUR");
+        writer.writeString("CREATED");
+        writer.writeNullableLong(CREATED_AT);
+
+        OrderEvent decoded = BinaryEventCodec.decode(writer.toByteArray(), OrderEvent.class);
+
+        assertOrderPrefix(decoded);
+        assertThat(decoded.getItems().get(0).getQuantity()).isEqualTo(2);
+        assertThat(decoded.getItems().get(0).getPrice()).isEqualTo(Money.ofMinor(2999, "EUR"));
+        assertThat(decoded.getTotalAmount()).isEqualTo(Money.ofMinor(5998, "EUR"));
+        assertThat(decoded.getCreatedAt()).isEqualTo(CREATED_AT);
+        assertThat(decoded.getLocale()).isNull();
+    }
+
+    @Test
+    void readsVersion1PaymentEvent() {
+        BinaryWriter writer = header(1, 2);
+        writer.writeString("payment-1");
+        writer.writeString("order-1");
+        writer.writeString("customer-1");
+        writer.writeNullableDouble(59.98);
+        writer.writeString("COMPLETED");
+        writer.writeString("CARD");
+
+        PaymentEvent decoded = BinaryEventCodec.decode(writer.toByteArray(), PaymentEvent.class);
+
+        assertThat(decoded.getPaymentId()).isEqualTo("payment-1");
+        assertThat(decoded.getAmount()).isEqualTo(Money.ofMinor(5998, "USD"));
+        assertThat(decoded.getPaymentMethod()).isEqualTo("CARD");
+        assertThat(decoded.getCreatedAt()).isNull();
+        assertThat(decoded.getOrderCreatedAt()).isNull();
+    }
+
+    @Test
+    void ignoresFieldsAppendedByNewerVersions() {
+        BinaryWriter writer = header(BinaryEventCodec.SCHEMA_VERSION + 1, 2);
+        PaymentEvent event = paymentEvent();
+        writer.writeString(event.getPaymentId());
+        writer.writeString(event.getOrderId());
+        writer.writeString(event.getCustomerId());
+        writeMoney(writer, event.getAmount().getMinorUnits(), event.getAmount().getCurrency());
+        writer.writeString(event.getStatus());
+        writer.writeString(event.getPaymentMethod());
+        writer.writeNullableLong(event.getCreatedAt());
+        writer.writeNullableLong(event.getOrderCreatedAt());
+        writer.writeString("a field this reader does not know");
+
+        PaymentEvent decoded = BinaryEventCodec.decode(writer.toByteArray(), PaymentEvent.class);
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void rejectsUnknownVersionAndType() {
+        BinaryWriter version0 = header(0, 1);
+        assertThatThrownBy(() -> BinaryEventCodec.decode(version0.toByteArray(), OrderEvent.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version 0");
+
+        BinaryWriter unknownType = header(BinaryEventCodec.SCHEMA_VERSION, 9);
+        assertThatThrownBy(() -> BinaryEventCodec.decode(unknownType.toByteArray(), OrderEvent.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("type 9");
+    }
+
+    @Test
+    void rejectsMismatchedTargetType() {
+        byte[] data = BinaryEventCodec.encode(paymentEvent());
+
+        assertThatThrownBy(() -> BinaryEventCodec.decode(data, OrderEvent.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("PaymentEvent");
+    }
+
+    @Test
+    void doesNotTakeJsonForBinary() {
+        assertThat(BinaryEventCodec.isBinary("{\"orderId\":\"order-1\"}".getBytes())).isFalse();
+        assertThat(BinaryEventCodec.isBinary(new byte[0])).isFalse();
+        assertThat(BinaryEventCodec.isBinary(null)).isFalse();
+    }
+
+    private static OrderEvent orderEvent() {
+        OrderItemDto item = new OrderItemDto();
+        item.setProductId("product-1");
+        item.setProductName("Mug");
+        item.setDescription(null);
+        item.setQuantity(3);
+        item.setPrice(Money.ofMinor(1250, "EUR"));
+
+        OrderEvent event = new OrderEvent();
+        event.setOrderId("order-1");
+        event.setCustomerId("customer-1");
+        event.setCustomerName("Jane Customer");
+        event.setCustomerEmail("jane@example.com");
+        event.setShippingAddress("Hauptstraße 1, Berlin");
+        event.setItems(List.of(item));
+        event.setTotalAmount(Money.ofMinor(3750, "EUR"));
+        event.setStatus("CREATED");
+        event.setCreatedAt(CREATED_AT);
+        event.setLocale("de-DE");
+        return event;
+    }
+
+    private static PaymentEvent paymentEvent() {
+        PaymentEvent event = new PaymentEvent();
+        event.setPaymentId("payment-1");
+        event.setOrderId("order-1");
+        event.setCustomerId("customer-1");
+        event.setAmount(Money.ofMinor(-5000, "JPY"));
+        event.setStatus("REFUNDED");
+        event.setPaymentMethod("CARD");
+        event.setCreatedAt(CREATED_AT + 1);
+        event.setOrderCreatedAt(CREATED_AT);
+        return event;
+    }
+
+    private static BinaryWriter header(int version, int typeTag) {
+        BinaryWriter writer = new BinaryWriter(64);
+        writer.writeByte(BinaryEventCodec.MAGIC);
+        writer.writeByte(version);
+        writer.writeByte(typeTag);
+        return writer;
+    }
+
+    // Fields up to and including the first item's description, unchanged since version 1
+    private static void writeOrderPrefix(BinaryWriter writer) {
+        writer.writeString("order-1");
+        writer.writeString("customer-1");
+        writer.writeString("Jane Customer");
+        writer.writeString("jane@example.com");
+        writer.writeString("1 Main St");
+        writer.writeVarLong(2);
+        writer.writeString("product-1");
+        writer.writeString("Mug");
+        writer.writeString("Blue");
+    }
+
+    private static void assertOrderPrefix(OrderEvent decoded) {
+        assertThat(decoded.getOrderId()).isEqualTo("order-1");
+        assertThat(decoded.getCustomerId()).isEqualTo("customer-1");
+        assertThat(decoded.getCustomerName()).isEqualTo("Jane Customer");
+        assertThat(decoded.getCustomerEmail()).isEqualTo("jane@example.com");
+        assertThat(decoded.getShippingAddress()).isEqualTo("1 Main St");
+        assertThat(decoded.getItems()).hasSize(1);
+        assertThat(decoded.getItems().get(0).getProductId()).isEqualTo("product-1");
+        assertThat(decoded.getItems().get(0).getProductName()).isEqualTo("Mug");
+        assertThat(decoded.getItems().get(0).getDescription()).isEqualTo("Blue");
+    }
+
+    private static void writeMoney(BinaryWriter writer, long minorUnits, String currency) {
+        writer.writeByte(1);
+        writer.writeSignedVarLong(minorUnits);
+        writer.writeString(currency);
+    }
+}
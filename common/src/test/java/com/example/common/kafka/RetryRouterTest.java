@@ -0,0 +1,80 @@
+package com.example.common.kafka;
+
+import com.example.common.codec.EventSerializer;
+import com.example.common.codec.WireFormat;
+import com.example.common.common_dto.OrderEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RetryRouterTest {
+    private static final byte[] GARBAGE = "{\"orderId\":".getBytes(StandardCharsets.UTF_8);
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RetryRouter retryRouter = new RetryRouter(kafkaTemplate,
+            new RetryTopics("payment-group", 2, 1000, 5, 60_000), meterRegistry, "payment");
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deadLettersUndecodableRecordsOfABatchWithTheirOriginalBytes() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        ConsumerRecord<String, OrderEvent> good = record(1, new OrderEvent(), new RecordHeaders());
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(WireFormat.HEADER, WireFormat.JSON.getBytes(StandardCharsets.UTF_8));
+        // What ErrorHandlingDeserializer records when the wrapped deserializer throws
+        SerializationUtils.deserializationException(headers, GARBAGE, new IllegalStateException("truncated"), false);
+        ConsumerRecord<String, OrderEvent> bad = record(2, null, headers);
+
+        List<ConsumerRecord<String, OrderEvent>> decodable = retryRouter.decodable(List.of(good, bad));
+
+        assertThat(decodable).containsExactly(good);
+        ArgumentCaptor<ProducerRecord<String, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(sent.capture());
+        ProducerRecord<String, Object> deadLetter = sent.getValue();
+        assertThat(deadLetter.topic()).isEqualTo("orders.payment-group-dlt");
+        assertThat(deadLetter.key()).isEqualTo("order-2");
+        assertThat(deadLetter.value()).isEqualTo(GARBAGE);
+        assertThat(deadLetter.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER)).isNull();
+        assertThat(RetryTopics.header(deadLetter.headers(), RetryTopics.EXCEPTION_HEADER))
+                .isEqualTo("java.lang.IllegalStateException: truncated");
+        assertThat(meterRegistry.counter("payment.consumer.rerouted", "destination", "dlt").count()).isEqualTo(1);
+
+        // The bytes go out unchanged, still described by the wire format header they came with
+        byte[] written = new EventSerializer<>(WireFormat.BINARY).serialize(deadLetter.topic(), deadLetter.headers(),
+                deadLetter.value());
+        assertThat(written).isEqualTo(GARBAGE);
+        assertThat(RetryTopics.header(deadLetter.headers(), WireFormat.HEADER)).isEqualTo(WireFormat.JSON);
+    }
+
+    @Test
+    void passesWholeBatchesThrough() {
+        List<ConsumerRecord<String, OrderEvent>> batch =
+                List.of(record(1, new OrderEvent(), new RecordHeaders()), record(2, new OrderEvent(), new RecordHeaders()));
+
+        assertThat(retryRouter.decodable(batch)).isSameAs(batch);
+    }
+
+    private static ConsumerRecord<String, OrderEvent> record(long offset, OrderEvent value, RecordHeaders headers) {
+        return new ConsumerRecord<>("orders", 0, offset, 0L, TimestampType.CREATE_TIME, 0, 0, "order-" + offset, value,
+                headers, Optional.empty());
+    }
+}
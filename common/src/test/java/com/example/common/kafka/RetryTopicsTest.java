@@ -0,0 +1,91 @@
+package com.example.common.kafka;
+
+import com.example.common.codec.WireFormat;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryTopicsTest {
+    private static final long NOW = 1_700_000_000_000L;
+    private final RetryTopics retryTopics = new RetryTopics("payment-group", 2, 1000, 5, 60_000);
+
+    @Test
+    void namesTopicsAfterTheGroup() {
+        RetryTopics other = new RetryTopics("notification-group", 2, 1000, 5, 60_000);
+
+        assertThat(retryTopics.retryTopics("orders"))
+                .containsExactly("orders.payment-group-retry-0", "orders.payment-group-retry-1");
+        assertThat(retryTopics.dltTopic("orders")).isEqualTo("orders.payment-group-dlt");
+        assertThat(other.retryTopics("orders")).doesNotContain(retryTopics.retryTopics("orders"));
+        assertThat(other.dltTopic("orders")).isNotEqualTo(retryTopics.dltTopic("orders"));
+    }
+
+    @Test
+    void movesThroughTheTiersToTheDlt() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add("correlation-id", bytes("c-1"));
+
+        ProducerRecord<String, String> first = retryTopics.nextRecord("orders", "order-1", "v", headers,
+                new IllegalStateException("boom"), NOW);
+        ProducerRecord<String, String> second = retryTopics.nextRecord(first.topic(), "order-1", "v",
+                first.headers(), new IllegalStateException("boom"), NOW);
+        ProducerRecord<String, String> last = retryTopics.nextRecord(second.topic(), "order-1", "v",
+                second.headers(), new IllegalStateException("boom"), NOW);
+
+        assertThat(first.topic()).isEqualTo("orders.payment-group-retry-0");
+        assertThat(RetryTopics.remainingDelayMs(first.headers(), NOW)).isEqualTo(1000);
+        assertThat(second.topic()).isEqualTo("orders.payment-group-retry-1");
+        assertThat(RetryTopics.remainingDelayMs(second.headers(), NOW)).isEqualTo(5000);
+        assertThat(last.topic()).isEqualTo("orders.payment-group-dlt");
+        assertThat(RetryTopics.attempt(last.headers())).isEqualTo(3);
+        assertThat(RetryTopics.originalTopic(last.headers(), null)).isEqualTo("orders");
+        assertThat(RetryTopics.header(last.headers(), "correlation-id")).isEqualTo("c-1");
+        assertThat(RetryTopics.header(last.headers(), RetryTopics.EXCEPTION_HEADER))
+                .isEqualTo("java.lang.IllegalStateException: boom");
+    }
+
+    @Test
+    void deadLettersWithoutTheRemainingTiers() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(WireFormat.HEADER, bytes(WireFormat.BINARY));
+
+        ProducerRecord<String, byte[]> deadLetter = retryTopics.deadLetterRecord("orders", "order-1", bytes("x"),
+                headers, new IllegalArgumentException("bad magic"));
+
+        assertThat(deadLetter.topic()).isEqualTo("orders.payment-group-dlt");
+        assertThat(RetryTopics.attempt(deadLetter.headers())).isEqualTo(1);
+        assertThat(RetryTopics.originalTopic(deadLetter.headers(), null)).isEqualTo("orders");
+        assertThat(RetryTopics.header(deadLetter.headers(), WireFormat.HEADER)).isEqualTo(WireFormat.BINARY);
+    }
+
+    @Test
+    void replaysIntoTheFirstTierOfTheGroupOnly() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(RetryTopics.ORIGINAL_TOPIC_HEADER, bytes("orders"));
+        headers.add(RetryTopics.ATTEMPT_HEADER, bytes("3"));
+        headers.add(RetryTopics.DUE_AT_HEADER, bytes(Long.toString(NOW + 5000)));
+        headers.add(RetryTopics.EXCEPTION_HEADER, bytes("boom"));
+        headers.add("correlation-id", bytes("c-1"));
+
+        ProducerRecord<byte[], byte[]> replay = retryTopics.replayRecord("orders", bytes("order-1"),
+                bytes("{}"), headers);
+
+        assertThat(replay.topic()).isEqualTo("orders.payment-group-retry-0");
+        assertThat(RetryTopics.remainingDelayMs(replay.headers(), NOW)).isZero();
+        assertThat(RetryTopics.header(replay.headers(), RetryTopics.EXCEPTION_HEADER)).isNull();
+        assertThat(RetryTopics.header(replay.headers(), "correlation-id")).isEqualTo("c-1");
+
+        // A failure after the replay gets every later tier again before it is dead-lettered
+        ProducerRecord<String, byte[]> next = retryTopics.nextRecord(replay.topic(), "order-1", replay.value(),
+                replay.headers(), new IllegalStateException("boom"), NOW);
+        assertThat(next.topic()).isEqualTo("orders.payment-group-retry-1");
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.common.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyJsonTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void writesMinorUnitsAndCurrency() throws Exception {
+        assertThat(objectMapper.writeValueAsString(Money.ofMinor(5998, "EUR")))
+                .isEqualTo("{\"minorUnits\":5998,\"currency\":\"EUR\"}");
+    }
+
+    @Test
+    void roundTrips() throws Exception {
+        Money money = Money.ofMinor(-123456789, "JPY");
+
+        assertThat(objectMapper.readValue(objectMapper.writeValueAsString(money), Money.class)).isEqualTo(money);
+    }
+
+    @Test
+    void readsEveryShape() throws Exception {
+        assertThat(read("59.98")).isEqualTo(Money.ofMinor(5998, "USD"));
+        assertThat(read("60")).isEqualTo(Money.ofMinor(6000, "USD"));
+        assertThat(read("\"59.98\"")).isEqualTo(Money.ofMinor(5998, "USD"));
+        assertThat(read("{\"minorUnits\":5998,\"currency\":\"EUR\"}")).isEqualTo(Money.ofMinor(5998, "EUR"));
+        assertThat(read("{\"currency\":\"EUR\",\"minorUnits\":5998}")).isEqualTo(Money.ofMinor(5998, "EUR"));
+        assertThat(read("{\"amount\":\"59.98\",\"currency\":\"EUR\"}")).isEqualTo(Money.ofMinor(5998, "EUR"));
+        assertThat(read("{\"amount\":59.98,\"currency\":\"EUR\"}")).isEqualTo(Money.ofMinor(5998, "EUR"));
+        assertThat(read("{\"amount\":\"5998\",\"currency\":\"JPY\"}")).isEqualTo(Money.ofMinor(5998, "JPY"));
+        assertThat(read("{\"minorUnits\":5998}")).isEqualTo(Money.ofMinor(5998, Money.DEFAULT_CURRENCY));
+    }
+
+    @Test
+    void readsMixedShapesInOneDocument() throws Exception {
+        String json = "[59.98, \"0.10\", {\"minorUnits\":100,\"currency\":\"GBP\"},"
+                + " {\"amount\":\"1.5\",\"currency\":\"EUR\",\"display\":{\"symbol\":\"€\"}}, null]";
+
+        Money[] amounts = objectMapper.readValue(json, Money[].class);
+
+        assertThat(Arrays.asList(amounts)).containsExactly(Money.ofMinor(5998, "USD"), Money.ofMinor(10, "USD"),
+                Money.ofMinor(100, "GBP"), Money.ofMinor(150, "EUR"), null);
+    }
+
+    @Test
+    void readsDecimalsWithoutGoingThroughDouble() throws Exception {
+        assertThat(read("0.30000000000000000")).isEqualTo(Money.ofMinor(30, "USD"));
+        assertThat(read("92233720368547758.07")).isEqualTo(Money.ofMinor(Long.MAX_VALUE, "USD"));
+    }
+
+    @Test
+    void rejectsAmountsTheCurrencyCannotHold() {
+        assertThatThrownBy(() -> read("59.985")).isInstanceOf(InvalidFormatException.class);
+        assertThatThrownBy(() -> read("\"abc\"")).isInstanceOf(InvalidFormatException.class);
+        assertThatThrownBy(() -> read("{\"amount\":\"1.5\",\"currency\":\"JPY\"}"))
+                .isInstanceOf(InvalidFormatException.class);
+    }
+
+    @Test
+    void rejectsObjectsWithoutAnAmount() {
+        assertThatThrownBy(() -> read("{\"currency\":\"EUR\"}"))
+                .isInstanceOf(InvalidFormatException.class)
+                .hasMessageContaining("minorUnits or amount");
+        assertThatThrownBy(() -> read("true")).isInstanceOf(MismatchedInputException.class);
+    }
+
+    private Money read(String json) throws Exception {
+        return objectMapper.readValue(json, Money.class);
+    }
+}
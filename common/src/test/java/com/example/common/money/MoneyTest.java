@@ -0,0 +1,105 @@
+package com.example.common.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void usesTheMinorUnitsOfTheCurrency() {
+        assertThat(Money.parse("59.98", "USD").getMinorUnits()).isEqualTo(5998);
+        assertThat(Money.parse("59.98", "USD").getScale()).isEqualTo(2);
+        assertThat(Money.parse("5998", "JPY").getMinorUnits()).isEqualTo(5998);
+        assertThat(Money.parse("5998", "JPY").getScale()).isZero();
+        assertThat(Money.parse("1.234", "BHD").getMinorUnits()).isEqualTo(1234);
+        assertThat(Money.ofMinor(5, "USD").toPlainString()).isEqualTo("0.05");
+        assertThat(Money.ofMinor(5998, "JPY").toPlainString()).isEqualTo("5998");
+    }
+
+    @Test
+    void acceptsTrailingZerosBeyondTheScale() {
+        assertThat(Money.parse(" 59.9800 ", "USD")).isEqualTo(Money.ofMinor(5998, "USD"));
+        assertThat(Money.of(new BigDecimal("100.0"), "JPY")).isEqualTo(Money.ofMinor(100, "JPY"));
+    }
+
+    @Test
+    void rejectsMoreDecimalsThanTheCurrencyHas() {
+        assertThatThrownBy(() -> Money.parse("59.985", "USD"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("USD minor units");
+        assertThatThrownBy(() -> Money.parse("1.5", "JPY"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsInvalidAmountsAndCurrencies() {
+        assertThatThrownBy(() -> Money.parse("12,50", "EUR"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid amount");
+        assertThatThrownBy(() -> Money.parse("1", "XYZ"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void defaultsAndCanonicalizesTheCurrency() {
+        assertThat(Money.ofMinor(1, null).getCurrency()).isEqualTo(Money.DEFAULT_CURRENCY);
+        assertThat(Money.ofMinor(1, new String("EUR")).isSameCurrency(Money.ofMinor(2, "EUR"))).isTrue();
+        assertThat(Money.ofMinor(1, new String("EUR"))).isEqualTo(Money.ofMinor(1, "EUR"));
+    }
+
+    @Test
+    void roundsDoublesHalfEven() {
+        assertThat(Money.rounded(59.98, "USD")).isEqualTo(Money.ofMinor(5998, "USD"));
+        assertThat(Money.rounded(0.105, "USD")).isEqualTo(Money.ofMinor(10, "USD"));
+        assertThat(Money.rounded(0.115, "USD")).isEqualTo(Money.ofMinor(12, "USD"));
+        assertThat(Money.rounded(2.5, "JPY")).isEqualTo(Money.ofMinor(2, "JPY"));
+        assertThat(Money.rounded(-3.5, "JPY")).isEqualTo(Money.ofMinor(-4, "JPY"));
+    }
+
+    @Test
+    void rejectsAmountsBeyondLongMinorUnits() {
+        assertThatThrownBy(() -> Money.parse("92233720368547758.08", "USD"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("out of range");
+        assertThatThrownBy(() -> Money.rounded(1e20, "USD"))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void checksArithmeticForOverflow() {
+        Money max = Money.ofMinor(Long.MAX_VALUE, "USD");
+
+        assertThatThrownBy(() -> max.plus(Money.ofMinor(1, "USD")))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> max.times(2))
+                .isInstanceOf(ArithmeticException.class);
+        assertThat(Money.ofMinor(1250, "EUR").times(3)).isEqualTo(Money.ofMinor(3750, "EUR"));
+        assertThat(Money.ofMinor(1250, "EUR").plus(Money.ofMinor(50, "EUR"))).isEqualTo(Money.ofMinor(1300, "EUR"));
+    }
+
+    @Test
+    void refusesToMixCurrencies() {
+        Money usd = Money.ofMinor(100, "USD");
+        Money eur = Money.ofMinor(100, "EUR");
+
+        assertThat(usd).isNotEqualTo(eur);
+        assertThat(usd.isSameCurrency(eur)).isFalse();
+        assertThatThrownBy(() -> usd.plus(eur))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Currency mismatch");
+        assertThatThrownBy(() -> usd.compareTo(eur))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void comparesWithinACurrency() {
+        assertThat(Money.ofMinor(100, "USD")).isLessThan(Money.ofMinor(101, "USD"));
+        assertThat(Money.ofMinor(1, "USD").isPositive()).isTrue();
+        assertThat(Money.ofMinor(0, "USD").isPositive()).isFalse();
+        assertThat(Money.ofMinor(-1, "USD").toString()).isEqualTo("-0.01 USD");
+    }
+}
@@ -1,13 +1,17 @@
 package com.example.notificationservice.config;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
@@ -16,17 +20,52 @@ import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 
+import com.example.common.codec.EventDeserializer;
+import com.example.common.codec.EventSerializer;
+import com.example.common.codec.WireFormat;
 import com.example.common.common_dto.OrderEvent;
 import com.example.common.common_dto.PaymentEvent;
+import com.example.common.concurrent.KeyOrderedDispatcher;
+import com.example.common.constants.TopicConstants;
+import com.example.common.kafka.DeadLetterAdmin;
+import com.example.common.kafka.RetryRouter;
+import com.example.common.kafka.RetryTierListeners;
+import com.example.common.kafka.RetryTopics;
+import com.example.notificationservice.kafka.OrderRetryConsumer;
+import com.example.notificationservice.kafka.PaymentRetryConsumer;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @EnableKafka
 @Configuration
 public class KafkaConfig {
+    private static final String GROUP_ID = "notification-group";
+
+    // Kafka client metrics (kafka.consumer.fetch.manager.records.lag per partition, kafka.producer.*)
+    private final MeterRegistry meterRegistry;
+
+    // record: one event per listener call, key-parallel: whole polls fanned out per key
+    @Value("${notification.consumer.orders.mode:record}")
+    private String orderConsumerMode;
+
+    @Value("${notification.consumer.payments.mode:record}")
+    private String paymentConsumerMode;
+
+    // One listener container per partition of the consumed topic
+    @Value("${notification.consumer.concurrency:3}")
+    private int concurrency;
+
+    public KafkaConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
 
     // Topic Configuration
     @Bean
@@ -37,14 +76,39 @@ public class KafkaConfig {
                 .build();
     }
 
-    // Producer Configuration
+    // Failed events: <topic>.notification-group-retry-0..N-1 with growing delays, then
+    // <topic>.notification-group-dlt, for orders and payments
+    @Bean
+    public RetryTopics notificationRetryTopics(@Value("${notification.retry.tiers:3}") int tiers,
+                                               @Value("${notification.retry.initial-delay-ms:1000}") long initialDelayMs,
+                                               @Value("${notification.retry.multiplier:5}") double multiplier,
+                                               @Value("${notification.retry.max-delay-ms:60000}") long maxDelayMs) {
+        return new RetryTopics(GROUP_ID, tiers, initialDelayMs, multiplier, maxDelayMs);
+    }
+
+    @Bean
+    public KafkaAdmin.NewTopics notificationRetryTopicsDeclaration(RetryTopics notificationRetryTopics) {
+        List<NewTopic> topics = new ArrayList<>();
+        for (String source : List.of(TopicConstants.ORDER_TOPIC, TopicConstants.PAYMENT_TOPIC)) {
+            for (String retryTopic : notificationRetryTopics.retryTopics(source)) {
+                topics.add(TopicBuilder.name(retryTopic).partitions(3).replicas(1).build());
+            }
+            topics.add(TopicBuilder.name(notificationRetryTopics.dltTopic(source)).partitions(3).replicas(1).build());
+        }
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+    }
+
+    // Producer Configuration, also republishes failed records to the retry topics and the DLT
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(configProps,
+                new StringSerializer(), new EventSerializer<>(WireFormat.JSON));
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
@@ -52,49 +116,142 @@ public class KafkaConfig {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    @Bean
+    public RetryRouter retryRouter(RetryTopics notificationRetryTopics) {
+        return new RetryRouter(kafkaTemplate(), notificationRetryTopics, meterRegistry, "notification");
+    }
+
+    @Bean
+    public DeadLetterAdmin deadLetterAdmin(RetryTopics notificationRetryTopics) {
+        return new DeadLetterAdmin("kafka:9092", "notification-dlt-replay", notificationRetryTopics,
+                Set.of(TopicConstants.ORDER_TOPIC, TopicConstants.PAYMENT_TOPIC));
+    }
+
     // Consumer Configuration for OrderEvent
     @Bean
     public ConsumerFactory<String, OrderEvent> orderConsumerFactory() {
-        JsonDeserializer<OrderEvent> deserializer = new JsonDeserializer<>(OrderEvent.class);
-        deserializer.addTrustedPackages("*");
+        // Reads JSON and binary records alike, see WireFormat; a record it cannot read is handed on with
+        // the failure in a header and dead-lettered by RetryRouter instead of failing every poll
+        ErrorHandlingDeserializer<OrderEvent> deserializer =
+                new ErrorHandlingDeserializer<>(new EventDeserializer<>(OrderEvent.class));
 
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-group");
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, GROUP_ID);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, deserializer);
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer);
+        DefaultKafkaConsumerFactory<String, OrderEvent> factory = new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(), deserializer);
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> orderKafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> orderKafkaListenerContainerFactory(
+            RetryRouter retryRouter) {
         ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(orderConsumerFactory());
+        factory.setConcurrency(concurrency);
+        factory.setCommonErrorHandler(retryRouter.errorHandler());
+        factory.setBatchListener(isKeyParallel(orderConsumerMode));
+        useWriteBehindAcks(factory, orderConsumerMode);
         return factory;
     }
 
     // Consumer Configuration for PaymentEvent
     @Bean
     public ConsumerFactory<String, PaymentEvent> paymentConsumerFactory() {
-        JsonDeserializer<PaymentEvent> deserializer = new JsonDeserializer<>(PaymentEvent.class);
-        deserializer.addTrustedPackages("*");
+        // Reads JSON and binary records alike, see WireFormat; a record it cannot read is handed on with
+        // the failure in a header and dead-lettered by RetryRouter instead of failing every poll
+        ErrorHandlingDeserializer<PaymentEvent> deserializer =
+                new ErrorHandlingDeserializer<>(new EventDeserializer<>(PaymentEvent.class));
 
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-group");
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, GROUP_ID);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, deserializer);
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer);
+        DefaultKafkaConsumerFactory<String, PaymentEvent> factory = new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(), deserializer);
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, PaymentEvent> paymentKafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, PaymentEvent> paymentKafkaListenerContainerFactory(
+            RetryRouter retryRouter) {
         ConcurrentKafkaListenerContainerFactory<String, PaymentEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(paymentConsumerFactory());
+        factory.setConcurrency(concurrency);
+        factory.setCommonErrorHandler(retryRouter.errorHandler());
+        factory.setBatchListener(isKeyParallel(paymentConsumerMode));
+        useWriteBehindAcks(factory, paymentConsumerMode);
         return factory;
     }
+
+    // Retry tiers: one record per call, manual acks so a record that is not due yet can be nacked
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> orderRetryKafkaListenerContainerFactory(
+            RetryRouter retryRouter) {
+        ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(orderConsumerFactory());
+        factory.setConcurrency(concurrency);
+        factory.setCommonErrorHandler(retryRouter.errorHandler());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PaymentEvent> paymentRetryKafkaListenerContainerFactory(
+            RetryRouter retryRouter) {
+        ConcurrentKafkaListenerContainerFactory<String, PaymentEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(paymentConsumerFactory());
+        factory.setConcurrency(concurrency);
+        factory.setCommonErrorHandler(retryRouter.errorHandler());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    @Bean
+    public RetryTierListeners<OrderEvent> orderRetryListeners(
+            ConcurrentKafkaListenerContainerFactory<String, OrderEvent> orderRetryKafkaListenerContainerFactory,
+            RetryTopics notificationRetryTopics, OrderRetryConsumer orderRetryConsumer) {
+        return new RetryTierListeners<>(orderRetryKafkaListenerContainerFactory,
+                notificationRetryTopics.retryTopics(TopicConstants.ORDER_TOPIC), orderRetryConsumer::consume);
+    }
+
+    @Bean
+    public RetryTierListeners<PaymentEvent> paymentRetryListeners(
+            ConcurrentKafkaListenerContainerFactory<String, PaymentEvent> paymentRetryKafkaListenerContainerFactory,
+            RetryTopics notificationRetryTopics, PaymentRetryConsumer paymentRetryConsumer) {
+        return new RetryTierListeners<>(paymentRetryKafkaListenerContainerFactory,
+                notificationRetryTopics.retryTopics(TopicConstants.PAYMENT_TOPIC), paymentRetryConsumer::consume);
+    }
+
+    // Shared by the key-parallel listeners; virtual threads by default, platform pool as fallback
+    @Bean
+    public KeyOrderedDispatcher listenerDispatcher(
+            @Value("${notification.consumer.executor:virtual}") String executor,
+            @Value("${notification.consumer.max-in-flight:32}") int maxInFlight) {
+        if ("platform".equalsIgnoreCase(executor)) {
+            return KeyOrderedDispatcher.platformThreads(maxInFlight);
+        }
+        return KeyOrderedDispatcher.virtualThreads(maxInFlight);
+    }
+
+    // Record listeners ack from the write-behind flush, possibly out of order and off the consumer thread
+    private static void useWriteBehindAcks(ConcurrentKafkaListenerContainerFactory<?, ?> factory, String mode) {
+        if (!isKeyParallel(mode)) {
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+            factory.getContainerProperties().setAsyncAcks(true);
+        }
+    }
+
+    private static boolean isKeyParallel(String mode) {
+        return "key-parallel".equalsIgnoreCase(mode);
+    }
 }
@@ -0,0 +1,16 @@
+package com.example.notificationservice.config;
+
+import com.example.common.trace.SpanRecorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TracingConfig {
+
+    // Last N order and payment flows that reached notification.persisted, see /api/admin/flows
+    @Bean
+    public SpanRecorder spanRecorder(@Value("${notification.tracing.buffer-size:4096}") int bufferSize) {
+        return new SpanRecorder(bufferSize);
+    }
+}
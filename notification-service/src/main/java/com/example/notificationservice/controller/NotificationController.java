@@ -1,15 +1,25 @@
 package com.example.notificationservice.controller;
 
+import com.example.common.common_dto.CursorPage;
+import com.example.notificationservice.dto.InboxPage;
 import com.example.notificationservice.model.Notification;
 import com.example.notificationservice.service.NotificationService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
 public class NotificationController {
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_INBOX_PAGE_SIZE = 100;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
     private final NotificationService notificationService;
 
     public NotificationController(NotificationService notificationService) {
@@ -34,9 +44,52 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
 
-    @GetMapping
-    public ResponseEntity<List<Notification>> getAllNotifications() {
-        List<Notification> notifications = notificationService.getAllNotifications();
-        return ResponseEntity.ok(notifications);
+    // The bare collection is the first keyset page too; the whole table never goes into one response
+    @GetMapping({"", "/page"})
+    public ResponseEntity<CursorPage<Notification>> getNotificationsPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(notificationService.getNotificationsPage(after, pageSize, status, customerId, from, to));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportNotifications(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> notificationService.exportNotifications(status, customerId, from, to, out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    @GetMapping("/inbox/{customerId}")
+    public ResponseEntity<InboxPage> getInbox(@PathVariable String customerId,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "20") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_INBOX_PAGE_SIZE));
+        try {
+            return ResponseEntity.ok(notificationService.getInbox(customerId, cursor, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/inbox/{customerId}/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(@PathVariable String customerId) {
+        return ResponseEntity.ok(Map.of("unread", notificationService.getUnreadCount(customerId)));
+    }
+
+    // Marks everything sent up to upTo (default: now) as read
+    @PostMapping("/inbox/{customerId}/read")
+    public ResponseEntity<Map<String, Integer>> markInboxRead(
+            @PathVariable String customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime upTo) {
+        int marked = notificationService.markInboxRead(customerId, upTo == null ? LocalDateTime.now() : upTo);
+        return ResponseEntity.ok(Map.of("marked", marked));
     }
 }
\ No newline at end of file
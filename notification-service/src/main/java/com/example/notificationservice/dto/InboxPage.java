@@ -0,0 +1,9 @@
+package com.example.notificationservice.dto;
+
+import com.example.notificationservice.model.Notification;
+
+import java.util.List;
+
+// Newest-first page of a customer's inbox; pass nextCursor back as "cursor" to get older entries
+public record InboxPage(List<Notification> items, String nextCursor, boolean hasMore, long unreadCount) {
+}
@@ -0,0 +1,84 @@
+package com.example.notificationservice.kafka;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.concurrent.KeyOrderedDispatcher;
+import com.example.common.kafka.RetryRouter;
+import com.example.common.trace.TraceContext;
+import com.example.notificationservice.mapper.NotificationMapper;
+import com.example.notificationservice.service.CustomerContactProjection;
+import com.example.notificationservice.service.NotificationService;
+import com.example.notificationservice.template.NotificationTemplates;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Parallel alternative to {@link OrderConsumer}: every poll is split by record key (orderId)
+ * and the keys are processed concurrently, while events of the same order keep their order.
+ * The listener returns, and the container commits the poll, only after the write-behind
+ * flushes holding its notifications have completed, or failed records are on a retry topic.
+ */
+@Service
+@ConditionalOnProperty(name = "notification.consumer.orders.mode", havingValue = "key-parallel")
+public class KeyOrderedOrderConsumer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyOrderedOrderConsumer.class);
+    private final NotificationService notificationService;
+    private final CustomerContactProjection customerContacts;
+    private final NotificationTemplates templates;
+    private final KeyOrderedDispatcher listenerDispatcher;
+    private final RetryRouter retryRouter;
+
+    public KeyOrderedOrderConsumer(NotificationService notificationService, CustomerContactProjection customerContacts,
+                                   NotificationTemplates templates, KeyOrderedDispatcher listenerDispatcher,
+                                   RetryRouter retryRouter) {
+        this.notificationService = notificationService;
+        this.customerContacts = customerContacts;
+        this.templates = templates;
+        this.listenerDispatcher = listenerDispatcher;
+        this.retryRouter = retryRouter;
+    }
+
+    @KafkaListener(topics = "orders", groupId = "notification-group",
+            containerFactory = "orderKafkaListenerContainerFactory")
+    public void consume(List<ConsumerRecord<String, OrderEvent>> batch) {
+        List<ConsumerRecord<String, OrderEvent>> records = retryRouter.decodable(batch);
+        LOGGER.info("Order batch received in notification service => {} events", records.size());
+        Queue<CompletableFuture<?>> pending = new ConcurrentLinkedQueue<>();
+        listenerDispatcher.dispatch(records, KeyOrderedOrderConsumer::orderKey, record -> pending.add(handle(record)));
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private CompletableFuture<?> handle(ConsumerRecord<String, OrderEvent> record) {
+        OrderEvent event = record.value();
+        try {
+            customerContacts.update(event);
+            TraceContext trace = TraceContext.fromRecord(record, event.getOrderId(), TraceContext.ORDER_PUBLISHED)
+                    .hop(TraceContext.NOTIFICATION_RECEIVED);
+            return notificationService.sendNotification(NotificationMapper.fromOrderEvent(event, templates), trace)
+                    .handle((saved, e) -> {
+                        if (e == null) {
+                            LOGGER.info("Order notification sent successfully for order: {}", event.getOrderId());
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        LOGGER.error("Error sending order notification for order: {}", event.getOrderId(), e);
+                        return retryRouter.route(record, e);
+                    })
+                    .thenCompose(rerouted -> rerouted);
+        } catch (Exception e) {
+            LOGGER.error("Error sending order notification for order: {}", event.getOrderId(), e);
+            return retryRouter.route(record, e);
+        }
+    }
+
+    private static String orderKey(ConsumerRecord<String, OrderEvent> record) {
+        return record.key() != null ? record.key() : record.value().getOrderId();
+    }
+}
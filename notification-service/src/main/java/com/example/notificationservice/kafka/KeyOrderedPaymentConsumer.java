@@ -0,0 +1,88 @@
+package com.example.notificationservice.kafka;
+
+import com.example.common.common_dto.PaymentEvent;
+import com.example.common.concurrent.KeyOrderedDispatcher;
+import com.example.common.kafka.RetryRouter;
+import com.example.common.trace.TraceContext;
+import com.example.notificationservice.mapper.NotificationMapper;
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.service.CustomerContactProjection;
+import com.example.notificationservice.service.CustomerContactProjection.CustomerContact;
+import com.example.notificationservice.service.NotificationService;
+import com.example.notificationservice.template.NotificationTemplates;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Parallel alternative to {@link PaymentConsumer}: every poll is split by record key (orderId)
+ * and the keys are processed concurrently, while events of the same order keep their order.
+ * The listener returns, and the container commits the poll, only after the write-behind
+ * flushes holding its notifications have completed, or failed records are on a retry topic.
+ */
+@Service
+@ConditionalOnProperty(name = "notification.consumer.payments.mode", havingValue = "key-parallel")
+public class KeyOrderedPaymentConsumer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyOrderedPaymentConsumer.class);
+    private final NotificationService notificationService;
+    private final CustomerContactProjection customerContacts;
+    private final NotificationTemplates templates;
+    private final KeyOrderedDispatcher listenerDispatcher;
+    private final RetryRouter retryRouter;
+
+    public KeyOrderedPaymentConsumer(NotificationService notificationService, CustomerContactProjection customerContacts,
+                                     NotificationTemplates templates, KeyOrderedDispatcher listenerDispatcher,
+                                     RetryRouter retryRouter) {
+        this.notificationService = notificationService;
+        this.customerContacts = customerContacts;
+        this.templates = templates;
+        this.listenerDispatcher = listenerDispatcher;
+        this.retryRouter = retryRouter;
+    }
+
+    @KafkaListener(topics = "payments", groupId = "notification-group",
+            containerFactory = "paymentKafkaListenerContainerFactory")
+    public void consume(List<ConsumerRecord<String, PaymentEvent>> batch) {
+        List<ConsumerRecord<String, PaymentEvent>> records = retryRouter.decodable(batch);
+        LOGGER.info("Payment batch received in notification service => {} events", records.size());
+        Queue<CompletableFuture<?>> pending = new ConcurrentLinkedQueue<>();
+        listenerDispatcher.dispatch(records, KeyOrderedPaymentConsumer::orderKey, record -> pending.add(handle(record)));
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private CompletableFuture<?> handle(ConsumerRecord<String, PaymentEvent> record) {
+        PaymentEvent event = record.value();
+        try {
+            CustomerContact contact = customerContacts.find(event.getCustomerId());
+            Notification notification = NotificationMapper.fromPaymentEvent(event, contact, templates);
+            TraceContext trace = TraceContext.fromRecord(record, event.getOrderId(), TraceContext.PAYMENT_PUBLISHED)
+                    .hop(TraceContext.NOTIFICATION_RECEIVED);
+            return notificationService.sendNotification(notification, trace)
+                    .handle((saved, e) -> {
+                        if (e == null) {
+                            LOGGER.info("Payment notification sent successfully for payment: {}", event.getPaymentId());
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        LOGGER.error("Error sending payment notification for payment: {}", event.getPaymentId(), e);
+                        return retryRouter.route(record, e);
+                    })
+                    .thenCompose(rerouted -> rerouted);
+        } catch (Exception e) {
+            LOGGER.error("Error sending payment notification for payment: {}", event.getPaymentId(), e);
+            return retryRouter.route(record, e);
+        }
+    }
+
+    // Records published before keying was introduced have no key, fall back to the payload
+    private static String orderKey(ConsumerRecord<String, PaymentEvent> record) {
+        return record.key() != null ? record.key() : record.value().getOrderId();
+    }
+}
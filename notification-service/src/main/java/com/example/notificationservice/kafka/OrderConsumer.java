@@ -1,46 +1,69 @@
 package com.example.notificationservice.kafka;
 
 import com.example.common.common_dto.OrderEvent;
+import com.example.common.kafka.RetryRouter;
+import com.example.common.trace.TraceContext;
+import com.example.notificationservice.mapper.NotificationMapper;
 import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.service.CustomerContactProjection;
 import com.example.notificationservice.service.NotificationService;
+import com.example.notificationservice.template.NotificationTemplates;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.util.UUID;
-
 @Service
+@ConditionalOnProperty(name = "notification.consumer.orders.mode", havingValue = "record", matchIfMissing = true)
 public class OrderConsumer {
     private static final Logger LOGGER = LoggerFactory.getLogger(OrderConsumer.class);
     private final NotificationService notificationService;
+    private final CustomerContactProjection customerContacts;
+    private final NotificationTemplates templates;
+    private final RetryRouter retryRouter;
 
-    public OrderConsumer(NotificationService notificationService) {
+    public OrderConsumer(NotificationService notificationService, CustomerContactProjection customerContacts,
+                         NotificationTemplates templates, RetryRouter retryRouter) {
         this.notificationService = notificationService;
+        this.customerContacts = customerContacts;
+        this.templates = templates;
+        this.retryRouter = retryRouter;
     }
 
-    @KafkaListener(topics = "orders", groupId = "notification-group")
-    public void consume(OrderEvent event) {
+    // Acknowledged from the write-behind flush; the container commits offsets once they are contiguous
+    @KafkaListener(topics = "orders", groupId = "notification-group",
+            containerFactory = "orderKafkaListenerContainerFactory")
+    public void consume(ConsumerRecord<String, OrderEvent> record, Acknowledgment acknowledgment) {
+        OrderEvent event = record.value();
         try {
             LOGGER.info("Order event received in notification service => {}", event);
             
-            // Create order confirmation notification
-            Notification notification = new Notification();
-            notification.setNotificationId(UUID.randomUUID().toString());
-            notification.setOrderId(event.getOrderId());
-            notification.setCustomerId(event.getCustomerId());
-            notification.setCustomerEmail(event.getCustomerEmail());
-            notification.setMessage("Your order has been created with ID: " + event.getOrderId());
-            notification.setStatus("SENT");
-            notification.setSentAt(LocalDateTime.now());
+            customerContacts.update(event);
+            Notification notification = NotificationMapper.fromOrderEvent(event, templates);
+            TraceContext trace = TraceContext.fromRecord(record, event.getOrderId(), TraceContext.ORDER_PUBLISHED)
+                    .hop(TraceContext.NOTIFICATION_RECEIVED);
             
-            notificationService.sendNotification(notification);
-            LOGGER.info("Order notification sent successfully for order: {}", event.getOrderId());
+            notificationService.sendNotification(notification, trace).whenComplete((saved, e) -> {
+                if (e == null) {
+                    LOGGER.info("Order notification sent successfully for order: {}", event.getOrderId());
+                    acknowledgment.acknowledge();
+                } else {
+                    LOGGER.error("Error sending order notification for order: {}", event.getOrderId(), e);
+                    reroute(record, e, acknowledgment);
+                }
+            });
         } catch (Exception e) {
             LOGGER.error("Error sending order notification for order: {}", event.getOrderId(), e);
-            // In a real application, you might want to send to a dead letter queue
-            throw e;
+            reroute(record, e, acknowledgment);
         }
     }
+
+    // Hand the record to the retry topics and let the partition move on; if even that fails the
+    // record stays unacknowledged and offsets of the partition are not committed past it
+    private void reroute(ConsumerRecord<String, OrderEvent> record, Throwable cause, Acknowledgment acknowledgment) {
+        retryRouter.route(record, cause).thenRun(acknowledgment::acknowledge);
+    }
 }
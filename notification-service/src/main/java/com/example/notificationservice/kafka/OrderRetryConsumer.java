@@ -0,0 +1,56 @@
+package com.example.notificationservice.kafka;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.kafka.RetryRouter;
+import com.example.common.kafka.RetryTopics;
+import com.example.common.trace.TraceContext;
+import com.example.notificationservice.mapper.NotificationMapper;
+import com.example.notificationservice.service.CustomerContactProjection;
+import com.example.notificationservice.service.NotificationService;
+import com.example.notificationservice.template.NotificationTemplates;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+// Order confirmations that failed before, from the orders.notification-group-retry-N tiers,
+// one container per tier (KafkaConfig#orderRetryListeners)
+@Service
+public class OrderRetryConsumer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderRetryConsumer.class);
+    private final NotificationService notificationService;
+    private final CustomerContactProjection customerContacts;
+    private final NotificationTemplates templates;
+    private final RetryRouter retryRouter;
+
+    public OrderRetryConsumer(NotificationService notificationService, CustomerContactProjection customerContacts,
+                              NotificationTemplates templates, RetryRouter retryRouter) {
+        this.notificationService = notificationService;
+        this.customerContacts = customerContacts;
+        this.templates = templates;
+        this.retryRouter = retryRouter;
+    }
+
+    public void consume(ConsumerRecord<String, OrderEvent> record, Acknowledgment acknowledgment) {
+        long wait = RetryTopics.remainingDelayMs(record.headers(), System.currentTimeMillis());
+        if (wait > 0) {
+            acknowledgment.nack(Duration.ofMillis(wait));
+            return;
+        }
+        OrderEvent event = record.value();
+        try {
+            customerContacts.update(event);
+            TraceContext trace = TraceContext.fromRecord(record, event.getOrderId(), TraceContext.ORDER_PUBLISHED)
+                    .hop(TraceContext.NOTIFICATION_RECEIVED);
+            notificationService.sendNotification(NotificationMapper.fromOrderEvent(event, templates), trace).join();
+            LOGGER.info("Order notification sent on retry {} for order: {}",
+                    RetryTopics.attempt(record.headers()), event.getOrderId());
+        } catch (Exception e) {
+            retryRouter.route(record, e).join();
+        }
+        acknowledgment.acknowledge();
+    }
+}
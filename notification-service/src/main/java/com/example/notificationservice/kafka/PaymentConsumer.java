@@ -1,46 +1,71 @@
 package com.example.notificationservice.kafka;
 
 import com.example.common.common_dto.PaymentEvent;
+import com.example.common.kafka.RetryRouter;
+import com.example.common.trace.TraceContext;
+import com.example.notificationservice.mapper.NotificationMapper;
 import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.service.CustomerContactProjection;
+import com.example.notificationservice.service.CustomerContactProjection.CustomerContact;
 import com.example.notificationservice.service.NotificationService;
+import com.example.notificationservice.template.NotificationTemplates;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.util.UUID;
-
 @Service
+@ConditionalOnProperty(name = "notification.consumer.payments.mode", havingValue = "record", matchIfMissing = true)
 public class PaymentConsumer {
     private static final Logger LOGGER = LoggerFactory.getLogger(PaymentConsumer.class);
     private final NotificationService notificationService;
+    private final CustomerContactProjection customerContacts;
+    private final NotificationTemplates templates;
+    private final RetryRouter retryRouter;
 
-    public PaymentConsumer(NotificationService notificationService) {
+    public PaymentConsumer(NotificationService notificationService, CustomerContactProjection customerContacts,
+                           NotificationTemplates templates, RetryRouter retryRouter) {
         this.notificationService = notificationService;
+        this.customerContacts = customerContacts;
+        this.templates = templates;
+        this.retryRouter = retryRouter;
     }
 
-    @KafkaListener(topics = "payments", groupId = "notification-group")
-    public void consume(PaymentEvent event) {
+    // Acknowledged from the write-behind flush; the container commits offsets once they are contiguous
+    @KafkaListener(topics = "payments", groupId = "notification-group",
+            containerFactory = "paymentKafkaListenerContainerFactory")
+    public void consume(ConsumerRecord<String, PaymentEvent> record, Acknowledgment acknowledgment) {
+        PaymentEvent event = record.value();
         try {
             LOGGER.info("Payment event received in notification service => {}", event);
             
-            // Create payment confirmation notification
-            Notification notification = new Notification();
-            notification.setNotificationId(UUID.randomUUID().toString());
-            notification.setOrderId(event.getOrderId());
-            notification.setCustomerId(event.getCustomerId());
-            notification.setCustomerEmail("customer@example.com"); // In real app, fetch from DB
-            notification.setMessage("Payment for order " + event.getOrderId() + " is " + event.getStatus());
-            notification.setStatus("SENT");
-            notification.setSentAt(LocalDateTime.now());
+            // Contact comes from the local projection of earlier order events, no remote lookup
+            CustomerContact contact = customerContacts.find(event.getCustomerId());
+            Notification notification = NotificationMapper.fromPaymentEvent(event, contact, templates);
+            TraceContext trace = TraceContext.fromRecord(record, event.getOrderId(), TraceContext.PAYMENT_PUBLISHED)
+                    .hop(TraceContext.NOTIFICATION_RECEIVED);
             
-            notificationService.sendNotification(notification);
-            LOGGER.info("Payment notification sent successfully for payment: {}", event.getPaymentId());
+            notificationService.sendNotification(notification, trace).whenComplete((saved, e) -> {
+                if (e == null) {
+                    LOGGER.info("Payment notification sent successfully for payment: {}", event.getPaymentId());
+                    acknowledgment.acknowledge();
+                } else {
+                    LOGGER.error("Error sending payment notification for payment: {}", event.getPaymentId(), e);
+                    reroute(record, e, acknowledgment);
+                }
+            });
         } catch (Exception e) {
             LOGGER.error("Error sending payment notification for payment: {}", event.getPaymentId(), e);
-            // In a real application, you might want to send to a dead letter queue
-            throw e;
+            reroute(record, e, acknowledgment);
         }
     }
+
+    // Hand the record to the retry topics and let the partition move on; if even that fails the
+    // record stays unacknowledged and offsets of the partition are not committed past it
+    private void reroute(ConsumerRecord<String, PaymentEvent> record, Throwable cause, Acknowledgment acknowledgment) {
+        retryRouter.route(record, cause).thenRun(acknowledgment::acknowledge);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.example.notificationservice.kafka;
+
+import com.example.common.common_dto.PaymentEvent;
+import com.example.common.kafka.RetryRouter;
+import com.example.common.kafka.RetryTopics;
+import com.example.common.trace.TraceContext;
+import com.example.notificationservice.mapper.NotificationMapper;
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.service.CustomerContactProjection;
+import com.example.notificationservice.service.CustomerContactProjection.CustomerContact;
+import com.example.notificationservice.service.NotificationService;
+import com.example.notificationservice.template.NotificationTemplates;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+// Payment notifications that failed before, from the payments.notification-group-retry-N tiers,
+// one container per tier (KafkaConfig#paymentRetryListeners)
+@Service
+public class PaymentRetryConsumer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PaymentRetryConsumer.class);
+    private final NotificationService notificationService;
+    private final CustomerContactProjection customerContacts;
+    private final NotificationTemplates templates;
+    private final RetryRouter retryRouter;
+
+    public PaymentRetryConsumer(NotificationService notificationService, CustomerContactProjection customerContacts,
+                                NotificationTemplates templates, RetryRouter retryRouter) {
+        this.notificationService = notificationService;
+        this.customerContacts = customerContacts;
+        this.templates = templates;
+        this.retryRouter = retryRouter;
+    }
+
+    public void consume(ConsumerRecord<String, PaymentEvent> record, Acknowledgment acknowledgment) {
+        long wait = RetryTopics.remainingDelayMs(record.headers(), System.currentTimeMillis());
+        if (wait > 0) {
+            acknowledgment.nack(Duration.ofMillis(wait));
+            return;
+        }
+        PaymentEvent event = record.value();
+        try {
+            CustomerContact contact = customerContacts.find(event.getCustomerId());
+            Notification notification = NotificationMapper.fromPaymentEvent(event, contact, templates);
+            TraceContext trace = TraceContext.fromRecord(record, event.getOrderId(), TraceContext.PAYMENT_PUBLISHED)
+                    .hop(TraceContext.NOTIFICATION_RECEIVED);
+            notificationService.sendNotification(notification, trace).join();
+            LOGGER.info("Payment notification sent on retry {} for payment: {}",
+                    RetryTopics.attempt(record.headers()), event.getPaymentId());
+        } catch (Exception e) {
+            retryRouter.route(record, e).join();
+        }
+        acknowledgment.acknowledge();
+    }
+}
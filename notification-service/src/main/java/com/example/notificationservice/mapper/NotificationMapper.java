@@ -0,0 +1,63 @@
+package com.example.notificationservice.mapper;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.common_dto.PaymentEvent;
+import com.example.common.money.Money;
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.service.CustomerContactProjection.CustomerContact;
+import com.example.notificationservice.template.NotificationTemplates;
+import com.example.notificationservice.template.NotificationType;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.UUID;
+
+public final class NotificationMapper {
+
+    private NotificationMapper() {
+    }
+
+    // Create order confirmation notification
+    public static Notification fromOrderEvent(OrderEvent event, NotificationTemplates templates) {
+        Notification notification = new Notification();
+        notification.setNotificationId(UUID.randomUUID().toString());
+        notification.setOrderId(event.getOrderId());
+        notification.setCustomerId(event.getCustomerId());
+        notification.setCustomerEmail(event.getCustomerEmail());
+        notification.setMessage(templates.render(NotificationType.ORDER_CREATED, locale(event.getLocale()), event.getOrderId(),
+                event.getCustomerId(), event.getCustomerName(), formatAmount(event.getTotalAmount()),
+                event.getItems() == null ? "0" : Integer.toString(event.getItems().size())));
+        notification.setStatus("SENT");
+        notification.setSentAt(LocalDateTime.now());
+        notification.setOriginCreatedAt(event.getCreatedAt());
+        return notification;
+    }
+
+    // Create payment confirmation notification, addressed from the locally projected contact (null if not seen yet)
+    public static Notification fromPaymentEvent(PaymentEvent event, CustomerContact contact,
+                                                NotificationTemplates templates) {
+        Notification notification = new Notification();
+        notification.setNotificationId(UUID.randomUUID().toString());
+        notification.setOrderId(event.getOrderId());
+        notification.setCustomerId(event.getCustomerId());
+        notification.setCustomerEmail(contact != null ? contact.email() : null);
+        notification.setMessage(templates.render(NotificationType.PAYMENT_STATUS,
+                locale(contact != null ? contact.locale() : null), event.getOrderId(),
+                event.getPaymentId(), event.getCustomerId(), contact != null ? contact.name() : null,
+                event.getStatus(), formatAmount(event.getAmount()), event.getPaymentMethod()));
+        notification.setStatus("SENT");
+        notification.setSentAt(LocalDateTime.now());
+        notification.setOriginCreatedAt(event.getOrderCreatedAt());
+        return notification;
+    }
+
+    // null, and so the templates' default locale, when the order did not name one
+    private static Locale locale(String languageTag) {
+        return languageTag == null || languageTag.isBlank() ? null : Locale.forLanguageTag(languageTag);
+    }
+
+    // "59.98 USD"; a missing amount stays null, which templates render as empty text
+    private static String formatAmount(Money amount) {
+        return amount == null ? null : amount.toPlainString() + " " + amount.getCurrency();
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.notificationservice.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -10,14 +11,23 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_order_id", columnList = "orderId"),
+        // Inbox pages seek on (customerId, sentAt); InnoDB appends the id, which breaks sentAt ties
+        @Index(name = "idx_notifications_customer_sent_at", columnList = "customerId, sentAt"),
+        @Index(name = "idx_notifications_customer_read_at", columnList = "customerId, readAt"),
+        // Retention purges walk this one, oldest rows first
+        @Index(name = "idx_notifications_sent_at", columnList = "sentAt")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Notification {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence instead of IDENTITY so the write-behind flush can batch its inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_seq")
+    @SequenceGenerator(name = "notification_seq", sequenceName = "notification_seq", allocationSize = 100)
     private Long id;
     
     private String notificationId;
@@ -27,6 +37,16 @@ public class Notification {
     private String message;
     private String status;
     private LocalDateTime sentAt;
+    private LocalDateTime readAt;
+
+    // Comma-separated notificationIds merged into this row by the coalescer, null if none
+    @Column(length = 2048)
+    private String coalescedIds;
+
+    // Not stored: epoch millis the originating order was published, for end-to-end latency
+    @Transient
+    @JsonIgnore
+    private Long originCreatedAt;
 
     public Long getId() {
         return id;
@@ -91,4 +111,28 @@ public class Notification {
     public void setSentAt(LocalDateTime sentAt) {
         this.sentAt = sentAt;
     }
+
+    public LocalDateTime getReadAt() {
+        return readAt;
+    }
+
+    public void setReadAt(LocalDateTime readAt) {
+        this.readAt = readAt;
+    }
+
+    public String getCoalescedIds() {
+        return coalescedIds;
+    }
+
+    public void setCoalescedIds(String coalescedIds) {
+        this.coalescedIds = coalescedIds;
+    }
+
+    public Long getOriginCreatedAt() {
+        return originCreatedAt;
+    }
+
+    public void setOriginCreatedAt(Long originCreatedAt) {
+        this.originCreatedAt = originCreatedAt;
+    }
 }
\ No newline at end of file
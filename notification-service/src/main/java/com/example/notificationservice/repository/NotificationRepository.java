@@ -1,11 +1,76 @@
 package com.example.notificationservice.repository;
 
 import com.example.notificationservice.model.Notification;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     Notification findByNotificationId(String notificationId);
     List<Notification> findByOrderId(String orderId);
+
+    // Inbox: newest first, served from idx_notifications_customer_sent_at
+    @Query("select n from Notification n where n.customerId = :customerId order by n.sentAt desc, n.id desc")
+    List<Notification> findLatestByCustomer(@Param("customerId") String customerId, Pageable pageable);
+
+    // Keyset page of the inbox, continuing after (sentAt, id) of the last row seen
+    @Query("select n from Notification n where n.customerId = :customerId"
+            + " and (n.sentAt < :sentAt or (n.sentAt = :sentAt and n.id < :id))"
+            + " order by n.sentAt desc, n.id desc")
+    List<Notification> findByCustomerBefore(@Param("customerId") String customerId,
+                                            @Param("sentAt") LocalDateTime sentAt, @Param("id") long id,
+                                            Pageable pageable);
+
+    long countByCustomerIdAndReadAtIsNull(String customerId);
+
+    @Transactional
+    @Modifying
+    @Query("update Notification n set n.readAt = :readAt where n.customerId = :customerId and n.readAt is null"
+            + " and n.sentAt <= :upTo")
+    int markReadUpTo(@Param("customerId") String customerId, @Param("upTo") LocalDateTime upTo,
+                     @Param("readAt") LocalDateTime readAt);
+
+    // Keyset page: seeks past the last seen id instead of counting an OFFSET
+    @Query("select n from Notification n where n.id > :afterId"
+            + " and (:status is null or n.status = :status)"
+            + " and (:customerId is null or n.customerId = :customerId)"
+            + " and (:from is null or n.sentAt >= :from)"
+            + " and (:to is null or n.sentAt < :to)"
+            + " order by n.id")
+    List<Notification> findPageAfter(@Param("afterId") long afterId, @Param("status") String status,
+                                     @Param("customerId") String customerId, @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to, Pageable pageable);
+
+    // Server-side cursor (useCursorFetch=true on MySQL), rows arrive in fetch-size chunks
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select n from Notification n where (:status is null or n.status = :status)"
+            + " and (:customerId is null or n.customerId = :customerId)"
+            + " and (:from is null or n.sentAt >= :from)"
+            + " and (:to is null or n.sentAt < :to)"
+            + " order by n.id")
+    Stream<Notification> streamAll(@Param("status") String status, @Param("customerId") String customerId,
+                                   @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Oldest expired rows, locked with SKIP LOCKED (lock.timeout -2) so purges on several instances split the work
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select n from Notification n where n.sentAt < :cutoff order by n.sentAt")
+    List<Notification> findExpiredForUpdate(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("delete from Notification n where n.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
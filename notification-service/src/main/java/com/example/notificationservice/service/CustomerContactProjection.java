@@ -0,0 +1,182 @@
+package com.example.notificationservice.service;
+
+import com.example.common.codec.BinaryReader;
+import com.example.common.codec.BinaryWriter;
+import com.example.common.common_dto.OrderEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * customerId -> email/name/locale, kept locally from the OrderEvents this service consumes so payment
+ * notifications can be addressed without a remote lookup. Each contact is stored as a single
+ * packed byte[] (length-prefixed UTF-8, see BinaryWriter) instead of a record holding three
+ * Strings, and the map is snapshotted to local disk so a restart does not start empty.
+ */
+@Component
+public class CustomerContactProjection implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerContactProjection.class);
+    private static final int SNAPSHOT_MAGIC = 0x43435031;
+    private static final int SNAPSHOT_VERSION = 1;
+    private final Map<String, byte[]> contacts = new ConcurrentHashMap<>();
+    private final Path snapshotPath;
+    private volatile boolean dirty;
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+
+    @Value("${notification.contacts.max-entries:1000000}")
+    private int maxEntries;
+
+    @Value("${notification.contacts.snapshot-interval-ms:60000}")
+    private long snapshotIntervalMs;
+
+    public CustomerContactProjection(@Value("${notification.contacts.snapshot-path:data/customer-contacts.snapshot}")
+                                     String snapshotPath, MeterRegistry meterRegistry) {
+        this.snapshotPath = Path.of(snapshotPath);
+        Gauge.builder("notification.contacts.size", contacts, Map::size).register(meterRegistry);
+    }
+
+    public record CustomerContact(String email, String name, String locale) {
+    }
+
+    public void update(OrderEvent event) {
+        String customerId = event.getCustomerId();
+        if (customerId == null || event.getCustomerEmail() == null) {
+            return;
+        }
+        byte[] packed = pack(event.getCustomerEmail(), event.getCustomerName(), event.getLocale());
+        byte[] previous = contacts.get(customerId);
+        if (Arrays.equals(previous, packed)) {
+            return;
+        }
+        if (previous == null && contacts.size() >= maxEntries) {
+            LOGGER.warn("Customer contact projection full ({} entries), not storing customer: {}", maxEntries, customerId);
+            return;
+        }
+        contacts.put(customerId, packed);
+        dirty = true;
+    }
+
+    public CustomerContact find(String customerId) {
+        byte[] packed = customerId == null ? null : contacts.get(customerId);
+        if (packed == null) {
+            return null;
+        }
+        BinaryReader reader = new BinaryReader(packed);
+        String email = reader.readString();
+        String name = reader.readString();
+        // Contacts packed before the locale was added end after the name
+        return new CustomerContact(email, name, reader.hasRemaining() ? reader.readString() : null);
+    }
+
+    @Override
+    public void start() {
+        load();
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("customer-contacts-snapshot").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::snapshotIfDirty, snapshotIntervalMs, snapshotIntervalMs,
+                TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdown();
+        snapshotIfDirty();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Loaded before the listener containers start consuming
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 1000;
+    }
+
+    private static byte[] pack(String email, String name, String locale) {
+        BinaryWriter writer = new BinaryWriter(email.length() + (name == null ? 0 : name.length())
+                + (locale == null ? 0 : locale.length()) + 6);
+        writer.writeString(email);
+        writer.writeString(name);
+        writer.writeString(locale);
+        return writer.toByteArray();
+    }
+
+    private void load() {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(snapshotPath))))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                LOGGER.warn("Ignoring customer contact snapshot {} with unknown format", snapshotPath);
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String customerId = in.readUTF();
+                byte[] packed = new byte[in.readInt()];
+                in.readFully(packed);
+                contacts.put(customerId, packed);
+            }
+            LOGGER.info("Loaded {} customer contacts from {}", count, snapshotPath);
+        } catch (IOException e) {
+            LOGGER.warn("Could not read customer contact snapshot {}, rebuilding from events", snapshotPath, e);
+            contacts.clear();
+        }
+    }
+
+    private synchronized void snapshotIfDirty() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, "customer-contacts", ".tmp");
+            Map<String, byte[]> copy = Map.copyOf(contacts);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(copy.size());
+                for (Map.Entry<String, byte[]> entry : copy.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().length);
+                    out.write(entry.getValue());
+                }
+            }
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.debug("Wrote {} customer contacts to {}", copy.size(), snapshotPath);
+        } catch (IOException e) {
+            dirty = true;
+            LOGGER.error("Could not write customer contact snapshot {}", snapshotPath, e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.notificationservice.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per key (customerId + channel), implemented as GCRA: each bucket is a single
+ * AtomicLong holding the theoretical arrival time, updated with CAS. Buckets live in a
+ * ConcurrentHashMap, so listener threads only contend when they hit the same key; there is
+ * no global lock. Buckets that have been full for idleNanos are evicted by {@link #evictIdle};
+ * an acquire racing with the eviction of its bucket at worst gets one extra burst.
+ */
+public class CustomerRateLimiter {
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    // Time one token takes to refill, and how far ahead of "now" a burst may reach
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final long idleNanos;
+
+    public CustomerRateLimiter(double permitsPerSecond, int burst, long idleNanos) {
+        this.intervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstNanos = intervalNanos * burst;
+        this.idleNanos = idleNanos;
+    }
+
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    boolean tryAcquire(String key, long now) {
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now - burstNanos));
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return the number of buckets removed
+     */
+    public int evictIdle() {
+        return evictIdle(System.nanoTime());
+    }
+
+    int evictIdle(long now) {
+        int evicted = 0;
+        for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+            // Refilled completely, and nobody used it for idleNanos since
+            if (now - entry.getValue().get() > idleNanos && buckets.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
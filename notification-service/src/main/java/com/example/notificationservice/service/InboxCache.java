@@ -0,0 +1,101 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.Notification;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The newest latest-size notifications and the unread count per customer, for the first inbox page.
+ * Entries are loaded on a read miss and then kept current by {@link #onSaved} once a notification
+ * has been committed; customers that never open their inbox are not cached at all. Loads and
+ * updates of one customer are serialized by the cache, so a row committed while its entry loads
+ * ends up in it exactly once.
+ */
+@Component
+public class InboxCache {
+    private static final Comparator<Notification> NEWEST_FIRST = Comparator
+            .comparing(Notification::getSentAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Notification::getId)
+            .reversed();
+    private final Cache<String, Inbox> inboxes;
+    private final int latestSize;
+
+    public InboxCache(@Value("${notification.inbox.cache.max-customers:100000}") long maxCustomers,
+                      @Value("${notification.inbox.cache.ttl:PT10M}") Duration ttl,
+                      @Value("${notification.inbox.cache.latest-size:20}") int latestSize,
+                      MeterRegistry meterRegistry) {
+        this.latestSize = latestSize;
+        // expireAfterWrite also lets rows purged by retention drop out of cached inboxes
+        this.inboxes = Caffeine.newBuilder()
+                .maximumSize(maxCustomers)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, inboxes, "notification.inbox");
+    }
+
+    /**
+     * @param latest  newest first, at most latest-size entries
+     * @param hasOlder whether the customer has notifications beyond latest
+     */
+    public record Inbox(List<Notification> latest, boolean hasOlder, long unreadCount) {
+    }
+
+    public Inbox get(String customerId, Function<String, Inbox> loader) {
+        return inboxes.get(customerId, loader);
+    }
+
+    public void onSaved(Notification notification) {
+        String customerId = notification.getCustomerId();
+        if (customerId == null) {
+            return;
+        }
+        inboxes.asMap().computeIfPresent(customerId, (key, inbox) -> insert(inbox, notification));
+    }
+
+    public void invalidate(String customerId) {
+        inboxes.invalidate(customerId);
+    }
+
+    public int getLatestSize() {
+        return latestSize;
+    }
+
+    // Returns null (dropping the entry) when the row is older than everything cached, as it can then
+    // no longer be told apart from one already counted
+    private Inbox insert(Inbox inbox, Notification notification) {
+        List<Notification> latest = inbox.latest();
+        for (Notification cached : latest) {
+            if (cached.getId().equals(notification.getId())) {
+                return inbox;
+            }
+        }
+        List<Notification> updated = new ArrayList<>(latest.size() + 1);
+        updated.addAll(latest);
+        int at = 0;
+        while (at < updated.size() && NEWEST_FIRST.compare(updated.get(at), notification) < 0) {
+            at++;
+        }
+        if (at >= latestSize) {
+            return null;
+        }
+        updated.add(at, notification);
+        boolean hasOlder = inbox.hasOlder();
+        if (updated.size() > latestSize) {
+            updated.remove(updated.size() - 1);
+            hasOlder = true;
+        }
+        long unread = inbox.unreadCount() + (notification.getReadAt() == null ? 1 : 0);
+        return new Inbox(List.copyOf(updated), hasOlder, unread);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.Notification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes purged notifications to notifications-yyyy-MM-dd.ndjson.gz under archive.dir, one file
+ * per sentAt day. Every call appends a new gzip member, which gzip/zcat read back as one stream,
+ * and is forced to disk before the rows are deleted; a failed append is truncated away again.
+ * The ids of the last archived batch are kept in archive.dir/last-archived-batch, so a batch
+ * whose delete failed is not archived twice when the purge picks it up again.
+ */
+@Component
+public class NotificationArchiver {
+    private static final String LAST_BATCH_FILE = "last-archived-batch";
+    private final ObjectMapper objectMapper;
+    private final Path dir;
+    private Set<Long> lastBatch;
+
+    public NotificationArchiver(ObjectMapper objectMapper,
+                                @Value("${notification.retention.archive.dir:data/archive}") String dir) {
+        this.objectMapper = objectMapper;
+        this.dir = Path.of(dir);
+    }
+
+    /**
+     * @return the number of notifications written, without those the previous call already archived
+     */
+    public synchronized int archive(List<Notification> notifications) {
+        try {
+            Files.createDirectories(dir);
+            Set<Long> archived = lastBatch();
+            Map<LocalDate, List<Notification>> byDay = notifications.stream()
+                    .filter(n -> !archived.contains(n.getId()))
+                    .collect(Collectors.groupingBy(n -> n.getSentAt().toLocalDate(), TreeMap::new,
+                            Collectors.toList()));
+            int written = 0;
+            for (Map.Entry<LocalDate, List<Notification>> day : byDay.entrySet()) {
+                append(dir.resolve("notifications-" + day.getKey() + ".ndjson.gz"), day.getValue());
+                written += day.getValue().size();
+            }
+            saveLastBatch(notifications.stream().map(Notification::getId).collect(Collectors.toSet()));
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not archive notifications to " + dir, e);
+        }
+    }
+
+    private void append(Path file, List<Notification> notifications) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long start = channel.size();
+            channel.position(start);
+            try {
+                // Closing the gzip stream ends its Deflater; the channel stays open for force()
+                try (GZIPOutputStream out = new GZIPOutputStream(new NonClosingOutputStream(
+                        Channels.newOutputStream(channel)), 64 * 1024)) {
+                    for (Notification notification : notifications) {
+                        out.write(objectMapper.writeValueAsBytes(notification));
+                        out.write('\n');
+                    }
+                }
+                channel.force(false);
+            } catch (IOException | RuntimeException e) {
+                // A partial member would make the rest of the file unreadable
+                channel.truncate(start);
+                throw e;
+            }
+        }
+    }
+
+    private Set<Long> lastBatch() throws IOException {
+        if (lastBatch == null) {
+            Path file = dir.resolve(LAST_BATCH_FILE);
+            lastBatch = new HashSet<>();
+            if (Files.exists(file)) {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    if (!line.isBlank()) {
+                        lastBatch.add(Long.parseLong(line.trim()));
+                    }
+                }
+            }
+        }
+        return lastBatch;
+    }
+
+    // Written after the archive files are on disk, and replaced atomically
+    private void saveLastBatch(Set<Long> ids) throws IOException {
+        Path temp = dir.resolve(LAST_BATCH_FILE + ".tmp");
+        String content = ids.stream().map(String::valueOf).collect(Collectors.joining("\n"));
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(StandardCharsets.UTF_8.encode(content));
+            channel.force(false);
+        }
+        Files.move(temp, dir.resolve(LAST_BATCH_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        lastBatch = ids;
+    }
+
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        // FilterOutputStream would write the array one byte at a time
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
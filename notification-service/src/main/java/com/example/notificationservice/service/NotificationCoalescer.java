@@ -0,0 +1,173 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional stage in front of the throttle that holds notifications for window-ms per
+ * orderId and merges everything that arrived for the order into one row (messages are kept in
+ * arrival order). The row keeps the notificationId and status of the first arrival; the
+ * notificationIds of the others are recorded in its coalescedIds column. A group is released
+ * early once max-group-size notifications are in it, which for the usual order + payment pair
+ * means as soon as the payment one shows up. Every notification of a group completes with the
+ * merged row.
+ */
+@Component
+public class NotificationCoalescer implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationCoalescer.class);
+    private final NotificationThrottle throttle;
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+    private final Counter mergedCounter;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    @Value("${notification.coalescing.enabled:false}")
+    private boolean enabled;
+
+    @Value("${notification.coalescing.window-ms:500}")
+    private long windowMs;
+
+    @Value("${notification.coalescing.max-group-size:2}")
+    private int maxGroupSize;
+
+    // Orders held at once; beyond this notifications bypass the window
+    @Value("${notification.coalescing.max-pending:10000}")
+    private int maxPending;
+
+    public NotificationCoalescer(NotificationThrottle throttle, MeterRegistry meterRegistry) {
+        this.throttle = throttle;
+        this.mergedCounter = Counter.builder("notification.coalescing.merged")
+                .description("Notifications saved as part of another one")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<Notification> submit(Notification notification) {
+        String orderId = notification.getOrderId();
+        if (orderId == null || !running || (groups.size() >= maxPending && !groups.containsKey(orderId))) {
+            return throttle.send(notification);
+        }
+        // Decided under the map's lock: [0] group joined, [1] group just opened, [2] group just completed
+        Group[] joined = new Group[3];
+        groups.compute(orderId, (key, current) -> {
+            Group target = current != null ? current : new Group();
+            target.notifications.add(notification);
+            joined[0] = target;
+            joined[1] = current == null ? target : null;
+            joined[2] = target.notifications.size() >= maxGroupSize ? target : null;
+            return joined[2] != null ? null : target;
+        });
+        Group group = joined[0];
+        if (joined[2] != null) {
+            release(group);
+        } else if (joined[1] != null) {
+            scheduler.schedule(() -> expire(orderId, group), windowMs, TimeUnit.MILLISECONDS);
+        }
+        return group.result;
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("notification-coalescer").daemon().factory());
+        running = true;
+    }
+
+    // Runs after the listener containers stopped and before the throttle and write buffer drain
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdownNow();
+        groups.keySet().forEach(orderId -> {
+            Group group = groups.remove(orderId);
+            if (group != null) {
+                release(group);
+            }
+        });
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 500;
+    }
+
+    private void expire(String orderId, Group group) {
+        if (groups.remove(orderId, group)) {
+            release(group);
+        }
+    }
+
+    private void release(Group group) {
+        List<Notification> notifications = group.notifications;
+        try {
+            throttle.send(merge(notifications)).whenComplete((saved, e) -> {
+                if (e == null) {
+                    group.result.complete(saved);
+                } else {
+                    group.result.completeExceptionally(e);
+                }
+            });
+            mergedCounter.increment(notifications.size() - 1);
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not release coalesced notifications for order: {}",
+                    notifications.get(0).getOrderId(), e);
+            group.result.completeExceptionally(e);
+        }
+    }
+
+    private static Notification merge(List<Notification> notifications) {
+        Notification merged = notifications.get(0);
+        if (notifications.size() == 1) {
+            return merged;
+        }
+        StringJoiner coalescedIds = new StringJoiner(",");
+        for (int i = 1; i < notifications.size(); i++) {
+            Notification next = notifications.get(i);
+            coalescedIds.add(next.getNotificationId());
+            merged.setMessage(merged.getMessage() + "\n" + next.getMessage());
+            if (merged.getCustomerId() == null) {
+                merged.setCustomerId(next.getCustomerId());
+            }
+            if (merged.getCustomerEmail() == null) {
+                merged.setCustomerEmail(next.getCustomerEmail());
+            }
+            if (next.getSentAt() != null && (merged.getSentAt() == null || next.getSentAt().isAfter(merged.getSentAt()))) {
+                merged.setSentAt(next.getSentAt());
+            }
+        }
+        merged.setCoalescedIds(coalescedIds.toString());
+        LOGGER.debug("Coalesced notifications {} into {} for order: {}",
+                coalescedIds, merged.getNotificationId(), merged.getOrderId());
+        return merged;
+    }
+
+    // Mutated only inside ConcurrentHashMap.compute, read after it has left the map
+    private static final class Group {
+        private final List<Notification> notifications = new ArrayList<>(2);
+        private final CompletableFuture<Notification> result = new CompletableFuture<>();
+    }
+}
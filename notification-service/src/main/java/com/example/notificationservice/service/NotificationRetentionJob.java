@@ -0,0 +1,57 @@
+package com.example.notificationservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Component
+public class NotificationRetentionJob {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationRetentionJob.class);
+    private final NotificationRetentionService retentionService;
+
+    @Value("${notification.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.retention.retention-days:30}")
+    private long retentionDays;
+
+    // Breather between batches so the purge does not compete with the write buffer for the table
+    @Value("${notification.retention.batch-pause-ms:50}")
+    private long batchPauseMs;
+
+    public NotificationRetentionJob(NotificationRetentionService retentionService) {
+        this.retentionService = retentionService;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.retention.purge-interval-ms:3600000}",
+            initialDelayString = "${notification.retention.initial-delay-ms:60000}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        long total = 0;
+        try {
+            int purged;
+            // Keep going while batches come back full
+            do {
+                purged = retentionService.purgeBatch(cutoff);
+                total += purged;
+                if (purged >= retentionService.getBatchSize()) {
+                    Thread.sleep(batchPauseMs);
+                }
+            } while (purged >= retentionService.getBatchSize());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOGGER.error("Error purging notifications sent before {}", cutoff, e);
+        }
+        if (total > 0) {
+            LOGGER.info("Purged {} notifications sent before {}", total, cutoff);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes notifications older than the cutoff in short transactions of batch-size rows, oldest
+ * first via the sentAt index, archiving each batch first when archive.enabled is set. Rows are
+ * locked with SKIP LOCKED, so a purge never waits on (or blocks) anything but its own batch.
+ */
+@Service
+public class NotificationRetentionService {
+    private final NotificationRepository notificationRepository;
+    private final NotificationArchiver archiver;
+    private final Counter purgedCounter;
+    private final Counter archivedCounter;
+
+    @Value("${notification.retention.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${notification.retention.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    public NotificationRetentionService(NotificationRepository notificationRepository, NotificationArchiver archiver,
+                                        MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        this.archiver = archiver;
+        this.purgedCounter = Counter.builder("notification.retention.purged").register(meterRegistry);
+        this.archivedCounter = Counter.builder("notification.retention.archived").register(meterRegistry);
+    }
+
+    @Transactional
+    public int purgeBatch(LocalDateTime cutoff) {
+        List<Notification> expired = notificationRepository.findExpiredForUpdate(cutoff, PageRequest.of(0, batchSize));
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        // Archived before the delete: if writing the file fails, the batch rolls back and stays in the table.
+        // If the delete fails instead, the archiver skips the rows it already wrote on the next attempt
+        if (archiveEnabled) {
+            archivedCounter.increment(archiver.archive(expired));
+        }
+        int deleted = notificationRepository.deleteByIds(expired.stream().map(Notification::getId).toList());
+        purgedCounter.increment(deleted);
+        return expired.size();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+}
@@ -1,26 +1,89 @@
 package com.example.notificationservice.service;
 
-import java.util.List; // Add this at the top
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.example.common.common_dto.CursorPage;
+import com.example.common.trace.SpanRecorder;
+import com.example.common.trace.TraceContext;
+import com.example.notificationservice.dto.InboxPage;
 import com.example.notificationservice.model.Notification;
 import com.example.notificationservice.repository.NotificationRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class NotificationService {
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
     private final NotificationRepository notificationRepository;
+    private final NotificationThrottle throttle;
+    private final NotificationCoalescer coalescer;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final InboxCache inboxCache;
+    private final SpanRecorder spanRecorder;
+    private final MeterRegistry meterRegistry;
+    private final Timer sendTimer;
+    private final Timer endToEndSentTimer;
+    private final Timer endToEndDigestedTimer;
 
-    public NotificationService(NotificationRepository notificationRepository) {
+    public NotificationService(NotificationRepository notificationRepository, NotificationThrottle throttle,
+                               NotificationCoalescer coalescer, EntityManager entityManager,
+                               ObjectMapper objectMapper, InboxCache inboxCache, SpanRecorder spanRecorder,
+                               MeterRegistry meterRegistry) {
         this.notificationRepository = notificationRepository;
+        this.throttle = throttle;
+        this.coalescer = coalescer;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.inboxCache = inboxCache;
+        this.spanRecorder = spanRecorder;
+        this.meterRegistry = meterRegistry;
+        // Handed in until committed: coalescing window, throttling and the write-buffer flush
+        this.sendTimer = Timer.builder("notification.send")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.endToEndSentTimer = endToEndTimer(meterRegistry, "SENT");
+        this.endToEndDigestedTimer = endToEndTimer(meterRegistry, "DIGESTED");
+    }
+
+    // Completes once the notification (possibly merged with others of its order, or digested) has been persisted
+    public CompletableFuture<Notification> sendNotification(Notification notification) {
+        return sendNotification(notification, null);
     }
 
-    @Transactional
-    public Notification sendNotification(Notification notification) {
-        // In a real application, you would integrate with email/SMS service here
-        System.out.println("Sending notification to " + notification.getCustomerEmail() + 
-                ": " + notification.getMessage());
-        
-        return notificationRepository.save(notification);
+    // The flow of the consumed record, if any, is recorded as notification.persisted on completion
+    public CompletableFuture<Notification> sendNotification(Notification notification, TraceContext trace) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Long originCreatedAt = notification.getOriginCreatedAt();
+        CompletableFuture<Notification> saved = coalescer.isEnabled()
+                ? coalescer.submit(notification)
+                : throttle.send(notification);
+        return saved.thenApply(persisted -> {
+            sample.stop(sendTimer);
+            if (originCreatedAt != null) {
+                recordEndToEnd(persisted, originCreatedAt);
+            }
+            spanRecorder.record(trace, TraceContext.NOTIFICATION_PERSISTED);
+            inboxCache.onSaved(persisted);
+            return persisted;
+        });
     }
 
     public Notification getNotificationById(Long id) {
@@ -36,7 +99,118 @@ public class NotificationService {
         return notificationRepository.findByOrderId(orderId);
     }
 
-    public List<Notification> getAllNotifications() {
-        return notificationRepository.findAll();
+    public CursorPage<Notification> getNotificationsPage(Long after, int size, String status, String customerId,
+                                                         LocalDateTime from, LocalDateTime to) {
+        // Fetch one extra row to know whether another page exists
+        List<Notification> notifications = notificationRepository.findPageAfter(after == null ? 0L : after, status,
+                customerId, from, to, PageRequest.of(0, size + 1));
+        boolean hasMore = notifications.size() > size;
+        if (hasMore) {
+            notifications = notifications.subList(0, size);
+        }
+        Long nextCursor = notifications.isEmpty() ? after : notifications.get(notifications.size() - 1).getId();
+        return new CursorPage<>(notifications, nextCursor, hasMore);
+    }
+
+    // First page comes from the inbox cache when it is small enough; later pages seek on (customerId, sentAt)
+    public InboxPage getInbox(String customerId, String cursor, int size) {
+        InboxCache.Inbox inbox = inboxCache.get(customerId, this::loadInbox);
+        if (cursor == null && size <= inbox.latest().size()) {
+            List<Notification> items = inbox.latest().subList(0, size);
+            boolean hasMore = inbox.latest().size() > size || inbox.hasOlder();
+            return new InboxPage(items, hasMore ? encodeCursor(items.get(size - 1)) : null, hasMore,
+                    inbox.unreadCount());
+        }
+        if (cursor == null && !inbox.hasOlder()) {
+            return new InboxPage(inbox.latest(), null, false, inbox.unreadCount());
+        }
+        List<Notification> notifications;
+        if (cursor == null) {
+            notifications = notificationRepository.findLatestByCustomer(customerId, PageRequest.of(0, size + 1));
+        } else {
+            Notification after = decodeCursor(cursor);
+            notifications = notificationRepository.findByCustomerBefore(customerId, after.getSentAt(), after.getId(),
+                    PageRequest.of(0, size + 1));
+        }
+        boolean hasMore = notifications.size() > size;
+        if (hasMore) {
+            notifications = notifications.subList(0, size);
+        }
+        String nextCursor = hasMore ? encodeCursor(notifications.get(notifications.size() - 1)) : null;
+        return new InboxPage(notifications, nextCursor, hasMore, inbox.unreadCount());
+    }
+
+    public long getUnreadCount(String customerId) {
+        return inboxCache.get(customerId, this::loadInbox).unreadCount();
+    }
+
+    public int markInboxRead(String customerId, LocalDateTime upTo) {
+        int marked = notificationRepository.markReadUpTo(customerId, upTo, LocalDateTime.now());
+        // After the update committed, so a concurrent reload cannot bring back the unread rows
+        inboxCache.invalidate(customerId);
+        return marked;
+    }
+
+    // Writes matching notifications as NDJSON; entities are detached as they are written so memory stays flat
+    @Transactional(readOnly = true)
+    public void exportNotifications(String status, String customerId, LocalDateTime from, LocalDateTime to,
+                                    OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        BufferedOutputStream buffered = new BufferedOutputStream(out, EXPORT_BUFFER_SIZE);
+        try (Stream<Notification> notifications = notificationRepository.streamAll(status, customerId, from, to)) {
+            for (Notification notification : (Iterable<Notification>) notifications::iterator) {
+                writer.writeValue(buffered, notification);
+                buffered.write('\n');
+                entityManager.detach(notification);
+            }
+        }
+        buffered.flush();
+    }
+
+    // Order published -> notification persisted, by final status (SENT or DIGESTED)
+    private static Timer endToEndTimer(MeterRegistry meterRegistry, String status) {
+        return Timer.builder("notification.end-to-end")
+                .description("Order published to notification persisted")
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void recordEndToEnd(Notification persisted, long originCreatedAt) {
+        Timer timer = "DIGESTED".equals(persisted.getStatus()) ? endToEndDigestedTimer : endToEndSentTimer;
+        timer.record(System.currentTimeMillis() - originCreatedAt, TimeUnit.MILLISECONDS);
+    }
+
+    private InboxCache.Inbox loadInbox(String customerId) {
+        int latestSize = inboxCache.getLatestSize();
+        List<Notification> latest = notificationRepository.findLatestByCustomer(customerId,
+                PageRequest.of(0, latestSize + 1));
+        boolean hasOlder = latest.size() > latestSize;
+        if (hasOlder) {
+            latest = latest.subList(0, latestSize);
+        }
+        return new InboxCache.Inbox(List.copyOf(latest), hasOlder,
+                notificationRepository.countByCustomerIdAndReadAtIsNull(customerId));
+    }
+
+    // Opaque to clients: base64url of "<sentAt>|<id>" of the last row returned
+    private static String encodeCursor(Notification last) {
+        String raw = last.getSentAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Notification decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            Notification position = new Notification();
+            position.setSentAt(LocalDateTime.parse(raw.substring(0, separator)));
+            position.setId(Long.parseLong(raw.substring(separator + 1)));
+            return position;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid inbox cursor: " + cursor, e);
+        }
     }
 }
\ No newline at end of file
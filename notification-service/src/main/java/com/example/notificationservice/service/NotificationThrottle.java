@@ -0,0 +1,226 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Last step before a notification goes out: sends it if the customer's bucket for the channel
+ * has a token, otherwise parks it in the customer's digest. Digests are sent as one message
+ * once a token is available again (or max-digest-size notifications piled up); every parked
+ * notification is still stored, with status DIGESTED. At most max-parked notifications wait
+ * across all customers; beyond that the oldest digests are sent early.
+ */
+@Component
+public class NotificationThrottle implements SmartLifecycle {
+    public static final String CHANNEL_EMAIL = "email";
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationThrottle.class);
+    private static final String DIGESTED = "DIGESTED";
+
+    private final NotificationWriteBuffer writeBuffer;
+    private final CustomerRateLimiter rateLimiter;
+    private final Map<String, Digest> digests = new ConcurrentHashMap<>();
+    // Digests in the order they were started; entries of digests already sent are skipped
+    private final Queue<Digest> digestOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger parkedCount = new AtomicInteger();
+    private final Counter allowedCounter;
+    private final Counter throttledCounter;
+    private final Counter digestCounter;
+    private final Counter evictedCounter;
+    private final Counter overflowCounter;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    @Value("${notification.throttle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.throttle.digest-interval-ms:5000}")
+    private long digestIntervalMs;
+
+    @Value("${notification.throttle.max-digest-size:1000}")
+    private int maxDigestSize;
+
+    @Value("${notification.throttle.max-parked:100000}")
+    private int maxParked;
+
+    @Value("${notification.throttle.eviction-interval-ms:60000}")
+    private long evictionIntervalMs;
+
+    public NotificationThrottle(NotificationWriteBuffer writeBuffer, MeterRegistry meterRegistry,
+                                @Value("${notification.throttle.permits-per-minute:6}") double permitsPerMinute,
+                                @Value("${notification.throttle.burst:10}") int burst,
+                                @Value("${notification.throttle.idle-eviction-ms:600000}") long idleEvictionMs) {
+        this.writeBuffer = writeBuffer;
+        this.rateLimiter = new CustomerRateLimiter(permitsPerMinute / 60, burst,
+                TimeUnit.MILLISECONDS.toNanos(idleEvictionMs));
+        this.allowedCounter = meterRegistry.counter("notification.throttle.decisions", "result", "allowed");
+        this.throttledCounter = meterRegistry.counter("notification.throttle.decisions", "result", "throttled");
+        this.digestCounter = meterRegistry.counter("notification.throttle.digests");
+        this.evictedCounter = meterRegistry.counter("notification.throttle.evicted-buckets");
+        this.overflowCounter = meterRegistry.counter("notification.throttle.overflow-digests");
+        Gauge.builder("notification.throttle.buckets", rateLimiter, CustomerRateLimiter::size).register(meterRegistry);
+        Gauge.builder("notification.throttle.parked", parkedCount, AtomicInteger::get).register(meterRegistry);
+    }
+
+    // Completes once the notification is stored, right away or as part of a digest
+    public CompletableFuture<Notification> send(Notification notification) {
+        String customerId = notification.getCustomerId();
+        if (!enabled || !running || customerId == null) {
+            return deliver(notification);
+        }
+        String key = customerId + '|' + CHANNEL_EMAIL;
+        if (!digests.containsKey(key) && rateLimiter.tryAcquire(key)) {
+            allowedCounter.increment();
+            return deliver(notification);
+        }
+        throttledCounter.increment();
+        return park(key, notification);
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("notification-throttle").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::releaseDueDigests, digestIntervalMs, digestIntervalMs,
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(() -> evictedCounter.increment(rateLimiter.evictIdle()),
+                evictionIntervalMs, evictionIntervalMs, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    // Parked notifications are sent as digests before the write buffer drains
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdownNow();
+        digests.keySet().forEach(key -> release(key, false));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Between the coalescer (Integer.MAX_VALUE - 500) and the write buffer
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 750;
+    }
+
+    private CompletableFuture<Notification> deliver(Notification notification) {
+        // In a real application, you would integrate with email/SMS service here
+        LOGGER.debug("Sending notification to {}: {}", notification.getCustomerEmail(), notification.getMessage());
+        return writeBuffer.enqueue(notification);
+    }
+
+    private CompletableFuture<Notification> park(String key, Notification notification) {
+        Parked parked = new Parked(notification, new CompletableFuture<>());
+        boolean[] full = new boolean[1];
+        digests.compute(key, (k, current) -> {
+            Digest digest = current;
+            if (digest == null) {
+                digest = new Digest(key);
+                digestOrder.add(digest);
+            }
+            digest.parked.add(parked);
+            full[0] = digest.parked.size() >= maxDigestSize;
+            return digest;
+        });
+        parkedCount.incrementAndGet();
+        if (full[0]) {
+            release(key, false);
+        }
+        while (parkedCount.get() > maxParked && releaseOldest()) {
+            overflowCounter.increment();
+        }
+        return parked.result();
+    }
+
+    // Sends the oldest digest still waiting, regardless of its customer's tokens
+    private boolean releaseOldest() {
+        Digest oldest;
+        while ((oldest = digestOrder.poll()) != null) {
+            if (digests.remove(oldest.key, oldest)) {
+                send(oldest);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void releaseDueDigests() {
+        try {
+            digests.keySet().forEach(key -> release(key, true));
+            digestOrder.removeIf(digest -> digests.get(digest.key) != digest);
+        } catch (RuntimeException e) {
+            LOGGER.error("Error releasing notification digests", e);
+        }
+    }
+
+    private void release(String key, boolean needsToken) {
+        if (needsToken && !rateLimiter.tryAcquire(key)) {
+            return;
+        }
+        Digest digest = digests.remove(key);
+        if (digest != null) {
+            send(digest);
+        }
+    }
+
+    private void send(Digest digest) {
+        List<Parked> notifications = digest.parked;
+        parkedCount.addAndGet(-notifications.size());
+        Notification first = notifications.get(0).notification();
+        // In a real application, this is the one message that goes out for the whole digest
+        LOGGER.debug("Sending digest of {} notifications to {}", notifications.size(), first.getCustomerEmail());
+        digestCounter.increment();
+        LocalDateTime sentAt = LocalDateTime.now();
+        for (Parked parked : notifications) {
+            parked.notification().setStatus(DIGESTED);
+            parked.notification().setSentAt(sentAt);
+            try {
+                writeBuffer.enqueue(parked.notification()).whenComplete((saved, e) -> {
+                    if (e == null) {
+                        parked.result().complete(saved);
+                    } else {
+                        parked.result().completeExceptionally(e);
+                    }
+                });
+            } catch (RuntimeException e) {
+                parked.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    // Only changed inside compute for its key, and no longer once removed from the map
+    private static final class Digest {
+        private final String key;
+        private final List<Parked> parked = new ArrayList<>();
+
+        private Digest(String key) {
+            this.key = key;
+        }
+    }
+
+    private record Parked(Notification notification, CompletableFuture<Notification> result) {
+    }
+}
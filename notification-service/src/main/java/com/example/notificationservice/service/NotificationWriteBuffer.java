@@ -0,0 +1,190 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.Notification;
+import com.example.notificationservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind stage for notifications. Listeners enqueue and get a future back; a single
+ * writer thread drains the bounded queue and inserts the rows with one JDBC-batched saveAll
+ * per flush, once batch-size rows are waiting or max-delay-ms after the first one arrived.
+ * The future completes only after the flush transaction committed, so offsets can be
+ * committed from it. A full queue blocks the enqueueing thread until the writer catches up:
+ * slow writes slow the consumers down rather than fail healthy records into the retry topics.
+ */
+@Component
+public class NotificationWriteBuffer implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationWriteBuffer.class);
+    private final NotificationRepository notificationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingNotification> queue;
+    private final Timer flushTimer;
+    private final Timer blockedTimer;
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    @Value("${notification.write-buffer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${notification.write-buffer.max-delay-ms:50}")
+    private long maxDelayMs;
+
+    // How often a listener blocked on a full buffer logs that it is still waiting
+    @Value("${notification.write-buffer.full-warn-ms:5000}")
+    private long fullWarnMs;
+
+    @Value("${notification.write-buffer.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${notification.write-buffer.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    public NotificationWriteBuffer(NotificationRepository notificationRepository,
+                                   TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                                   @Value("${notification.write-buffer.capacity:10000}") int capacity) {
+        this.notificationRepository = notificationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.flushTimer = Timer.builder("notification.write-buffer.flush")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.blockedTimer = Timer.builder("notification.write-buffer.blocked")
+                .description("Time enqueueing threads waited on a full write buffer")
+                .register(meterRegistry);
+        Gauge.builder("notification.write-buffer.size", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    public CompletableFuture<Notification> enqueue(Notification notification) {
+        PendingNotification pending = new PendingNotification(notification, new CompletableFuture<>());
+        if (queue.offer(pending)) {
+            return pending.result();
+        }
+        long start = System.nanoTime();
+        try {
+            while (!queue.offer(pending, fullWarnMs, TimeUnit.MILLISECONDS)) {
+                // Only a writer that is gone can never make room
+                if (writer == null || !writer.isAlive()) {
+                    throw new IllegalStateException("Notification write buffer full and its writer is not running");
+                }
+                LOGGER.warn("Notification write buffer full, waiting for {} ms so far",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while enqueueing notification", e);
+        } finally {
+            blockedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return pending.result();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("notification-writer").daemon().start(this::run);
+    }
+
+    // Called once the listener containers have stopped; whatever is still queued gets flushed
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stop after the Kafka listener containers (which stop at Integer.MAX_VALUE - 100)
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 1000;
+    }
+
+    private void run() {
+        List<PendingNotification> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingNotification first = queue.poll(maxDelayMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fill(List<PendingNotification> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            PendingNotification next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingNotification> batch) throws InterruptedException {
+        List<Notification> notifications = batch.stream().map(PendingNotification::notification).toList();
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                flushTimer.record(() -> transactionTemplate.executeWithoutResult(
+                        status -> notificationRepository.saveAll(notifications)));
+                batch.forEach(pending -> pending.result().complete(pending.notification()));
+                LOGGER.debug("Flushed {} notifications", batch.size());
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Flush of {} notifications failed (attempt {}/{})", batch.size(), attempt, maxAttempts, e);
+                notifications.forEach(notification -> notification.setId(null));
+                if (attempt < maxAttempts) {
+                    Thread.sleep(retryBackoffMs * attempt);
+                }
+            }
+        }
+        // Isolate the rows that keep failing so the rest of the batch still lands
+        for (PendingNotification pending : batch) {
+            try {
+                pending.result().complete(notificationRepository.save(pending.notification()));
+            } catch (RuntimeException e) {
+                pending.notification().setId(null);
+                pending.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private record PendingNotification(Notification notification, CompletableFuture<Notification> result) {
+    }
+}
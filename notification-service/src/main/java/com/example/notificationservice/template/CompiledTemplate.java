@@ -0,0 +1,81 @@
+package com.example.notificationservice.template;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Render plan of one template: the literal text split around its placeholders, with every
+ * {name} resolved to the index of the value it takes. Parsing happens once, rendering is a
+ * straight copy into a per-thread StringBuilder that is reused across calls.
+ * {{ and }} stand for literal braces.
+ */
+public final class CompiledTemplate {
+    private static final int MAX_RETAINED_CAPACITY = 4096;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    // literals[i] comes before the value of slots[i]; the last literal closes the text
+    private final String[] literals;
+    private final int[] slots;
+
+    private CompiledTemplate(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+    }
+
+    public static CompiledTemplate compile(String source, NotificationType type) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if ((c == '{' || c == '}') && i + 1 < source.length() && source.charAt(i + 1) == c) {
+                literal.append(c);
+                i += 2;
+            } else if (c == '{') {
+                int end = source.indexOf('}', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed placeholder at " + i + " in " + type + " template");
+                }
+                String name = source.substring(i + 1, end).trim();
+                int slot = type.getVariables().indexOf(name);
+                if (slot < 0) {
+                    throw new IllegalArgumentException("Unknown variable {" + name + "} in " + type
+                            + " template, expected one of " + type.getVariables());
+                }
+                literals.add(literal.toString());
+                slots.add(slot);
+                literal.setLength(0);
+                i = end + 1;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        literals.add(literal.toString());
+        return new CompiledTemplate(literals.toArray(String[]::new), slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public String render(String... values) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        renderTo(out, values);
+        String rendered = out.toString();
+        if (out.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.remove();
+        }
+        return rendered;
+    }
+
+    // Missing or null values render as empty text
+    public void renderTo(StringBuilder out, String... values) {
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            int slot = slots[i];
+            if (slot < values.length && values[slot] != null) {
+                out.append(values[slot]);
+            }
+        }
+        out.append(literals[slots.length]);
+    }
+}
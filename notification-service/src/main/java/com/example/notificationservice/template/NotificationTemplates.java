@@ -0,0 +1,178 @@
+package com.example.notificationservice.template;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compiled notification templates per {@link NotificationType} and locale, read from
+ * templates/notifications/&lt;type&gt;[_&lt;locale&gt;].txt on the classpath and, when
+ * notification.templates.dir is set, overridden by files of the same name in that directory.
+ * The directory is polled and a changed set of files is recompiled and swapped in as a whole;
+ * a template that does not compile keeps the previous set active.
+ */
+@Component
+public class NotificationTemplates implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationTemplates.class);
+    private static final String CLASSPATH_PATTERN = "classpath*:templates/notifications/*.txt";
+    private static final String SUFFIX = ".txt";
+    private static final String DEFAULT_LOCALE = "";
+
+    private final Path directory;
+    private final Locale defaultLocale;
+    private volatile Map<NotificationType, Map<String, CompiledTemplate>> templates;
+    private volatile long directoryFingerprint;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    @Value("${notification.templates.reload-interval-ms:2000}")
+    private long reloadIntervalMs;
+
+    public NotificationTemplates(@Value("${notification.templates.dir:}") String directory,
+                                 @Value("${notification.templates.default-locale:en}") String defaultLocale) {
+        this.directory = directory.isBlank() ? null : Path.of(directory);
+        this.defaultLocale = Locale.forLanguageTag(defaultLocale);
+        this.directoryFingerprint = fingerprint();
+        this.templates = load();
+    }
+
+    /**
+     * @param locale falls back to the language, then to the default locale, then to the file without suffix
+     * @param values in the order of {@link NotificationType#getVariables()}
+     */
+    public String render(NotificationType type, Locale locale, String... values) {
+        return resolve(type, locale != null ? locale : defaultLocale).render(values);
+    }
+
+    public CompiledTemplate resolve(NotificationType type, Locale locale) {
+        Map<String, CompiledTemplate> byLocale = templates.get(type);
+        CompiledTemplate template = byLocale.get(locale.toString());
+        if (template == null) {
+            template = byLocale.get(locale.getLanguage());
+        }
+        if (template == null) {
+            template = byLocale.get(defaultLocale.getLanguage());
+        }
+        return template != null ? template : byLocale.get(DEFAULT_LOCALE);
+    }
+
+    @Override
+    public void start() {
+        if (directory != null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("notification-templates").daemon().factory());
+            scheduler.scheduleWithFixedDelay(this::reloadIfChanged, reloadIntervalMs, reloadIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void reloadIfChanged() {
+        long fingerprint = fingerprint();
+        if (fingerprint == directoryFingerprint) {
+            return;
+        }
+        try {
+            templates = load();
+            directoryFingerprint = fingerprint;
+            LOGGER.info("Reloaded notification templates from {}", directory);
+        } catch (RuntimeException e) {
+            // Not marked as seen, so a fixed file is picked up on the next poll
+            LOGGER.error("Could not reload notification templates from {}, keeping the previous ones", directory, e);
+        }
+    }
+
+    private Map<NotificationType, Map<String, CompiledTemplate>> load() {
+        Map<String, String> sources = new HashMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(CLASSPATH_PATTERN)) {
+                try (InputStream in = resource.getInputStream()) {
+                    sources.put(resource.getFilename(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+            if (directory != null && Files.isDirectory(directory)) {
+                try (Stream<Path> files = Files.list(directory)) {
+                    for (Path file : (Iterable<Path>) files::iterator) {
+                        if (file.getFileName().toString().endsWith(SUFFIX)) {
+                            sources.put(file.getFileName().toString(), Files.readString(file));
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read notification templates", e);
+        }
+
+        Map<NotificationType, Map<String, CompiledTemplate>> compiled = new EnumMap<>(NotificationType.class);
+        for (NotificationType type : NotificationType.values()) {
+            compiled.put(type, new HashMap<>());
+        }
+        sources.forEach((fileName, source) -> {
+            String name = fileName.substring(0, fileName.length() - SUFFIX.length());
+            int separator = name.indexOf('_');
+            NotificationType type = NotificationType.fromTemplateName(separator < 0 ? name : name.substring(0, separator));
+            if (type == null) {
+                LOGGER.warn("Ignoring notification template {} for an unknown notification type", fileName);
+                return;
+            }
+            String locale = separator < 0 ? DEFAULT_LOCALE : name.substring(separator + 1);
+            compiled.get(type).put(locale, CompiledTemplate.compile(source.strip(), type));
+        });
+        for (Map.Entry<NotificationType, Map<String, CompiledTemplate>> entry : compiled.entrySet()) {
+            if (!entry.getValue().containsKey(DEFAULT_LOCALE)) {
+                throw new IllegalStateException("No default template " + entry.getKey().getTemplateName() + SUFFIX);
+            }
+        }
+        return compiled;
+    }
+
+    // Changes whenever a file in the directory is added, removed or modified
+    private long fingerprint() {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            long fingerprint = 17;
+            for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                fingerprint = 31 * fingerprint + file.getFileName().hashCode();
+                fingerprint = 31 * fingerprint + Files.getLastModifiedTime(file).toMillis();
+                fingerprint = 31 * fingerprint + Files.size(file);
+            }
+            return fingerprint;
+        } catch (IOException e) {
+            LOGGER.warn("Could not scan notification template directory {}", directory, e);
+            return directoryFingerprint;
+        }
+    }
+}
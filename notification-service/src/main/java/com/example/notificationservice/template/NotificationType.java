@@ -0,0 +1,38 @@
+package com.example.notificationservice.template;
+
+import java.util.List;
+
+/**
+ * Notification kinds with a template, and the variables their templates may use. Values are
+ * passed to {@link NotificationTemplates#render} in exactly this order.
+ */
+public enum NotificationType {
+    ORDER_CREATED("order-created", "orderId", "customerId", "customerName", "totalAmount", "itemCount"),
+    PAYMENT_STATUS("payment-status", "orderId", "paymentId", "customerId", "customerName", "status", "amount",
+            "paymentMethod");
+
+    private final String templateName;
+    private final List<String> variables;
+
+    NotificationType(String templateName, String... variables) {
+        this.templateName = templateName;
+        this.variables = List.of(variables);
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    public static NotificationType fromTemplateName(String templateName) {
+        for (NotificationType type : values()) {
+            if (type.templateName.equals(templateName)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.notificationservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerRateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long START = 1_000 * SECOND;
+
+    // One token per second, bursts of three, buckets idle for ten seconds are dropped
+    private final CustomerRateLimiter limiter = new CustomerRateLimiter(1, 3, 10 * SECOND);
+
+    @Test
+    void allowsABurstThenOneTokenPerInterval() {
+        assertThat(limiter.tryAcquire("c1|email", START)).isTrue();
+        assertThat(limiter.tryAcquire("c1|email", START)).isTrue();
+        assertThat(limiter.tryAcquire("c1|email", START)).isTrue();
+        assertThat(limiter.tryAcquire("c1|email", START)).isFalse();
+
+        assertThat(limiter.tryAcquire("c1|email", START + SECOND - 1)).isFalse();
+        assertThat(limiter.tryAcquire("c1|email", START + SECOND)).isTrue();
+        assertThat(limiter.tryAcquire("c1|email", START + SECOND)).isFalse();
+    }
+
+    @Test
+    void refillsNoFurtherThanTheBurst() {
+        assertThat(limiter.tryAcquire("c1|email", START)).isTrue();
+
+        long later = START + 60 * SECOND;
+        assertThat(limiter.tryAcquire("c1|email", later)).isTrue();
+        assertThat(limiter.tryAcquire("c1|email", later)).isTrue();
+        assertThat(limiter.tryAcquire("c1|email", later)).isTrue();
+        assertThat(limiter.tryAcquire("c1|email", later)).isFalse();
+    }
+
+    @Test
+    void keepsABucketPerKey() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("c1|email", START);
+        }
+
+        assertThat(limiter.tryAcquire("c1|email", START)).isFalse();
+        assertThat(limiter.tryAcquire("c2|email", START)).isTrue();
+        assertThat(limiter.size()).isEqualTo(2);
+    }
+
+    @Test
+    void evictsBucketsOnlyOnceRefilledAndIdle() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("c1|email", START);
+        }
+        limiter.tryAcquire("c2|email", START + 5 * SECOND);
+
+        // c1 is full again at START + 3s and idle for ten seconds after that; c2 is not
+        assertThat(limiter.evictIdle(START + 13 * SECOND)).isZero();
+        assertThat(limiter.evictIdle(START + 13 * SECOND + 1)).isEqualTo(1);
+        assertThat(limiter.size()).isEqualTo(1);
+        assertThat(limiter.tryAcquire("c1|email", START + 13 * SECOND + 1)).isTrue();
+    }
+}
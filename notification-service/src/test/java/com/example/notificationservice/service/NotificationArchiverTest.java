@@ -0,0 +1,98 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.Notification;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NotificationArchiverTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendsGzipMembersReadBackAsOneStream() throws IOException {
+        NotificationArchiver archiver = new NotificationArchiver(objectMapper(), dir.toString());
+
+        assertThat(archiver.archive(List.of(notification(1, DAY), notification(2, DAY.plusDays(1))))).isEqualTo(2);
+        assertThat(archiver.archive(List.of(notification(3, DAY)))).isEqualTo(1);
+
+        assertThat(lines("notifications-2024-03-01.ndjson.gz")).hasSize(2)
+                .allSatisfy(line -> assertThat(line).startsWith("{"));
+        assertThat(lines("notifications-2024-03-02.ndjson.gz")).hasSize(1);
+    }
+
+    @Test
+    void skipsTheLastBatchWhenItComesAgain() throws IOException {
+        NotificationArchiver archiver = new NotificationArchiver(objectMapper(), dir.toString());
+        archiver.archive(List.of(notification(1, DAY), notification(2, DAY)));
+
+        // The delete of that batch failed; the next purge finds it again, plus a row that is new
+        NotificationArchiver restarted = new NotificationArchiver(objectMapper(), dir.toString());
+        assertThat(restarted.archive(List.of(notification(1, DAY), notification(2, DAY), notification(3, DAY))))
+                .isEqualTo(1);
+
+        assertThat(lines("notifications-2024-03-01.ndjson.gz")).hasSize(3);
+    }
+
+    @Test
+    void truncatesAFailedAppend() throws IOException {
+        NotificationArchiver archiver = new NotificationArchiver(objectMapper(), dir.toString());
+        archiver.archive(List.of(notification(1, DAY)));
+        Path file = dir.resolve("notifications-2024-03-01.ndjson.gz");
+        long size = Files.size(file);
+        ObjectMapper failing = new ObjectMapper() {
+            @Override
+            public byte[] writeValueAsBytes(Object value) throws JsonProcessingException {
+                if (((Notification) value).getId() == 3) {
+                    throw new JsonProcessingException("boom") { };
+                }
+                return objectMapper().writeValueAsBytes(value);
+            }
+        };
+
+        NotificationArchiver failingArchiver = new NotificationArchiver(failing, dir.toString());
+        assertThatThrownBy(() -> failingArchiver.archive(List.of(notification(2, DAY), notification(3, DAY))))
+                .isInstanceOf(UncheckedIOException.class);
+
+        assertThat(Files.size(file)).isEqualTo(size);
+        assertThat(lines("notifications-2024-03-01.ndjson.gz")).hasSize(1);
+        // Nothing of the failed batch counts as archived
+        assertThat(archiver.archive(List.of(notification(2, DAY)))).isEqualTo(1);
+    }
+
+    private List<String> lines(String name) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(dir.resolve(name)))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+
+    private static ObjectMapper objectMapper() {
+        return new ObjectMapper().findAndRegisterModules();
+    }
+
+    private static Notification notification(long id, LocalDateTime sentAt) {
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setNotificationId("notification-" + id);
+        notification.setCustomerId("customer-1");
+        notification.setStatus("SENT");
+        notification.setSentAt(sentAt);
+        return notification;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.Notification;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NotificationThrottleTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NotificationThrottle throttle;
+
+    @AfterEach
+    void stop() {
+        if (throttle.isRunning()) {
+            throttle.stop();
+        }
+    }
+
+    @Test
+    void digestsThrottledNotificationsOnceTheDigestIsFull() {
+        start(3, 100);
+
+        CompletableFuture<Notification> allowed = throttle.send(notification("c1", "n1"));
+        CompletableFuture<Notification> second = throttle.send(notification("c1", "n2"));
+        CompletableFuture<Notification> third = throttle.send(notification("c1", "n3"));
+
+        assertThat(allowed.join().getStatus()).isEqualTo("SENT");
+        assertThat(second).isNotDone();
+        assertThat(third).isNotDone();
+
+        CompletableFuture<Notification> fourth = throttle.send(notification("c1", "n4"));
+
+        assertThat(second.join().getStatus()).isEqualTo("DIGESTED");
+        assertThat(third.join().getStatus()).isEqualTo("DIGESTED");
+        assertThat(fourth.join().getStatus()).isEqualTo("DIGESTED");
+        assertThat(fourth.join().getSentAt()).isNotNull();
+        assertThat(meterRegistry.counter("notification.throttle.digests").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("notification.throttle.parked").gauge().value()).isZero();
+    }
+
+    @Test
+    void sendsTheOldestDigestOnceTooManyNotificationsAreParked() {
+        start(100, 2);
+        throttle.send(notification("c1", "a1"));
+        throttle.send(notification("c2", "b1"));
+        throttle.send(notification("c3", "c1"));
+
+        CompletableFuture<Notification> oldest = throttle.send(notification("c1", "a2"));
+        CompletableFuture<Notification> newer = throttle.send(notification("c2", "b2"));
+        assertThat(oldest).isNotDone();
+
+        CompletableFuture<Notification> newest = throttle.send(notification("c3", "c2"));
+
+        assertThat(oldest.join().getStatus()).isEqualTo("DIGESTED");
+        assertThat(newer).isNotDone();
+        assertThat(newest).isNotDone();
+        assertThat(meterRegistry.counter("notification.throttle.overflow-digests").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("notification.throttle.parked").gauge().value()).isEqualTo(2);
+
+        // Whatever is still parked goes out on shutdown
+        throttle.stop();
+
+        assertThat(newer.join().getStatus()).isEqualTo("DIGESTED");
+        assertThat(newest.join().getStatus()).isEqualTo("DIGESTED");
+    }
+
+    // One token per customer, refilled far slower than the test runs; digests only go out when full
+    private void start(int maxDigestSize, int maxParked) {
+        NotificationWriteBuffer writeBuffer = mock(NotificationWriteBuffer.class);
+        when(writeBuffer.enqueue(any())).thenAnswer(call -> CompletableFuture.completedFuture(call.getArgument(0)));
+        throttle = new NotificationThrottle(writeBuffer, meterRegistry, 0.001, 1, 600_000);
+        ReflectionTestUtils.setField(throttle, "enabled", true);
+        ReflectionTestUtils.setField(throttle, "digestIntervalMs", 3_600_000L);
+        ReflectionTestUtils.setField(throttle, "evictionIntervalMs", 3_600_000L);
+        ReflectionTestUtils.setField(throttle, "maxDigestSize", maxDigestSize);
+        ReflectionTestUtils.setField(throttle, "maxParked", maxParked);
+        throttle.start();
+    }
+
+    private static Notification notification(String customerId, String notificationId) {
+        Notification notification = new Notification();
+        notification.setNotificationId(notificationId);
+        notification.setCustomerId(customerId);
+        notification.setCustomerEmail(customerId + "@example.com");
+        notification.setStatus("SENT");
+        return notification;
+    }
+}
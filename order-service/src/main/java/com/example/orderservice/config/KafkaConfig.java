@@ -0,0 +1,93 @@
+package com.example.orderservice.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
+import org.springframework.kafka.core.ProducerFactory;
+
+import com.example.common.codec.EventSerializer;
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.constants.TopicConstants;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class KafkaConfig {
+    private final MeterRegistry meterRegistry;
+
+    // json or binary; payment and notification consumers read both
+    @Value("${order.kafka.wire-format:json}")
+    private String wireFormat;
+
+    @Value("${order.producer.linger-ms:5}")
+    private int lingerMs;
+
+    @Value("${order.producer.batch-size:65536}")
+    private int producerBatchSize;
+
+    @Value("${order.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${order.producer.buffer-memory:67108864}")
+    private long bufferMemory;
+
+    @Value("${order.producer.max-block-ms:5000}")
+    private long maxBlockMs;
+
+    @Value("${order.producer.request-timeout-ms:5000}")
+    private int requestTimeoutMs;
+
+    @Value("${order.producer.delivery-timeout-ms:15000}")
+    private int deliveryTimeoutMs;
+
+    public KafkaConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Topic Configuration
+    @Bean
+    public NewTopic orderTopic() {
+        return TopicBuilder.name(TopicConstants.ORDER_TOPIC)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+
+    // Producer Configuration
+    @Bean
+    public ProducerFactory<String, OrderEvent> producerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
+        // Concurrent requests share producer batches; a few ms of linger fills them under load
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, producerBatchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        // Idempotent producer: broker-side dedup of internal retries, ordering kept per partition
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        configProps.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeoutMs);
+        configProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, deliveryTimeoutMs);
+        DefaultKafkaProducerFactory<String, OrderEvent> factory = new DefaultKafkaProducerFactory<>(configProps,
+                new StringSerializer(), new EventSerializer<OrderEvent>(wireFormat));
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
+    }
+
+    @Bean
+    public KafkaTemplate<String, OrderEvent> kafkaTemplate() {
+        return new KafkaTemplate<>(producerFactory());
+    }
+}
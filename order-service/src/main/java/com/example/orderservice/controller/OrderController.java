@@ -0,0 +1,69 @@
+package com.example.orderservice.controller;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.orderservice.dto.BatchResult;
+import com.example.orderservice.dto.OrderResult;
+import com.example.orderservice.service.OrderImportService;
+import com.example.orderservice.service.OrderService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Responses are written once the broker acknowledged the orders; the request thread is not held meanwhile
+@RestController
+@RequestMapping("/api/orders")
+public class OrderController {
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+    private final OrderService orderService;
+    private final OrderImportService orderImportService;
+
+    public OrderController(OrderService orderService, OrderImportService orderImportService) {
+        this.orderService = orderService;
+        this.orderImportService = orderImportService;
+    }
+
+    @PostMapping
+    public CompletableFuture<ResponseEntity<OrderResult>> submit(
+            @RequestBody OrderEvent order,
+            @RequestHeader(value = "X-Correlation-Id", required = false) String correlationId) {
+        return orderService.submit(order, correlationId != null ? correlationId : order.getOrderId())
+                .thenApply(result -> ResponseEntity.status(switch (result.status()) {
+                    case ACCEPTED -> HttpStatus.ACCEPTED;
+                    case REJECTED -> HttpStatus.BAD_REQUEST;
+                    case FAILED -> HttpStatus.SERVICE_UNAVAILABLE;
+                }).body(result));
+    }
+
+    // 200 with per-order results, also when some orders were rejected or failed
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<BatchResult>> submitAll(@RequestBody List<OrderEvent> orders) {
+        if (orders.isEmpty() || orders.size() > orderService.getMaxBatchSize()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return orderService.submitAll(orders).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Streaming bulk import of an NDJSON or CSV body. Runs on the request thread, which reads
+     * the upload only as fast as the orders get acknowledged. The response is NDJSON: a line
+     * per rejected or failed order, running totals in between and final totals at the end.
+     */
+    @PostMapping(value = "/import", consumes = {NDJSON, CSV}, produces = NDJSON)
+    public void importOrders(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        OrderImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType(CSV))
+                ? OrderImportService.Format.CSV
+                : OrderImportService.Format.NDJSON;
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        orderImportService.importOrders(format, request.getInputStream(), response.getOutputStream());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.orderservice.dto;
+
+import java.util.List;
+
+// Per-order outcomes of a batch submission, in request order
+public record BatchResult(int accepted, int rejected, int failed, List<OrderResult> results) {
+
+    public static BatchResult of(List<OrderResult> results) {
+        int accepted = 0;
+        int rejected = 0;
+        for (OrderResult result : results) {
+            if (result.status() == OrderResult.Status.ACCEPTED) {
+                accepted++;
+            } else if (result.status() == OrderResult.Status.REJECTED) {
+                rejected++;
+            }
+        }
+        return new BatchResult(accepted, rejected, results.size() - accepted - rejected, results);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.orderservice.dto;
+
+import java.util.List;
+
+// An order of an import that was REJECTED or FAILED, identified by the line it starts on
+public record ImportLineResult(long line, String orderId, OrderResult.Status status, List<String> errors) {
+}
@@ -0,0 +1,5 @@
+package com.example.orderservice.dto;
+
+// Running totals of an import; the last one written has done = true
+public record ImportProgress(long orders, long accepted, long rejected, long failed, boolean done) {
+}
@@ -0,0 +1,28 @@
+package com.example.orderservice.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of one submitted order. ACCEPTED orders are on the orders topic at the given
+ * partition/offset; REJECTED ones failed validation (see errors); FAILED ones were valid but
+ * could not be published and may be resubmitted with the same orderId.
+ */
+public record OrderResult(int index, String orderId, Status status, Integer partition, Long offset,
+                          List<String> errors) {
+
+    public enum Status {
+        ACCEPTED, REJECTED, FAILED
+    }
+
+    public static OrderResult accepted(int index, String orderId, int partition, long offset) {
+        return new OrderResult(index, orderId, Status.ACCEPTED, partition, offset, List.of());
+    }
+
+    public static OrderResult rejected(int index, String orderId, List<String> errors) {
+        return new OrderResult(index, orderId, Status.REJECTED, null, null, errors);
+    }
+
+    public static OrderResult failed(int index, String orderId, String error) {
+        return new OrderResult(index, orderId, Status.FAILED, null, null, List.of(error));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.orderservice.kafka;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.constants.TopicConstants;
+import com.example.common.trace.TraceContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class OrderProducer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderProducer.class);
+    private final KafkaTemplate<String, OrderEvent> kafkaTemplate;
+
+    // Sends that have not been acknowledged (or finally failed) yet
+    private final Semaphore inFlight;
+    private final long backpressureTimeoutMs;
+
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Counter rejectedCounter;
+
+    public OrderProducer(KafkaTemplate<String, OrderEvent> kafkaTemplate, MeterRegistry meterRegistry,
+                         @Value("${order.producer.max-in-flight:20000}") int maxInFlight,
+                         @Value("${order.producer.backpressure-timeout-ms:1000}") long backpressureTimeoutMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.backpressureTimeoutMs = backpressureTimeoutMs;
+
+        this.successTimer = sendTimer(meterRegistry, "success");
+        this.failureTimer = sendTimer(meterRegistry, "failure");
+        this.rejectedCounter = meterRegistry.counter("order.producer.rejected");
+        meterRegistry.gauge("order.producer.in-flight", inFlight, s -> maxInFlight - s.availablePermits());
+    }
+
+    /**
+     * Publishes the order keyed by orderId, with the correlation id and order.published (the
+     * event's createdAt) as trace headers. Waits up to the backpressure timeout for a slot in
+     * the in-flight window and fails the returned future if none frees up; retries are left to
+     * the idempotent producer, bounded by its delivery timeout.
+     */
+    public CompletableFuture<SendResult<String, OrderEvent>> send(OrderEvent event, String correlationId) {
+        return send(event, correlationId, backpressureTimeoutMs);
+    }
+
+    // Bulk imports wait longer for a slot than interactive submissions, holding back their upload meanwhile
+    public CompletableFuture<SendResult<String, OrderEvent>> send(OrderEvent event, String correlationId,
+                                                                   long backpressureTimeoutMs) {
+        try {
+            if (!inFlight.tryAcquire(backpressureTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejectedCounter.increment();
+                return CompletableFuture.failedFuture(new IllegalStateException(
+                        "Order producer in-flight window is full, order " + event.getOrderId() + " rejected"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, OrderEvent>> send;
+        try {
+            ProducerRecord<String, OrderEvent> record =
+                    new ProducerRecord<>(TopicConstants.ORDER_TOPIC, event.getOrderId(), event);
+            TraceContext.start(correlationId)
+                    .hop(TraceContext.ORDER_PUBLISHED, event.getCreatedAt())
+                    .writeTo(record.headers());
+            send = kafkaTemplate.send(record);
+        } catch (Exception e) {
+            send = CompletableFuture.failedFuture(e);
+        }
+        return send.whenComplete((sendResult, ex) -> {
+            inFlight.release();
+            long elapsed = System.nanoTime() - start;
+            if (ex == null) {
+                successTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            } else {
+                failureTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                LOGGER.error("Order event for order {} could not be published", event.getOrderId(), ex);
+            }
+        });
+    }
+
+    private static Timer sendTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("order.producer.send")
+                .description("Latency of a send until the broker ack")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
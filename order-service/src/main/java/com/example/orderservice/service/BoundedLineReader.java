@@ -0,0 +1,87 @@
+package com.example.orderservice.service;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Line reader for uploads that keeps at most maxLength chars of a line. The rest of a longer
+ * line is skipped and flagged through {@link #isTooLong()}, so one oversized line cannot grow
+ * the heap the way BufferedReader.readLine would.
+ */
+class BoundedLineReader {
+    private final Reader reader;
+    private final int maxLength;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder line = new StringBuilder();
+    private int position;
+    private int limit;
+    private long lineNumber;
+    private boolean tooLong;
+
+    BoundedLineReader(Reader reader, int maxLength) {
+        this.reader = reader;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @return the next line without its terminator, or null at the end of the input
+     */
+    String readLine() throws IOException {
+        line.setLength(0);
+        tooLong = false;
+        boolean read = false;
+        while (true) {
+            if (position == limit) {
+                position = 0;
+                limit = Math.max(reader.read(buffer, 0, buffer.length), 0);
+                if (limit == 0) {
+                    if (!read) {
+                        return null;
+                    }
+                    break;
+                }
+            }
+            read = true;
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            append(start, position);
+            if (position < limit) {
+                position++;
+                break;
+            }
+        }
+        lineNumber++;
+        int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+            line.setLength(length - 1);
+        }
+        if (line.length() > maxLength) {
+            tooLong = true;
+            line.setLength(maxLength);
+        }
+        return line.toString();
+    }
+
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    boolean isTooLong() {
+        return tooLong;
+    }
+
+    int getMaxLength() {
+        return maxLength;
+    }
+
+    // Keeps one char beyond maxLength, so the '\r' of a CRLF line does not count against the limit
+    private void append(int start, int end) {
+        int count = Math.min(end - start, maxLength + 1 - line.length());
+        if (count < end - start) {
+            tooLong = true;
+        }
+        line.append(buffer, start, count);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.orderservice.service;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.common_dto.OrderItemDto;
+import com.example.common.money.Money;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV with a header row naming the columns (any order) and one row per order item.
+ * Consecutive rows with the same orderId form one order whose customer, address and total
+ * come from its first row; rows without an orderId are single-item orders. Amounts are decimals
+ * in the row's currency column (default USD). The optional locale column sets the language of
+ * the customer's notifications. Quoted fields may contain commas and doubled quotes, but not
+ * line breaks.
+ */
+class CsvOrderReader implements OrderImportReader {
+    private static final String[] COLUMNS = {"orderId", "customerId", "customerName", "customerEmail",
+            "shippingAddress", "totalAmount", "productId", "productName", "description", "quantity", "price",
+            "currency", "locale"};
+    private static final int ORDER_ID = 0;
+    private static final int CUSTOMER_ID = 1;
+    private static final int CUSTOMER_NAME = 2;
+    private static final int CUSTOMER_EMAIL = 3;
+    private static final int SHIPPING_ADDRESS = 4;
+    private static final int TOTAL_AMOUNT = 5;
+    private static final int PRODUCT_ID = 6;
+    private static final int PRODUCT_NAME = 7;
+    private static final int DESCRIPTION = 8;
+    private static final int QUANTITY = 9;
+    private static final int PRICE = 10;
+    private static final int CURRENCY = 11;
+    private static final int LOCALE = 12;
+
+    private final BoundedLineReader lines;
+    private final int maxItems;
+    // Position of each of COLUMNS in a row, -1 if the header does not have it
+    private int[] positions;
+    private boolean exhausted;
+    // Read ahead while collecting the items of the previous order
+    private Row pending;
+
+    CsvOrderReader(BoundedLineReader lines, int maxItems) {
+        this.lines = lines;
+        this.maxItems = maxItems;
+    }
+
+    @Override
+    public ImportedOrder next() throws IOException {
+        if (exhausted) {
+            return null;
+        }
+        if (positions == null) {
+            String headerError = readHeader();
+            if (headerError != null) {
+                exhausted = true;
+                return ImportedOrder.invalid(lines.getLineNumber(), headerError);
+            }
+        }
+        Row first = pending != null ? pending : readRow();
+        pending = null;
+        if (first == null) {
+            exhausted = true;
+            return null;
+        }
+        if (first.error() != null) {
+            return ImportedOrder.invalid(first.line(), first.error());
+        }
+
+        List<String> errors = new ArrayList<>();
+        OrderEvent order = new OrderEvent();
+        order.setOrderId(field(first, ORDER_ID));
+        order.setCustomerId(field(first, CUSTOMER_ID));
+        order.setCustomerName(field(first, CUSTOMER_NAME));
+        order.setCustomerEmail(field(first, CUSTOMER_EMAIL));
+        order.setShippingAddress(field(first, SHIPPING_ADDRESS));
+        order.setLocale(field(first, LOCALE));
+        order.setTotalAmount(parseMoney(first, TOTAL_AMOUNT, errors));
+        List<OrderItemDto> items = new ArrayList<>();
+        items.add(item(first, errors));
+        order.setItems(items);
+
+        String orderId = order.getOrderId();
+        while (orderId != null) {
+            Row row = readRow();
+            if (row == null || row.error() != null || !orderId.equals(field(row, ORDER_ID))) {
+                pending = row;
+                break;
+            }
+            if (items.size() < maxItems) {
+                items.add(item(row, errors));
+            } else if (items.size() == maxItems) {
+                errors.add("line " + row.line() + ": more than " + maxItems + " items");
+            }
+        }
+        return new ImportedOrder(first.line(), order, errors);
+    }
+
+    private String readHeader() throws IOException {
+        String header = lines.readLine();
+        if (header == null || lines.isTooLong()) {
+            return "Missing or oversized CSV header";
+        }
+        List<String> names;
+        try {
+            names = split(header);
+        } catch (IllegalArgumentException e) {
+            return "Invalid CSV header: " + e.getMessage();
+        }
+        positions = new int[COLUMNS.length];
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < COLUMNS.length; i++) {
+            positions[i] = names.indexOf(COLUMNS[i]);
+            if (positions[i] < 0 && i != ORDER_ID && i != DESCRIPTION && i != CURRENCY && i != LOCALE) {
+                missing.add(COLUMNS[i]);
+            }
+        }
+        return missing.isEmpty() ? null : "CSV header is missing columns " + missing;
+    }
+
+    private Row readRow() throws IOException {
+        String line;
+        while ((line = lines.readLine()) != null) {
+            long lineNumber = lines.getLineNumber();
+            if (lines.isTooLong()) {
+                return new Row(lineNumber, null, "Line longer than " + lines.getMaxLength() + " characters");
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                return new Row(lineNumber, split(line), null);
+            } catch (IllegalArgumentException e) {
+                return new Row(lineNumber, null, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private OrderItemDto item(Row row, List<String> errors) {
+        return new OrderItemDto(field(row, PRODUCT_ID), field(row, PRODUCT_NAME), field(row, DESCRIPTION),
+                parseQuantity(row, errors), parseMoney(row, PRICE, errors));
+    }
+
+    // Blank and missing fields are null, left to the bean validation of the order
+    private String field(Row row, int column) {
+        int position = positions[column];
+        if (position < 0 || position >= row.fields().size()) {
+            return null;
+        }
+        String value = row.fields().get(position);
+        return value.isBlank() ? null : value;
+    }
+
+    private Money parseMoney(Row row, int column, List<String> errors) {
+        String value = field(row, column);
+        try {
+            return value == null ? null : Money.parse(value, field(row, CURRENCY));
+        } catch (IllegalArgumentException e) {
+            errors.add("line " + row.line() + ": invalid " + COLUMNS[column] + " '" + value + "'");
+            return null;
+        }
+    }
+
+    // 0 when missing, rejected by the validation of the item
+    private int parseQuantity(Row row, List<String> errors) {
+        String value = field(row, QUANTITY);
+        try {
+            return value == null ? 0 : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            errors.add("line " + row.line() + ": invalid quantity '" + value + "'");
+            return 0;
+        }
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        while (true) {
+            field.setLength(0);
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= line.length()) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < line.length() && line.charAt(i) != ',') {
+                    throw new IllegalArgumentException("Unexpected character after quoted field");
+                }
+            } else {
+                int end = line.indexOf(',', i);
+                end = end < 0 ? line.length() : end;
+                field.append(line, i, end);
+                i = end;
+            }
+            fields.add(field.toString());
+            if (i >= line.length()) {
+                return fields;
+            }
+            i++;
+        }
+    }
+
+    private record Row(long line, List<String> fields, String error) {
+    }
+}
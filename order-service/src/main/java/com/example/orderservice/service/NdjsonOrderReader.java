@@ -0,0 +1,43 @@
+package com.example.orderservice.service;
+
+import com.example.common.common_dto.OrderEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.util.List;
+
+// One OrderEvent JSON object per line; blank lines are skipped
+class NdjsonOrderReader implements OrderImportReader {
+    private final BoundedLineReader lines;
+    private final ObjectReader orderReader;
+
+    NdjsonOrderReader(BoundedLineReader lines, ObjectMapper objectMapper) {
+        this.lines = lines;
+        this.orderReader = objectMapper.readerFor(OrderEvent.class);
+    }
+
+    @Override
+    public ImportedOrder next() throws IOException {
+        String line;
+        while ((line = lines.readLine()) != null) {
+            long lineNumber = lines.getLineNumber();
+            if (lines.isTooLong()) {
+                return ImportedOrder.invalid(lineNumber, "Line longer than " + lines.getMaxLength() + " characters");
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                OrderEvent order = orderReader.readValue(line);
+                return order == null
+                        ? ImportedOrder.invalid(lineNumber, "Order is required")
+                        : new ImportedOrder(lineNumber, order, List.of());
+            } catch (JsonProcessingException e) {
+                return ImportedOrder.invalid(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+}
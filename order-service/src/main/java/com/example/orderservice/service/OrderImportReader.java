@@ -0,0 +1,26 @@
+package com.example.orderservice.service;
+
+import com.example.common.common_dto.OrderEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+// Pulls one order at a time from an upload; nothing beyond the current order is held
+interface OrderImportReader {
+
+    /**
+     * @return the next order, or null at the end of the input
+     */
+    ImportedOrder next() throws IOException;
+
+    /**
+     * An order as parsed from the upload, starting at the given line. The order is null when
+     * the line could not be parsed at all; errors holds the parse problems.
+     */
+    record ImportedOrder(long line, OrderEvent order, List<String> errors) {
+
+        static ImportedOrder invalid(long line, String error) {
+            return new ImportedOrder(line, null, List.of(error));
+        }
+    }
+}
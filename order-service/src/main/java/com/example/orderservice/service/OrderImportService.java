@@ -0,0 +1,181 @@
+package com.example.orderservice.service;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.orderservice.dto.ImportLineResult;
+import com.example.orderservice.dto.ImportProgress;
+import com.example.orderservice.dto.OrderResult;
+import com.example.orderservice.kafka.OrderProducer;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk import of order files. The upload is read one order at a time on the request thread,
+ * and each valid order is handed to the producer without waiting for its ack. At most
+ * max-in-flight orders of an import are unacknowledged at once; when that window is full the
+ * thread stops reading, so the client's upload stalls on TCP flow control instead of piling up
+ * in memory. Rejected and failed orders are written to the response as they are known, with
+ * running totals every progress-interval orders, so memory use does not depend on file size.
+ */
+@Service
+public class OrderImportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderImportService.class);
+    private static final int OUTPUT_BUFFER_SIZE = 8192;
+    private final OrderService orderService;
+    private final OrderProducer orderProducer;
+    private final ObjectMapper objectMapper;
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    @Value("${order.import.max-in-flight:5000}")
+    private int maxInFlight;
+
+    // How long an order may wait for a slot in the shared producer window before it counts as failed
+    @Value("${order.import.backpressure-timeout-ms:60000}")
+    private long backpressureTimeoutMs;
+
+    @Value("${order.import.max-line-length:65536}")
+    private int maxLineLength;
+
+    @Value("${order.import.max-items-per-order:1000}")
+    private int maxItemsPerOrder;
+
+    @Value("${order.import.progress-interval:10000}")
+    private int progressInterval;
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    public OrderImportService(OrderService orderService, OrderProducer orderProducer, ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.orderProducer = orderProducer;
+        this.objectMapper = objectMapper;
+        this.acceptedCounter = importCounter(meterRegistry, "accepted");
+        this.rejectedCounter = importCounter(meterRegistry, "rejected");
+        this.failedCounter = importCounter(meterRegistry, "failed");
+    }
+
+    public ImportProgress importOrders(Format format, InputStream in, OutputStream out) throws IOException {
+        BoundedLineReader lines = new BoundedLineReader(new InputStreamReader(in, StandardCharsets.UTF_8), maxLineLength);
+        OrderImportReader reader = format == Format.CSV
+                ? new CsvOrderReader(lines, maxItemsPerOrder)
+                : new NdjsonOrderReader(lines, objectMapper);
+        ObjectWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        BufferedOutputStream buffered = new BufferedOutputStream(out, OUTPUT_BUFFER_SIZE);
+
+        Semaphore window = new Semaphore(maxInFlight);
+        // Completed by producer threads, written out by the request thread
+        Queue<ImportLineResult> failures = new ConcurrentLinkedQueue<>();
+        AtomicLong accepted = new AtomicLong();
+        long orders = 0;
+        long rejected = 0;
+        long failed = 0;
+        try {
+            OrderImportReader.ImportedOrder imported;
+            while ((imported = reader.next()) != null) {
+                orders++;
+                OrderEvent order = imported.order();
+                List<String> errors = imported.errors();
+                if (order != null) {
+                    errors = new ArrayList<>(errors);
+                    errors.addAll(orderService.prepare(order));
+                }
+                boolean written = false;
+                if (errors.isEmpty()) {
+                    window.acquire();
+                    publish(imported.line(), order, window, accepted, failures);
+                } else {
+                    rejected++;
+                    rejectedCounter.increment();
+                    write(writer, buffered, new ImportLineResult(imported.line(),
+                            order == null ? null : order.getOrderId(), OrderResult.Status.REJECTED, errors));
+                    written = true;
+                }
+                ImportLineResult failure;
+                while ((failure = failures.poll()) != null) {
+                    failed++;
+                    write(writer, buffered, failure);
+                    written = true;
+                }
+                if (orders % progressInterval == 0) {
+                    write(writer, buffered, new ImportProgress(orders, accepted.get(), rejected, failed, false));
+                    written = true;
+                }
+                if (written) {
+                    buffered.flush();
+                }
+            }
+            // Every order of the import acknowledged or failed
+            window.acquire(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Order import interrupted after " + orders + " orders");
+        }
+        ImportLineResult failure;
+        while ((failure = failures.poll()) != null) {
+            failed++;
+            write(writer, buffered, failure);
+        }
+        ImportProgress result = new ImportProgress(orders, accepted.get(), rejected, failed, true);
+        write(writer, buffered, result);
+        buffered.flush();
+        LOGGER.info("Imported {} orders: {} accepted, {} rejected, {} failed",
+                orders, result.accepted(), rejected, failed);
+        return result;
+    }
+
+    private void publish(long line, OrderEvent order, Semaphore window, AtomicLong accepted,
+                         Queue<ImportLineResult> failures) {
+        orderProducer.send(order, order.getOrderId(), backpressureTimeoutMs).whenComplete((sendResult, e) -> {
+            if (e == null) {
+                accepted.incrementAndGet();
+                acceptedCounter.increment();
+            } else {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                failedCounter.increment();
+                failures.add(new ImportLineResult(line, order.getOrderId(), OrderResult.Status.FAILED,
+                        List.of(String.valueOf(cause.getMessage()))));
+            }
+            window.release();
+        });
+    }
+
+    private static void write(ObjectWriter writer, OutputStream out, Object value) throws IOException {
+        writer.writeValue(out, value);
+        out.write('\n');
+    }
+
+    private static Counter importCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("order.import.orders")
+                .description("Orders read from bulk imports")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
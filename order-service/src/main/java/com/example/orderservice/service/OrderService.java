@@ -0,0 +1,108 @@
+package com.example.orderservice.service;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.orderservice.dto.BatchResult;
+import com.example.orderservice.dto.OrderResult;
+import com.example.orderservice.kafka.OrderProducer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Order intake: validate, stamp and publish. Nothing is stored here; an order counts as
+ * accepted once the broker acknowledged it on the orders topic (acks=all), which is when the
+ * returned futures complete.
+ */
+@Service
+public class OrderService {
+    private static final String INITIAL_STATUS = "CREATED";
+    private final OrderProducer orderProducer;
+    private final Validator validator;
+
+    @Value("${order.intake.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    public OrderService(OrderProducer orderProducer, Validator validator) {
+        this.orderProducer = orderProducer;
+        this.validator = validator;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public CompletableFuture<OrderResult> submit(OrderEvent order, String correlationId) {
+        List<String> errors = prepare(order);
+        if (!errors.isEmpty()) {
+            return CompletableFuture.completedFuture(OrderResult.rejected(0, order.getOrderId(), errors));
+        }
+        return publish(0, order, correlationId);
+    }
+
+    /**
+     * Publishes the valid orders of the batch concurrently; invalid ones are reported without
+     * stopping the rest. Each order carries its own orderId as correlation id.
+     */
+    public CompletableFuture<BatchResult> submitAll(List<OrderEvent> orders) {
+        List<CompletableFuture<OrderResult>> pending = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            OrderEvent order = orders.get(i);
+            if (order == null) {
+                pending.add(CompletableFuture.completedFuture(
+                        OrderResult.rejected(i, null, List.of("Order is required"))));
+                continue;
+            }
+            List<String> errors = prepare(order);
+            pending.add(errors.isEmpty()
+                    ? publish(i, order, order.getOrderId())
+                    : CompletableFuture.completedFuture(OrderResult.rejected(i, order.getOrderId(), errors)));
+        }
+        return CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new))
+                .thenApply(done -> BatchResult.of(pending.stream().map(CompletableFuture::join).toList()));
+    }
+
+    /**
+     * Sets the server-assigned fields (orderId if missing, status, createdAt, totalAmount from
+     * the items if missing) and checks the OrderEvent/OrderItemDto constraints.
+     *
+     * @return the violations as "property: message", empty if the order is valid
+     */
+    public List<String> prepare(OrderEvent order) {
+        if (order.getOrderId() == null || order.getOrderId().isBlank()) {
+            order.setOrderId(UUID.randomUUID().toString());
+        }
+        order.setStatus(INITIAL_STATUS);
+        order.setCreatedAt(System.currentTimeMillis());
+        List<String> errors = new ArrayList<>();
+        if (order.getTotalAmount() == null) {
+            try {
+                order.setTotalAmount(order.itemsTotal());
+            } catch (ArithmeticException | IllegalArgumentException e) {
+                errors.add("items: " + e.getMessage());
+            }
+        }
+        for (ConstraintViolation<OrderEvent> violation : validator.validate(order)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        return errors;
+    }
+
+    private CompletableFuture<OrderResult> publish(int index, OrderEvent order, String correlationId) {
+        return orderProducer.send(order, correlationId).handle((sendResult, e) -> {
+            if (e != null) {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                return OrderResult.failed(index, order.getOrderId(), cause.getMessage());
+            }
+            RecordMetadata metadata = sendResult.getRecordMetadata();
+            return OrderResult.accepted(index, order.getOrderId(), metadata.partition(), metadata.offset());
+        });
+    }
+}
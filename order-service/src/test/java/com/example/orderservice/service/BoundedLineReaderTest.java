@@ -0,0 +1,66 @@
+package com.example.orderservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedLineReaderTest {
+
+    @Test
+    void splitsOnLfAndCrlf() throws IOException {
+        BoundedLineReader lines = new BoundedLineReader(new StringReader("a\r\nb\n\r\nc"), 100);
+
+        assertThat(lines.readLine()).isEqualTo("a");
+        assertThat(lines.readLine()).isEqualTo("b");
+        assertThat(lines.readLine()).isEmpty();
+        assertThat(lines.readLine()).isEqualTo("c");
+        assertThat(lines.getLineNumber()).isEqualTo(4);
+        assertThat(lines.readLine()).isNull();
+    }
+
+    @Test
+    void endsWithoutAnEmptyLineAfterTheLastTerminator() throws IOException {
+        BoundedLineReader lines = new BoundedLineReader(new StringReader("a\r\n"), 100);
+
+        assertThat(lines.readLine()).isEqualTo("a");
+        assertThat(lines.readLine()).isNull();
+        assertThat(new BoundedLineReader(new StringReader(""), 100).readLine()).isNull();
+    }
+
+    @Test
+    void cutsALineOverTheLimitAndCarriesOn() throws IOException {
+        String longLine = "x".repeat(20_000);
+        BoundedLineReader lines = new BoundedLineReader(new StringReader("ok\n" + longLine + "\r\nnext\n"), 10);
+
+        assertThat(lines.readLine()).isEqualTo("ok");
+        assertThat(lines.isTooLong()).isFalse();
+        assertThat(lines.readLine()).isEqualTo("x".repeat(10));
+        assertThat(lines.isTooLong()).isTrue();
+        assertThat(lines.readLine()).isEqualTo("next");
+        assertThat(lines.isTooLong()).isFalse();
+        assertThat(lines.getLineNumber()).isEqualTo(3);
+    }
+
+    @Test
+    void doesNotCountTheCarriageReturnOfCrlf() throws IOException {
+        BoundedLineReader lines = new BoundedLineReader(new StringReader("abc\r\nabcd\r\n"), 3);
+
+        assertThat(lines.readLine()).isEqualTo("abc");
+        assertThat(lines.isTooLong()).isFalse();
+        assertThat(lines.readLine()).isEqualTo("abc");
+        assertThat(lines.isTooLong()).isTrue();
+    }
+
+    @Test
+    void readsLinesLongerThanItsBuffer() throws IOException {
+        String line = "y".repeat(20_000);
+        BoundedLineReader lines = new BoundedLineReader(new StringReader(line + "\r\n" + line), 20_000);
+
+        assertThat(lines.readLine()).isEqualTo(line);
+        assertThat(lines.isTooLong()).isFalse();
+        assertThat(lines.readLine()).isEqualTo(line);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.orderservice.service;
+
+import com.example.common.money.Money;
+import com.example.orderservice.service.OrderImportReader.ImportedOrder;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvOrderReaderTest {
+    private static final String HEADER = "orderId,customerId,customerName,customerEmail,shippingAddress,totalAmount,"
+            + "productId,productName,quantity,price,currency";
+
+    @Test
+    void splitsQuotedFields() {
+        assertThat(CsvOrderReader.split("a,\"b, c\",\"say \"\"hi\"\"\",,\"\""))
+                .containsExactly("a", "b, c", "say \"hi\"", "", "");
+    }
+
+    @Test
+    void readsQuotedCommasAndQuotes() throws IOException {
+        List<ImportedOrder> orders = readAll(HEADER + "\n"
+                + "o1,c1,\"Doe, Jane\",jane@example.com,\"1 Main St, Apt \"\"B\"\"\",59.98,"
+                + "p1,\"Mug, \"\"large\"\"\",2,29.99,EUR\n", 1000);
+
+        assertThat(orders).hasSize(1);
+        ImportedOrder imported = orders.get(0);
+        assertThat(imported.errors()).isEmpty();
+        assertThat(imported.order().getCustomerName()).isEqualTo("Doe, Jane");
+        assertThat(imported.order().getShippingAddress()).isEqualTo("1 Main St, Apt \"B\"");
+        assertThat(imported.order().getTotalAmount()).isEqualTo(Money.ofMinor(5998, "EUR"));
+        assertThat(imported.order().getItems().get(0).getProductName()).isEqualTo("Mug, \"large\"");
+        assertThat(imported.order().getItems().get(0).getPrice()).isEqualTo(Money.ofMinor(2999, "EUR"));
+    }
+
+    @Test
+    void readsCrlfAndGroupsItemsByOrderId() throws IOException {
+        List<ImportedOrder> orders = readAll(HEADER + "\r\n"
+                + "o1,c1,Jane,jane@example.com,1 Main St,40.00,p1,Mug,1,10.00,\r\n"
+                + "o1,,,,,,p2,Plate,3,10.00,\r\n"
+                + "\r\n"
+                + "o2,c2,John,john@example.com,2 Main St,5.00,p3,Spoon,1,5.00,USD\r\n", 1000);
+
+        assertThat(orders).extracting(ImportedOrder::line).containsExactly(2L, 5L);
+        assertThat(orders.get(0).order().getItems()).extracting("productId").containsExactly("p1", "p2");
+        assertThat(orders.get(0).order().getItems().get(1).getQuantity()).isEqualTo(3);
+        assertThat(orders.get(1).order().getOrderId()).isEqualTo("o2");
+        assertThat(orders.get(1).order().getCustomerEmail()).isEqualTo("john@example.com");
+        assertThat(orders).allSatisfy(order -> assertThat(order.errors()).isEmpty());
+    }
+
+    @Test
+    void reportsABadLineAndImportsTheLinesAfterIt() throws IOException {
+        List<ImportedOrder> orders = readAll(HEADER + "\n"
+                + "o1,c1,Jane,jane@example.com,1 Main St,10.00,p1,Mug,1,10.00,\n"
+                + "o2,c2,\"John,john@example.com,2 Main St,10.00,p1,Mug,1,10.00,\n"
+                + "o3,c3,Ann,ann@example.com,3 Main St,abc,p1,Mug,1,10.00,\n"
+                + "o4,c4,Bob,bob@example.com,4 Main St,10.00,p1,Mug,1,10.00,\n", 1000);
+
+        assertThat(orders).extracting(ImportedOrder::line).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(orders.get(1).order()).isNull();
+        assertThat(orders.get(1).errors()).containsExactly("Unterminated quoted field");
+        assertThat(orders.get(2).errors()).containsExactly("line 4: invalid totalAmount 'abc'");
+        assertThat(orders.get(3).order().getOrderId()).isEqualTo("o4");
+        assertThat(orders.get(3).errors()).isEmpty();
+    }
+
+    @Test
+    void reportsALineOverTheLimitAndImportsTheLinesAfterIt() throws IOException {
+        String row = "o1,c1,Jane,jane@example.com,1 Main St,10.00,p1,Mug,1,10.00,";
+        List<ImportedOrder> orders = readAll(HEADER + "\n"
+                + row + "\n"
+                + "o2,c2,John,john@example.com," + "x".repeat(500) + ",10.00,p1,Mug,1,10.00,\n"
+                + row.replace("o1", "o3") + "\n", HEADER.length());
+
+        assertThat(orders).extracting(ImportedOrder::line).containsExactly(2L, 3L, 4L);
+        assertThat(orders.get(1).order()).isNull();
+        assertThat(orders.get(1).errors()).containsExactly("Line longer than " + HEADER.length() + " characters");
+        assertThat(orders.get(2).order().getOrderId()).isEqualTo("o3");
+    }
+
+    @Test
+    void stopsAtAHeaderWithoutTheRequiredColumns() throws IOException {
+        List<ImportedOrder> orders = readAll("orderId,customerId\no1,c1\n", 1000);
+
+        assertThat(orders).hasSize(1);
+        assertThat(orders.get(0).errors().get(0)).startsWith("CSV header is missing columns");
+    }
+
+    private static List<ImportedOrder> readAll(String csv, int maxLineLength) throws IOException {
+        CsvOrderReader reader = new CsvOrderReader(new BoundedLineReader(new StringReader(csv), maxLineLength), 100);
+        List<ImportedOrder> orders = new ArrayList<>();
+        ImportedOrder order;
+        while ((order = reader.next()) != null) {
+            orders.add(order);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.orderservice.service;
+
+import com.example.common.money.Money;
+import com.example.orderservice.service.OrderImportReader.ImportedOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NdjsonOrderReaderTest {
+
+    @Test
+    void readsOneOrderPerLineAcrossCrlfAndBlankLines() throws IOException {
+        List<ImportedOrder> orders = readAll("{\"orderId\":\"o1\",\"totalAmount\":\"59.98\"}\r\n"
+                + "\r\n"
+                + "{\"orderId\":\"o2\",\"shippingAddress\":\"1 Main St, \\\"B\\\"\"}\n", 1000);
+
+        assertThat(orders).extracting(ImportedOrder::line).containsExactly(1L, 3L);
+        assertThat(orders.get(0).order().getTotalAmount()).isEqualTo(Money.ofMinor(5998, "USD"));
+        assertThat(orders.get(1).order().getShippingAddress()).isEqualTo("1 Main St, \"B\"");
+    }
+
+    @Test
+    void reportsABadLineAndImportsTheLinesAfterIt() throws IOException {
+        List<ImportedOrder> orders = readAll("{\"orderId\":\"o1\"}\n"
+                + "{\"orderId\":\n"
+                + "null\n"
+                + "{\"orderId\":\"o4\"}\n", 1000);
+
+        assertThat(orders).extracting(ImportedOrder::line).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(orders.get(1).order()).isNull();
+        assertThat(orders.get(1).errors().get(0)).startsWith("Malformed JSON");
+        assertThat(orders.get(2).errors()).containsExactly("Order is required");
+        assertThat(orders.get(3).order().getOrderId()).isEqualTo("o4");
+    }
+
+    @Test
+    void reportsALineOverTheLimitAndImportsTheLinesAfterIt() throws IOException {
+        List<ImportedOrder> orders = readAll("{\"orderId\":\"o1\"}\n"
+                + "{\"orderId\":\"o2\",\"shippingAddress\":\"" + "x".repeat(500) + "\"}\n"
+                + "{\"orderId\":\"o3\"}\n", 40);
+
+        assertThat(orders).extracting(ImportedOrder::line).containsExactly(1L, 2L, 3L);
+        assertThat(orders.get(1).errors()).containsExactly("Line longer than 40 characters");
+        assertThat(orders.get(2).order().getOrderId()).isEqualTo("o3");
+    }
+
+    private static List<ImportedOrder> readAll(String ndjson, int maxLineLength) throws IOException {
+        NdjsonOrderReader reader = new NdjsonOrderReader(new BoundedLineReader(new StringReader(ndjson), maxLineLength),
+                new ObjectMapper());
+        List<ImportedOrder> orders = new ArrayList<>();
+        ImportedOrder order;
+        while ((order = reader.next()) != null) {
+            orders.add(order);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.paymentservice.config;
+
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@EnableCaching
+@Configuration
+public class CacheConfig {
+
+    public static final String PAYMENTS_BY_PAYMENT_ID = "paymentsByPaymentId";
+    public static final String PAYMENTS_BY_ORDER_ID = "paymentsByOrderId";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${payment.cache.spec:maximumSize=100000,expireAfterWrite=60s,recordStats}")
+                                     String spec) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(PAYMENTS_BY_PAYMENT_ID, PAYMENTS_BY_ORDER_ID);
+        caffeineCacheManager.setCaffeineSpec(CaffeineSpec.parse(spec));
+        caffeineCacheManager.setAllowNullValues(false);
+        // Puts and evictions issued inside a transaction are applied only after it commits,
+        // so a rolled back payment (e.g. a duplicate order) never reaches the cache
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.paymentservice.config;
+
+import com.example.paymentservice.gateway.AuthorizationResult;
+import com.example.paymentservice.gateway.CircuitBreaker;
+import com.example.paymentservice.gateway.HttpPaymentGateway;
+import com.example.paymentservice.gateway.PaymentGateway;
+import com.example.paymentservice.gateway.ResilientPaymentGateway;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class GatewayConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "payment.gateway.enabled", havingValue = "true")
+    public PaymentGateway paymentGateway(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                         @Value("${payment.gateway.url:http://localhost:8089}") String url,
+                                         @Value("${payment.gateway.connect-timeout-ms:1000}") long connectTimeoutMs,
+                                         @Value("${payment.gateway.attempt-timeout-ms:1000}") long attemptTimeoutMs,
+                                         @Value("${payment.gateway.call-timeout-ms:3000}") long callTimeoutMs,
+                                         @Value("${payment.gateway.max-concurrent:256}") int maxConcurrent,
+                                         @Value("${payment.gateway.max-queued:2048}") int maxQueued,
+                                         @Value("${payment.gateway.hedge-delay-ms:150}") long hedgeDelayMs,
+                                         @Value("${payment.gateway.max-attempts:2}") int maxAttempts,
+                                         @Value("${payment.gateway.circuit.window-size:100}") int windowSize,
+                                         @Value("${payment.gateway.circuit.minimum-calls:20}") int minimumCalls,
+                                         @Value("${payment.gateway.circuit.failure-rate:0.5}") double failureRate,
+                                         @Value("${payment.gateway.circuit.open-ms:5000}") long openMs,
+                                         @Value("${payment.gateway.circuit.half-open-calls:5}") int halfOpenCalls) {
+        // Response handling is tiny, virtual threads keep it off the common pool
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        PaymentGateway http = new HttpPaymentGateway(httpClient, objectMapper, url, Duration.ofMillis(attemptTimeoutMs));
+        CircuitBreaker circuitBreaker = new CircuitBreaker(windowSize, minimumCalls, failureRate, openMs, halfOpenCalls);
+        return new ResilientPaymentGateway(http, circuitBreaker, maxConcurrent, maxQueued, callTimeoutMs,
+                hedgeDelayMs, maxAttempts, meterRegistry);
+    }
+
+    // Without a gateway every order the risk engine lets through is approved, as before
+    @Bean
+    @ConditionalOnProperty(name = "payment.gateway.enabled", havingValue = "false", matchIfMissing = true)
+    public PaymentGateway approvingPaymentGateway() {
+        return request -> CompletableFuture.completedFuture(AuthorizationResult.approved(null));
+    }
+}
@@ -1,13 +1,18 @@
 package com.example.paymentservice.config;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
@@ -16,17 +21,77 @@ import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 
+import com.example.common.codec.EventDeserializer;
+import com.example.common.codec.EventSerializer;
 import com.example.common.common_dto.OrderEvent;
 import com.example.common.common_dto.PaymentEvent;
+import com.example.common.concurrent.KeyOrderedDispatcher;
+import com.example.common.constants.TopicConstants;
+import com.example.common.kafka.DeadLetterAdmin;
+import com.example.common.kafka.RetryRouter;
+import com.example.common.kafka.RetryTierListeners;
+import com.example.common.kafka.RetryTopics;
+import com.example.paymentservice.kafka.OrderRetryConsumer;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @EnableKafka
 @Configuration
 public class KafkaConfig {
+    private static final String GROUP_ID = "payment-group";
+
+    // Kafka client metrics (kafka.consumer.fetch.manager.records.lag per partition, kafka.producer.*)
+    private final MeterRegistry meterRegistry;
+
+    // record: one OrderEvent per listener call, up to max-in-flight of them waiting for the gateway,
+    // batch: every record of a poll in one call, parallel: every record of a poll handed off to
+    // virtual threads, ordered per key
+    @Value("${payment.consumer.mode:record}")
+    private String consumerMode;
+
+    // One listener container per partition of the orders topic
+    @Value("${payment.consumer.concurrency:3}")
+    private int concurrency;
+
+    @Value("${payment.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    // json or binary; consumers accept both, so producers can be switched one at a time
+    @Value("${payment.kafka.wire-format:json}")
+    private String wireFormat;
+
+    @Value("${payment.producer.linger-ms:20}")
+    private int lingerMs;
+
+    @Value("${payment.producer.batch-size:65536}")
+    private int producerBatchSize;
+
+    @Value("${payment.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${payment.producer.buffer-memory:33554432}")
+    private long bufferMemory;
+
+    @Value("${payment.producer.max-block-ms:5000}")
+    private long maxBlockMs;
+
+    @Value("${payment.producer.request-timeout-ms:5000}")
+    private int requestTimeoutMs;
+
+    @Value("${payment.producer.delivery-timeout-ms:15000}")
+    private int deliveryTimeoutMs;
+
+    public KafkaConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
 
     // Topic Configuration
     @Bean
@@ -37,14 +102,49 @@ public class KafkaConfig {
                 .build();
     }
 
+    // Failed order events: orders.payment-group-retry-0..N-1 with growing delays, then
+    // orders.payment-group-dlt
+    @Bean
+    public RetryTopics orderRetryTopics(@Value("${payment.retry.tiers:3}") int tiers,
+                                        @Value("${payment.retry.initial-delay-ms:1000}") long initialDelayMs,
+                                        @Value("${payment.retry.multiplier:5}") double multiplier,
+                                        @Value("${payment.retry.max-delay-ms:60000}") long maxDelayMs) {
+        return new RetryTopics(GROUP_ID, tiers, initialDelayMs, multiplier, maxDelayMs);
+    }
+
+    @Bean
+    public KafkaAdmin.NewTopics orderRetryTopicsDeclaration(RetryTopics orderRetryTopics) {
+        List<NewTopic> topics = new ArrayList<>();
+        for (String retryTopic : orderRetryTopics.retryTopics(TopicConstants.ORDER_TOPIC)) {
+            topics.add(TopicBuilder.name(retryTopic).partitions(3).replicas(1).build());
+        }
+        topics.add(TopicBuilder.name(orderRetryTopics.dltTopic(TopicConstants.ORDER_TOPIC)).partitions(3).replicas(1).build());
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+    }
+
     // Producer Configuration
     @Bean
     public ProducerFactory<String, PaymentEvent> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        // The outbox relay sends whole batches at once, let the producer coalesce them
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, producerBatchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        // Idempotent producer: broker-side dedup of internal retries, ordering kept per partition
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        // Bounded client buffer, send() blocks at most max.block.ms once it is full
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        configProps.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeoutMs);
+        configProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, deliveryTimeoutMs);
+        DefaultKafkaProducerFactory<String, PaymentEvent> factory = new DefaultKafkaProducerFactory<>(configProps,
+                new StringSerializer(), new EventSerializer<PaymentEvent>(wireFormat));
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
@@ -52,26 +152,92 @@ public class KafkaConfig {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    // Republishes failed records to the retry topics and the DLT
+    @Bean
+    public KafkaTemplate<String, Object> retryKafkaTemplate() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(configProps,
+                new StringSerializer(), new EventSerializer<>(wireFormat));
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return new KafkaTemplate<>(factory);
+    }
+
+    @Bean
+    public RetryRouter retryRouter(KafkaTemplate<String, Object> retryKafkaTemplate, RetryTopics orderRetryTopics) {
+        return new RetryRouter(retryKafkaTemplate, orderRetryTopics, meterRegistry, "payment");
+    }
+
+    @Bean
+    public DeadLetterAdmin deadLetterAdmin(RetryTopics orderRetryTopics) {
+        return new DeadLetterAdmin("kafka:9092", "payment-dlt-replay", orderRetryTopics,
+                Set.of(TopicConstants.ORDER_TOPIC));
+    }
+
     // Consumer Configuration
     @Bean
     public ConsumerFactory<String, OrderEvent> consumerFactory() {
-        JsonDeserializer<OrderEvent> deserializer = new JsonDeserializer<>(OrderEvent.class);
-        deserializer.addTrustedPackages("*");
+        // Reads JSON and binary records alike, see WireFormat; a record it cannot read is handed on with
+        // the failure in a header and dead-lettered by RetryRouter instead of failing every poll
+        ErrorHandlingDeserializer<OrderEvent> deserializer =
+                new ErrorHandlingDeserializer<>(new EventDeserializer<>(OrderEvent.class));
 
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, "payment-group");
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, GROUP_ID);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, deserializer);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer);
+        DefaultKafkaConsumerFactory<String, OrderEvent> factory = new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(), deserializer);
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> kafkaListenerContainerFactory(
+            RetryRouter retryRouter) {
         ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
+        factory.setCommonErrorHandler(retryRouter.errorHandler());
+        factory.setBatchListener(!"record".equalsIgnoreCase(consumerMode));
+        if ("record".equalsIgnoreCase(consumerMode)) {
+            // Record listeners ack once the gateway answered and the payment is saved, off the consumer thread
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+            factory.getContainerProperties().setAsyncAcks(true);
+        }
         return factory;
     }
+
+    // Retry tiers: one record per call, manual acks so a record that is not due yet can be nacked
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> retryKafkaListenerContainerFactory(
+            RetryRouter retryRouter) {
+        ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
+        factory.setCommonErrorHandler(retryRouter.errorHandler());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    @Bean
+    public RetryTierListeners<OrderEvent> orderRetryListeners(
+            ConcurrentKafkaListenerContainerFactory<String, OrderEvent> retryKafkaListenerContainerFactory,
+            RetryTopics orderRetryTopics, OrderRetryConsumer orderRetryConsumer) {
+        return new RetryTierListeners<>(retryKafkaListenerContainerFactory,
+                orderRetryTopics.retryTopics(TopicConstants.ORDER_TOPIC), orderRetryConsumer::consume);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "payment.consumer.mode", havingValue = "parallel")
+    public KeyOrderedDispatcher orderDispatcher(@Value("${payment.consumer.max-in-flight:32}") int maxInFlight) {
+        return KeyOrderedDispatcher.virtualThreads(maxInFlight);
+    }
 }
@@ -0,0 +1,16 @@
+package com.example.paymentservice.config;
+
+import com.example.common.trace.SpanRecorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TracingConfig {
+
+    // Last N order flows that reached payment.acked, see /api/admin/flows
+    @Bean
+    public SpanRecorder spanRecorder(@Value("${payment.tracing.buffer-size:4096}") int bufferSize) {
+        return new SpanRecorder(bufferSize);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.paymentservice.controller;
+
+import com.example.common.kafka.DeadLetterAdmin;
+import com.example.common.kafka.DeadLetterRecord;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+// Orders this service gave up on (orders.payment-group-dlt), listed and replayed into its first retry tier
+@RestController
+@RequestMapping("/api/admin/dlt")
+public class DeadLetterController {
+    private static final int MAX_LIMIT = 10_000;
+    private final DeadLetterAdmin deadLetterAdmin;
+
+    public DeadLetterController(DeadLetterAdmin deadLetterAdmin) {
+        this.deadLetterAdmin = deadLetterAdmin;
+    }
+
+    @GetMapping("/{topic}")
+    public ResponseEntity<List<DeadLetterRecord>> inspect(@PathVariable String topic,
+                                                          @RequestParam(defaultValue = "100") int limit) {
+        if (!deadLetterAdmin.handles(topic)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(deadLetterAdmin.inspect(topic, Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+
+    @PostMapping("/{topic}/replay")
+    public ResponseEntity<Map<String, Integer>> replay(@PathVariable String topic,
+                                                       @RequestParam(defaultValue = "1000") int limit) {
+        if (!deadLetterAdmin.handles(topic)) {
+            return ResponseEntity.notFound().build();
+        }
+        int replayed = deadLetterAdmin.replay(topic, Math.max(1, Math.min(limit, MAX_LIMIT)));
+        return ResponseEntity.ok(Map.of("replayed", replayed));
+    }
+}
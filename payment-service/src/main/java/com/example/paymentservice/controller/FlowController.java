@@ -0,0 +1,25 @@
+package com.example.paymentservice.controller;
+
+import com.example.common.trace.FlowTrace;
+import com.example.common.trace.SpanRecorder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Slowest of the recently completed order flows, with the time spent before each hop
+@RestController
+@RequestMapping("/api/admin/flows")
+public class FlowController {
+    private static final int MAX_LIMIT = 1000;
+    private final SpanRecorder spanRecorder;
+
+    public FlowController(SpanRecorder spanRecorder) {
+        this.spanRecorder = spanRecorder;
+    }
+
+    @GetMapping("/slowest")
+    public ResponseEntity<List<FlowTrace>> slowest(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(spanRecorder.slowest(Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+}
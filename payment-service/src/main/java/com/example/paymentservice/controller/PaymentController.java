@@ -1,15 +1,22 @@
 package com.example.paymentservice.controller;
 
+import com.example.common.common_dto.CursorPage;
 import com.example.paymentservice.model.Payment;
 import com.example.paymentservice.service.PaymentService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/payments")
 public class PaymentController {
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
     private final PaymentService paymentService;
 
     public PaymentController(PaymentService paymentService) {
@@ -34,9 +41,26 @@ public class PaymentController {
         return ResponseEntity.ok(payments);
     }
 
-    @GetMapping
-    public ResponseEntity<List<Payment>> getAllPayments() {
-        List<Payment> payments = paymentService.getAllPayments();
-        return ResponseEntity.ok(payments);
+    // The bare collection is the first keyset page too; the whole table never goes into one response
+    @GetMapping({"", "/page"})
+    public ResponseEntity<CursorPage<Payment>> getPaymentsPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(paymentService.getPaymentsPage(after, pageSize, status, customerId, from, to));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> paymentService.exportPayments(status, customerId, from, to, out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.example.paymentservice.gateway;
+
+import com.example.common.money.Money;
+
+/**
+ * @param idempotencyKey the same for every attempt at the same order, so the gateway answers a
+ *                       retried or hedged call with the original result instead of charging twice
+ */
+public record AuthorizationRequest(String idempotencyKey, String orderId, String paymentId, String customerId,
+                                   Money amount, String paymentMethod) {
+}
@@ -0,0 +1,13 @@
+package com.example.paymentservice.gateway;
+
+// The gateway's answer; reason is set for declines
+public record AuthorizationResult(boolean approved, String reference, String reason) {
+
+    public static AuthorizationResult approved(String reference) {
+        return new AuthorizationResult(true, reference, null);
+    }
+
+    public static AuthorizationResult declined(String reference, String reason) {
+        return new AuthorizationResult(false, reference, reason);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.paymentservice.gateway;
+
+import java.util.Arrays;
+
+/**
+ * Count-based circuit breaker. Outcomes of the last window-size calls are kept in a ring; once
+ * at least minimum-calls are in it and the failure rate reaches the threshold, the breaker opens
+ * and rejects calls for open-ms. After that up to half-open-calls trial calls are let through:
+ * if they all succeed it closes again, any failure reopens it. State changes are rare and the
+ * critical sections tiny, so a monitor is enough.
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final boolean[] failures;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private State state = State.CLOSED;
+    private int position;
+    private int recorded;
+    private int failureCount;
+    private long openedAt;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long openMs, int halfOpenCalls) {
+        this.failures = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openMs * 1_000_000L;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= halfOpenCalls) {
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++trialsSucceeded >= halfOpenCalls) {
+                reset();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minimumCalls
+                && failureCount >= failureRateThreshold * recorded) {
+            open();
+        }
+    }
+
+    // Cheap pre-check that does not use up a half-open trial
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && System.nanoTime() - openedAt < openNanos;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == failures.length) {
+            if (failures[position]) {
+                failureCount--;
+            }
+        } else {
+            recorded++;
+        }
+        failures[position] = failure;
+        if (failure) {
+            failureCount++;
+        }
+        position = (position + 1) % failures.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void reset() {
+        state = State.CLOSED;
+        position = 0;
+        recorded = 0;
+        failureCount = 0;
+        Arrays.fill(failures, false);
+    }
+}
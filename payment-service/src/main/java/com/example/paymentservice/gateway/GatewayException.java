@@ -0,0 +1,13 @@
+package com.example.paymentservice.gateway;
+
+// No answer from the gateway (error, timeout, circuit open, bulkhead full); the order can be retried later
+public class GatewayException extends RuntimeException {
+
+    public GatewayException(String message) {
+        super(message);
+    }
+
+    public GatewayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.paymentservice.gateway;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * JSON over HTTP: POST {baseUrl}/authorize with an Idempotency-Key header, answered with an
+ * AuthorizationResult body. Uses HttpClient.sendAsync, so no thread waits for the response;
+ * 5xx and 429 answers and transport errors fail the future with {@link GatewayException}.
+ */
+public class HttpPaymentGateway implements PaymentGateway {
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI authorizeUri;
+    private final Duration timeout;
+
+    public HttpPaymentGateway(HttpClient httpClient, ObjectMapper objectMapper, String baseUrl, Duration timeout) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.authorizeUri = URI.create(baseUrl.replaceAll("/+$", "") + "/authorize");
+        this.timeout = timeout;
+    }
+
+    @Override
+    public CompletableFuture<AuthorizationResult> authorize(AuthorizationRequest request) {
+        HttpRequest httpRequest;
+        try {
+            httpRequest = HttpRequest.newBuilder(authorizeUri)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .header("Idempotency-Key", request.idempotencyKey())
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, e) -> {
+                    if (e != null) {
+                        throw new GatewayException("Gateway call for order " + request.orderId() + " failed", e);
+                    }
+                    return parse(request, response);
+                });
+    }
+
+    private AuthorizationResult parse(AuthorizationRequest request, HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        if (status >= 500 || status == 429) {
+            throw new GatewayException("Gateway answered " + status + " for order " + request.orderId());
+        }
+        if (status >= 300) {
+            // A request the gateway refuses will not get better by retrying; treat it as a decline
+            return AuthorizationResult.declined(null, "HTTP " + status);
+        }
+        try {
+            return objectMapper.readValue(response.body(), AuthorizationResult.class);
+        } catch (IOException e) {
+            throw new GatewayException("Unreadable gateway response for order " + request.orderId(), e);
+        }
+    }
+}
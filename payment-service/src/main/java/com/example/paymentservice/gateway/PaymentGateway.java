@@ -0,0 +1,13 @@
+package com.example.paymentservice.gateway;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Authorizes payments with an external gateway. Implementations must not block the caller;
+ * the future fails with {@link GatewayException} when no answer could be obtained, and
+ * completes normally for both approvals and declines.
+ */
+public interface PaymentGateway {
+
+    CompletableFuture<AuthorizationResult> authorize(AuthorizationRequest request);
+}
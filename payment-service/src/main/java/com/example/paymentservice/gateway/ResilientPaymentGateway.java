@@ -0,0 +1,242 @@
+package com.example.paymentservice.gateway;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wraps a gateway with the protections a slow or failing gateway needs, without blocking any
+ * caller thread:
+ * <ul>
+ *   <li>bulkhead: at most max-concurrent attempts on the wire; further calls wait in a queue of
+ *   max-queued and are rejected beyond that</li>
+ *   <li>circuit breaker over attempt outcomes; while open, calls fail immediately</li>
+ *   <li>call timeout covering queueing and all attempts</li>
+ *   <li>hedging: if the first attempt has not answered after hedge-delay-ms, a second one is sent
+ *   when a permit is free and nothing is queued, and the first answer wins</li>
+ *   <li>a failed attempt is retried right away while max-attempts (hedges included) allows</li>
+ * </ul>
+ * Attempts that lost the race are not cancelled but left to finish, bounded by the per-attempt
+ * timeout of the delegate, so the bulkhead always counts what is really outstanding.
+ */
+public class ResilientPaymentGateway implements PaymentGateway {
+    private final PaymentGateway delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore permits;
+    private final Queue<Call> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final int maxQueued;
+    private final int maxAttempts;
+    private final Executor hedgeDelay;
+    private final Executor callTimeout;
+    private final Timer approvedTimer;
+    private final Timer declinedTimer;
+    private final Timer failedTimer;
+    private final Counter hedgeCounter;
+    private final Counter retryCounter;
+    private final Counter bulkheadRejectedCounter;
+    private final Counter circuitRejectedCounter;
+    private final Counter timeoutCounter;
+
+    public ResilientPaymentGateway(PaymentGateway delegate, CircuitBreaker circuitBreaker, int maxConcurrent,
+                                   int maxQueued, long callTimeoutMs, long hedgeDelayMs, int maxAttempts,
+                                   MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxQueued = maxQueued;
+        this.maxAttempts = maxAttempts;
+        // Both only complete futures or send a request, so they can run on the shared delayer thread
+        this.hedgeDelay = hedgeDelayMs > 0
+                ? CompletableFuture.delayedExecutor(hedgeDelayMs, TimeUnit.MILLISECONDS, Runnable::run)
+                : null;
+        this.callTimeout = CompletableFuture.delayedExecutor(callTimeoutMs, TimeUnit.MILLISECONDS, Runnable::run);
+        this.approvedTimer = callTimer(meterRegistry, "approved");
+        this.declinedTimer = callTimer(meterRegistry, "declined");
+        this.failedTimer = callTimer(meterRegistry, "failed");
+        this.hedgeCounter = Counter.builder("payment.gateway.hedges")
+                .description("Extra attempts sent because the first one was slow")
+                .register(meterRegistry);
+        this.retryCounter = Counter.builder("payment.gateway.retries")
+                .description("Attempts sent because an earlier one failed")
+                .register(meterRegistry);
+        this.bulkheadRejectedCounter = rejectedCounter(meterRegistry, "bulkhead-full");
+        this.circuitRejectedCounter = rejectedCounter(meterRegistry, "circuit-open");
+        this.timeoutCounter = rejectedCounter(meterRegistry, "timeout");
+        Gauge.builder("payment.gateway.in-flight", () -> maxConcurrent - permits.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("payment.gateway.queued", queued, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("payment.gateway.circuit.state", () -> circuitBreaker.getState().ordinal())
+                .description("0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<AuthorizationResult> authorize(AuthorizationRequest request) {
+        if (circuitBreaker.isOpen()) {
+            circuitRejectedCounter.increment();
+            return CompletableFuture.failedFuture(new GatewayException("Gateway circuit open"));
+        }
+        Call call = new Call(request);
+        if (!admit(call)) {
+            bulkheadRejectedCounter.increment();
+            return CompletableFuture.failedFuture(new GatewayException("Gateway bulkhead full"));
+        }
+        callTimeout.execute(() -> {
+            if (call.result.completeExceptionally(new GatewayException("Gateway call for order "
+                    + request.orderId() + " timed out"))) {
+                timeoutCounter.increment();
+                if (waiting.remove(call)) {
+                    queued.decrementAndGet();
+                }
+            }
+        });
+        call.result.whenComplete((result, e) -> {
+            Timer timer = e != null ? failedTimer : result.approved() ? approvedTimer : declinedTimer;
+            timer.record(System.nanoTime() - call.startNanos, TimeUnit.NANOSECONDS);
+        });
+        return call.result;
+    }
+
+    private boolean admit(Call call) {
+        if (waiting.isEmpty() && permits.tryAcquire()) {
+            attempt(call);
+            return true;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return false;
+        }
+        waiting.add(call);
+        drain();
+        return true;
+    }
+
+    // Hands free permits to queued calls; re-entrant calls only flag another pass, so a run of
+    // attempts failing synchronously cannot grow the stack
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            while (!waiting.isEmpty() && permits.tryAcquire()) {
+                Call next = waiting.poll();
+                if (next == null) {
+                    permits.release();
+                    break;
+                }
+                queued.decrementAndGet();
+                attempt(next);
+            }
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void release() {
+        permits.release();
+        drain();
+    }
+
+    // Called holding a permit, which is given back once the attempt completed
+    private void attempt(Call call) {
+        if (call.result.isDone()) {
+            release();
+            return;
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            release();
+            circuitRejectedCounter.increment();
+            if (call.outstanding.get() == 0) {
+                call.result.completeExceptionally(new GatewayException("Gateway circuit open"));
+            }
+            return;
+        }
+        int number = call.attempts.incrementAndGet();
+        call.outstanding.incrementAndGet();
+        CompletableFuture<AuthorizationResult> attempt;
+        try {
+            attempt = delegate.authorize(call.request);
+        } catch (RuntimeException e) {
+            attempt = CompletableFuture.failedFuture(e);
+        }
+        attempt.whenComplete((result, e) -> {
+            release();
+            completed(call, result, e);
+        });
+        if (number == 1 && hedgeDelay != null && maxAttempts > 1) {
+            hedgeDelay.execute(() -> hedge(call));
+        }
+    }
+
+    private void hedge(Call call) {
+        if (call.result.isDone() || call.attempts.get() >= maxAttempts || !waiting.isEmpty()
+                || !permits.tryAcquire()) {
+            return;
+        }
+        hedgeCounter.increment();
+        attempt(call);
+    }
+
+    private void completed(Call call, AuthorizationResult result, Throwable e) {
+        call.outstanding.decrementAndGet();
+        if (e == null) {
+            circuitBreaker.onSuccess();
+            call.result.complete(result);
+            return;
+        }
+        circuitBreaker.onFailure();
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (call.result.isDone()) {
+            return;
+        }
+        if (call.attempts.get() < maxAttempts) {
+            retryCounter.increment();
+            if (admit(call)) {
+                return;
+            }
+        }
+        if (call.outstanding.get() == 0) {
+            call.result.completeExceptionally(cause instanceof GatewayException ? cause
+                    : new GatewayException("Gateway call for order " + call.request.orderId() + " failed", cause));
+        }
+    }
+
+    private static Timer callTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("payment.gateway.call")
+                .description("Authorization calls including queueing, hedges and retries")
+                .tag("result", result)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("payment.gateway.rejected")
+                .description("Authorization calls failed without an answer from the gateway")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static final class Call {
+        private final AuthorizationRequest request;
+        private final CompletableFuture<AuthorizationResult> result = new CompletableFuture<>();
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private Call(AuthorizationRequest request) {
+            this.request = request;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.paymentservice.gateway;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stand-in for the payment gateway, for load tests and development. Serves POST
+ * /authorize on its own port, one virtual thread per request. Latency is lognormal, fitted to
+ * median-ms and p99-ms; error-rate of the requests get a 503 and decline-rate of the rest are
+ * declined. Answers are remembered per Idempotency-Key, so retried and hedged calls see the
+ * first result, as they would from a real gateway.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.gateway.stub.enabled", havingValue = "true")
+public class StubGatewayServer implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StubGatewayServer.class);
+    // z-score of the 99th percentile of the standard normal distribution
+    private static final double Z_99 = 2.326;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, byte[]> answers;
+    private final int port;
+    private final double mu;
+    private final double sigma;
+    private final double errorRate;
+    private final double declineRate;
+    private HttpServer server;
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    public StubGatewayServer(ObjectMapper objectMapper,
+                             @Value("${payment.gateway.stub.port:8089}") int port,
+                             @Value("${payment.gateway.stub.median-ms:20}") double medianMs,
+                             @Value("${payment.gateway.stub.p99-ms:300}") double p99Ms,
+                             @Value("${payment.gateway.stub.error-rate:0.01}") double errorRate,
+                             @Value("${payment.gateway.stub.decline-rate:0.02}") double declineRate) {
+        if (medianMs <= 0 || p99Ms < medianMs) {
+            throw new IllegalArgumentException("Stub gateway needs 0 < median-ms <= p99-ms");
+        }
+        this.objectMapper = objectMapper;
+        this.answers = Caffeine.newBuilder().maximumSize(100_000).expireAfterWrite(10, TimeUnit.MINUTES).build();
+        this.port = port;
+        this.mu = Math.log(medianMs);
+        this.sigma = Math.log(p99Ms / medianMs) / Z_99;
+        this.errorRate = errorRate;
+        this.declineRate = declineRate;
+    }
+
+    @Override
+    public void start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start stub gateway on port " + port, e);
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/authorize", this::handle);
+        server.start();
+        running = true;
+        LOGGER.info("Stub payment gateway listening on port {} (median {} ms, sigma {}, error rate {}, decline rate {})",
+                port, Math.round(Math.exp(mu)), String.format("%.2f", sigma), errorRate, declineRate);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Up before the listener containers start calling it, down after they stopped
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 1000;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            AuthorizationRequest request = objectMapper.readValue(exchange.getRequestBody(), AuthorizationRequest.class);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Thread.sleep(Math.round(Math.exp(mu + sigma * random.nextGaussian())));
+            String key = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+            byte[] answer = key == null ? null : answers.getIfPresent(key);
+            if (answer == null) {
+                if (random.nextDouble() < errorRate) {
+                    exchange.sendResponseHeaders(503, -1);
+                    return;
+                }
+                AuthorizationResult result = random.nextDouble() < declineRate
+                        ? AuthorizationResult.declined(UUID.randomUUID().toString(), "Declined by stub gateway")
+                        : AuthorizationResult.approved(UUID.randomUUID().toString());
+                byte[] fresh = objectMapper.writeValueAsBytes(result);
+                // A concurrent attempt with the same key may have answered first; keep its result
+                answer = key == null ? fresh : answers.get(key, k -> fresh);
+            }
+            LOGGER.trace("Stub gateway answered order {}", request.orderId());
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, answer.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(answer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.paymentservice.kafka;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.kafka.RetryRouter;
+import com.example.common.trace.TraceContext;
+import com.example.paymentservice.service.OrderPaymentProcessor;
+import com.example.paymentservice.service.OrderPaymentProcessor.BatchOutcome;
+import com.example.paymentservice.service.OrderPaymentProcessor.TracedOrder;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Batch-mode counterpart of {@link OrderConsumer}: receives every record of a poll at once
+ * and persists the resulting payments in a single JDBC-batched transaction. Orders the payment
+ * gateway gave no answer for go straight to the retry topics. If the batch fails otherwise, the
+ * poll is processed record by record and only the failing records go to the retry topics.
+ */
+@Service
+@ConditionalOnProperty(name = "payment.consumer.mode", havingValue = "batch")
+public class OrderBatchConsumer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderBatchConsumer.class);
+    private final OrderPaymentProcessor orderPaymentProcessor;
+    private final RetryRouter retryRouter;
+
+    public OrderBatchConsumer(OrderPaymentProcessor orderPaymentProcessor, RetryRouter retryRouter) {
+        this.orderPaymentProcessor = orderPaymentProcessor;
+        this.retryRouter = retryRouter;
+    }
+
+    @KafkaListener(topics = "orders", groupId = "payment-group")
+    public void consume(List<ConsumerRecord<String, OrderEvent>> batch) {
+        List<ConsumerRecord<String, OrderEvent>> records = retryRouter.decodable(batch);
+        List<TracedOrder> orders = records.stream().map(OrderBatchConsumer::traced).toList();
+        BatchOutcome outcome;
+        try {
+            LOGGER.info("Order batch received in payment service => {} events", orders.size());
+
+            outcome = orderPaymentProcessor.processAll(orders);
+            LOGGER.info("Payments processed successfully for {} orders", outcome.created());
+        } catch (Exception e) {
+            LOGGER.error("Error processing payment batch of {} orders, isolating failed records", orders.size(), e);
+            processOneByOne(records);
+            return;
+        }
+        if (!outcome.unanswered().isEmpty()) {
+            retryUnanswered(records, outcome);
+        }
+    }
+
+    // Without asking the gateway again: it just failed for these, and would keep the listener waiting
+    private void retryUnanswered(List<ConsumerRecord<String, OrderEvent>> records, BatchOutcome outcome) {
+        List<CompletableFuture<?>> rerouted = new ArrayList<>();
+        for (ConsumerRecord<String, OrderEvent> record : records) {
+            RuntimeException failure = outcome.unanswered().get(record.value().getOrderId());
+            if (failure != null) {
+                rerouted.add(retryRouter.route(record, failure));
+            }
+        }
+        CompletableFuture.allOf(rerouted.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void processOneByOne(List<ConsumerRecord<String, OrderEvent>> records) {
+        List<CompletableFuture<?>> rerouted = new ArrayList<>();
+        for (ConsumerRecord<String, OrderEvent> record : records) {
+            try {
+                TracedOrder order = traced(record);
+                orderPaymentProcessor.process(order.event(), order.trace());
+            } catch (Exception e) {
+                LOGGER.error("Error processing payment for order: {}", record.value().getOrderId(), e);
+                rerouted.add(retryRouter.route(record, e));
+            }
+        }
+        // The poll is committed when this returns, so every failed record must be on a retry topic by then
+        CompletableFuture.allOf(rerouted.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private static TracedOrder traced(ConsumerRecord<String, OrderEvent> record) {
+        OrderEvent event = record.value();
+        return new TracedOrder(event, TraceContext.fromRecord(record, event.getOrderId(), TraceContext.ORDER_PUBLISHED)
+                .hop(TraceContext.PAYMENT_RECEIVED));
+    }
+}
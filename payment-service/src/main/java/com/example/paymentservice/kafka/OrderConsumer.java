@@ -1,54 +1,73 @@
-package com.example.paymentservice.kafka;
-
-import com.example.common.common_dto.OrderEvent;
-//import com.example.common.common_dto.PaymentEvent;
-import com.example.paymentservice.model.Payment;
-//import com.example.paymentservice.repository.PaymentRepository;
-import com.example.paymentservice.service.PaymentService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.stereotype.Service;
-
-import java.time.LocalDateTime;
-import java.util.UUID;
-
-@Service
-public class OrderConsumer {
-    private static final Logger LOGGER = LoggerFactory.getLogger(OrderConsumer.class);
-    private final PaymentService paymentService;
-
-    public OrderConsumer(PaymentService paymentService) {
-        this.paymentService = paymentService;
-    }
-
-    @KafkaListener(topics = "orders", groupId = "payment-group")
-    public void consume(OrderEvent event) {
-        try {
-            LOGGER.info("Order event received in payment service => {}", event);
-            
-            // Process payment
-            Payment payment = new Payment();
-            payment.setPaymentId(UUID.randomUUID().toString());
-            payment.setOrderId(event.getOrderId());
-            payment.setCustomerId(event.getCustomerId());
-            payment.setAmount(event.getTotalAmount());
-            payment.setPaymentMethod("CREDIT_CARD");
-            payment.setPaymentDate(LocalDateTime.now());
-            
-            // Simulate payment processing
-            if (event.getTotalAmount() > 0) {
-                payment.setStatus("COMPLETED");
-            } else {
-                payment.setStatus("FAILED");
-            }
-            
-            paymentService.processPayment(payment);
-            LOGGER.info("Payment processed successfully for order: {}", event.getOrderId());
-        } catch (Exception e) {
-            LOGGER.error("Error processing payment for order: {}", event.getOrderId(), e);
-            // In a real application, you might want to send to a dead letter queue
-            throw e;
-        }
-    }
-}
\ No newline at end of file
+package com.example.paymentservice.kafka;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.kafka.RetryRouter;
+import com.example.common.trace.TraceContext;
+import com.example.paymentservice.service.OrderPaymentProcessor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Semaphore;
+
+@Service
+@ConditionalOnProperty(name = "payment.consumer.mode", havingValue = "record", matchIfMissing = true)
+public class OrderConsumer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderConsumer.class);
+    private final OrderPaymentProcessor orderPaymentProcessor;
+    private final RetryRouter retryRouter;
+    // Orders waiting for the gateway or their save; the listener thread only blocks once all are taken
+    private final Semaphore inFlight;
+
+    public OrderConsumer(OrderPaymentProcessor orderPaymentProcessor, RetryRouter retryRouter,
+                         @Value("${payment.consumer.max-in-flight:32}") int maxInFlight) {
+        this.orderPaymentProcessor = orderPaymentProcessor;
+        this.retryRouter = retryRouter;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    // Acknowledged once the payment is saved; the container commits offsets once they are contiguous
+    @KafkaListener(topics = "orders", groupId = "payment-group")
+    public void consume(ConsumerRecord<String, OrderEvent> record, Acknowledgment acknowledgment) {
+        OrderEvent event = record.value();
+        inFlight.acquireUninterruptibly();
+        try {
+            LOGGER.info("Order event received in payment service => {}", event);
+            
+            // Process payment, duplicates of an already paid order are skipped
+            TraceContext trace = TraceContext.fromRecord(record, event.getOrderId(), TraceContext.ORDER_PUBLISHED)
+                    .hop(TraceContext.PAYMENT_RECEIVED);
+            orderPaymentProcessor.processAsync(event, trace).whenComplete((created, e) -> {
+                if (e == null) {
+                    if (created) {
+                        LOGGER.info("Payment processed successfully for order: {}", event.getOrderId());
+                    }
+                    inFlight.release();
+                    acknowledgment.acknowledge();
+                } else {
+                    LOGGER.error("Error processing payment for order: {}", event.getOrderId(), e);
+                    reroute(record, e, acknowledgment);
+                }
+            });
+        } catch (Exception e) {
+            LOGGER.error("Error processing payment for order: {}", event.getOrderId(), e);
+            reroute(record, e, acknowledgment);
+        }
+    }
+
+    // Retried from the retry topics, the partition moves on; if even that fails the record stays
+    // unacknowledged and offsets of the partition are not committed past it
+    private void reroute(ConsumerRecord<String, OrderEvent> record, Throwable cause, Acknowledgment acknowledgment) {
+        retryRouter.route(record, cause).whenComplete((sent, e) -> {
+            inFlight.release();
+            if (e == null) {
+                acknowledgment.acknowledge();
+            }
+        });
+    }
+}
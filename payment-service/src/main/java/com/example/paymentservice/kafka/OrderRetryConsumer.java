@@ -0,0 +1,52 @@
+package com.example.paymentservice.kafka;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.kafka.RetryRouter;
+import com.example.common.trace.TraceContext;
+import com.example.common.kafka.RetryTopics;
+import com.example.paymentservice.service.OrderPaymentProcessor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Second and later attempts at turning an order into a payment, from the
+ * orders.payment-group-retry-N tiers, whatever the main listener mode. Waits for each record's
+ * due time, see {@link RetryTopics#remainingDelayMs}. Runs in one container per tier, see
+ * KafkaConfig#orderRetryListeners.
+ */
+@Service
+public class OrderRetryConsumer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderRetryConsumer.class);
+    private final OrderPaymentProcessor orderPaymentProcessor;
+    private final RetryRouter retryRouter;
+
+    public OrderRetryConsumer(OrderPaymentProcessor orderPaymentProcessor, RetryRouter retryRouter) {
+        this.orderPaymentProcessor = orderPaymentProcessor;
+        this.retryRouter = retryRouter;
+    }
+
+    public void consume(ConsumerRecord<String, OrderEvent> record, Acknowledgment acknowledgment) {
+        long wait = RetryTopics.remainingDelayMs(record.headers(), System.currentTimeMillis());
+        if (wait > 0) {
+            acknowledgment.nack(Duration.ofMillis(wait));
+            return;
+        }
+        OrderEvent event = record.value();
+        try {
+            TraceContext trace = TraceContext.fromRecord(record, event.getOrderId(), TraceContext.ORDER_PUBLISHED)
+                    .hop(TraceContext.PAYMENT_RECEIVED);
+            if (orderPaymentProcessor.process(event, trace)) {
+                LOGGER.info("Payment processed on retry {} for order: {}",
+                        RetryTopics.attempt(record.headers()), event.getOrderId());
+            }
+        } catch (Exception e) {
+            retryRouter.route(record, e).join();
+        }
+        acknowledgment.acknowledge();
+    }
+}
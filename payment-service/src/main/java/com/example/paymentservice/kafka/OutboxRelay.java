@@ -0,0 +1,54 @@
+package com.example.paymentservice.kafka;
+
+import com.example.paymentservice.service.OutboxService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Component
+public class OutboxRelay {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxRelay.class);
+    private final OutboxService outboxService;
+
+    @Value("${payment.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    public OutboxRelay(OutboxService outboxService) {
+        this.outboxService = outboxService;
+    }
+
+    @Scheduled(fixedDelayString = "${payment.outbox.relay-interval-ms:200}")
+    public void relay() {
+        try {
+            // Keep draining while batches come back full
+            while (outboxService.relayBatch() >= outboxService.getBatchSize()) {
+                LOGGER.debug("Outbox backlog remaining, relaying next batch");
+            }
+        } catch (Exception e) {
+            LOGGER.error("Error relaying payment outbox", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.outbox.purge-interval-ms:600000}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        long total = 0;
+        try {
+            int deleted;
+            // Keep going while batches come back full
+            do {
+                deleted = outboxService.purgeBatch(cutoff);
+                total += deleted;
+            } while (deleted >= outboxService.getPurgeBatchSize());
+        } catch (Exception e) {
+            LOGGER.error("Error purging payment outbox", e);
+        }
+        if (total > 0) {
+            LOGGER.info("Purged {} published outbox events", total);
+        }
+    }
+}
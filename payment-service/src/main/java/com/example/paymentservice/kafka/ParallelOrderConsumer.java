@@ -0,0 +1,62 @@
+package com.example.paymentservice.kafka;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.kafka.RetryRouter;
+import com.example.common.trace.TraceContext;
+import com.example.common.concurrent.KeyOrderedDispatcher;
+import com.example.paymentservice.service.OrderPaymentProcessor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Parallel counterpart of {@link OrderConsumer}: each poll is handed off to virtual threads,
+ * one per orderId, so blocking JPA/JDBC work of many orders overlaps instead of running one
+ * after another on the listener thread. The container commits the poll's offsets only after
+ * every record of it has been processed.
+ */
+@Service
+@ConditionalOnProperty(name = "payment.consumer.mode", havingValue = "parallel")
+public class ParallelOrderConsumer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelOrderConsumer.class);
+    private final OrderPaymentProcessor orderPaymentProcessor;
+    private final KeyOrderedDispatcher orderDispatcher;
+    private final RetryRouter retryRouter;
+
+    public ParallelOrderConsumer(OrderPaymentProcessor orderPaymentProcessor, KeyOrderedDispatcher orderDispatcher,
+                                 RetryRouter retryRouter) {
+        this.orderPaymentProcessor = orderPaymentProcessor;
+        this.orderDispatcher = orderDispatcher;
+        this.retryRouter = retryRouter;
+    }
+
+    @KafkaListener(topics = "orders", groupId = "payment-group")
+    public void consume(List<ConsumerRecord<String, OrderEvent>> batch) {
+        List<ConsumerRecord<String, OrderEvent>> records = retryRouter.decodable(batch);
+        LOGGER.info("Order batch received in payment service => {} events", records.size());
+        orderDispatcher.dispatch(records, ParallelOrderConsumer::orderKey, this::handle);
+    }
+
+    private void handle(ConsumerRecord<String, OrderEvent> record) {
+        OrderEvent event = record.value();
+        try {
+            TraceContext trace = TraceContext.fromRecord(record, event.getOrderId(), TraceContext.ORDER_PUBLISHED)
+                    .hop(TraceContext.PAYMENT_RECEIVED);
+            if (orderPaymentProcessor.process(event, trace)) {
+                LOGGER.info("Payment processed successfully for order: {}", event.getOrderId());
+            }
+        } catch (Exception e) {
+            LOGGER.error("Error processing payment for order: {}", event.getOrderId(), e);
+            retryRouter.route(record, e).join();
+        }
+    }
+
+    private static String orderKey(ConsumerRecord<String, OrderEvent> record) {
+        return record.key() != null ? record.key() : record.value().getOrderId();
+    }
+}
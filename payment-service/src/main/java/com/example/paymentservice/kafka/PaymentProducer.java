@@ -1,22 +1,119 @@
 package com.example.paymentservice.kafka;
 
 import com.example.common.common_dto.PaymentEvent;
+import com.example.common.constants.TopicConstants;
+import com.example.common.trace.SpanRecorder;
+import com.example.common.trace.TraceContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class PaymentProducer {
     private static final Logger LOGGER = LoggerFactory.getLogger(PaymentProducer.class);
     private final KafkaTemplate<String, PaymentEvent> kafkaTemplate;
+    private final SpanRecorder spanRecorder;
+
+    // Sends that have not been acknowledged (or finally failed) yet
+    private final Semaphore inFlight;
+    private final long backpressureTimeoutMs;
+
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Counter failureCounter;
 
-    public PaymentProducer(KafkaTemplate<String, PaymentEvent> kafkaTemplate) {
+    public PaymentProducer(KafkaTemplate<String, PaymentEvent> kafkaTemplate, SpanRecorder spanRecorder,
+                           MeterRegistry meterRegistry,
+                           @Value("${payment.producer.max-in-flight:10000}") int maxInFlight,
+                           @Value("${payment.producer.backpressure-timeout-ms:5000}") long backpressureTimeoutMs) {
         this.kafkaTemplate = kafkaTemplate;
+        this.spanRecorder = spanRecorder;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.backpressureTimeoutMs = backpressureTimeoutMs;
+
+        this.successTimer = sendTimer(meterRegistry, "success");
+        this.failureTimer = sendTimer(meterRegistry, "failure");
+        this.failureCounter = meterRegistry.counter("payment.producer.failures");
+        meterRegistry.gauge("payment.producer.in-flight", inFlight, s -> maxInFlight - s.availablePermits());
+    }
+
+    /**
+     * Sends the event keyed by orderId. Blocks the caller while the in-flight window is full
+     * and fails the returned future if no slot frees up within the backpressure timeout.
+     * Retries are left to the idempotent producer (within delivery.timeout.ms); resending here
+     * could duplicate the event or reorder it behind newer ones of the same order, so a final
+     * failure just fails the future and the caller (the outbox) decides when to try again.
+     */
+    public CompletableFuture<SendResult<String, PaymentEvent>> sendMessage(PaymentEvent event) {
+        return sendMessage(event, null);
+    }
+
+    /**
+     * Same as {@link #sendMessage(PaymentEvent)}, with the flow's correlation id and hops (plus
+     * payment.published) as headers. The flow is recorded once the broker acknowledged it.
+     */
+    public CompletableFuture<SendResult<String, PaymentEvent>> sendMessage(PaymentEvent event, TraceContext trace) {
+        LOGGER.debug("Payment event => {}", event);
+        try {
+            if (!inFlight.tryAcquire(backpressureTimeoutMs, TimeUnit.MILLISECONDS)) {
+                failureCounter.increment();
+                return CompletableFuture.failedFuture(new IllegalStateException(
+                        "Payment producer in-flight window is full, event for order " + event.getOrderId() + " rejected"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<SendResult<String, PaymentEvent>> result = new CompletableFuture<>();
+        result.whenComplete((sendResult, ex) -> inFlight.release());
+        TraceContext published = trace == null ? null : trace.hop(TraceContext.PAYMENT_PUBLISHED);
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, PaymentEvent>> send;
+        try {
+            // Keyed by orderId so every event of an order lands on the same partition
+            ProducerRecord<String, PaymentEvent> record =
+                    new ProducerRecord<>(TopicConstants.PAYMENT_TOPIC, event.getOrderId(), event);
+            if (published != null) {
+                published.writeTo(record.headers());
+            }
+            send = kafkaTemplate.send(record);
+        } catch (Exception e) {
+            send = CompletableFuture.failedFuture(e);
+        }
+
+        send.whenComplete((sendResult, ex) -> {
+            long elapsed = System.nanoTime() - start;
+            if (ex == null) {
+                successTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                spanRecorder.record(published, TraceContext.PAYMENT_ACKED);
+                result.complete(sendResult);
+                return;
+            }
+            failureTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            failureCounter.increment();
+            LOGGER.error("Payment event for order {} failed", event.getOrderId(), ex);
+            result.completeExceptionally(ex);
+        });
+        return result;
     }
 
-    public void sendMessage(PaymentEvent event) {
-        LOGGER.info("Payment event => {}", event);
-        kafkaTemplate.send("payments", event);
+    private static Timer sendTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("payment.producer.send")
+                .description("Latency of a send until the broker ack or the final failure")
+                .tag("result", result)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
     }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.example.paymentservice.mapper;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.common_dto.PaymentEvent;
+import com.example.paymentservice.gateway.AuthorizationRequest;
+import com.example.paymentservice.gateway.AuthorizationResult;
+import com.example.paymentservice.model.Payment;
+import com.example.paymentservice.risk.RiskDecision;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public final class PaymentMapper {
+
+    private PaymentMapper() {
+    }
+
+    public static Payment fromOrderEvent(OrderEvent event, RiskDecision decision) {
+        Payment payment = new Payment();
+        payment.setPaymentId(UUID.randomUUID().toString());
+        payment.setOrderId(event.getOrderId());
+        payment.setCustomerId(event.getCustomerId());
+        payment.setAmount(event.getTotalAmount());
+        payment.setPaymentMethod("CREDIT_CARD");
+        payment.setPaymentDate(LocalDateTime.now());
+        payment.setOrderCreatedAt(event.getCreatedAt());
+        payment.setStatus(decision.approved() ? "COMPLETED" : "FAILED");
+        return payment;
+    }
+
+    // The orderId is the idempotency key: redeliveries of the order must not authorize twice
+    public static AuthorizationRequest toAuthorizationRequest(Payment payment) {
+        return new AuthorizationRequest(payment.getOrderId(), payment.getOrderId(), payment.getPaymentId(),
+                payment.getCustomerId(), payment.getAmount(), payment.getPaymentMethod());
+    }
+
+    public static Payment applyAuthorization(Payment payment, AuthorizationResult result) {
+        payment.setGatewayReference(result.reference());
+        payment.setStatus(result.approved() ? "COMPLETED" : "FAILED");
+        return payment;
+    }
+
+    public static PaymentEvent toPaymentEvent(Payment payment) {
+        PaymentEvent event = new PaymentEvent();
+        event.setPaymentId(payment.getPaymentId());
+        event.setOrderId(payment.getOrderId());
+        event.setCustomerId(payment.getCustomerId());
+        event.setAmount(payment.getAmount());
+        event.setStatus(payment.getStatus());
+        event.setPaymentMethod(payment.getPaymentMethod());
+        event.setCreatedAt(System.currentTimeMillis());
+        event.setOrderCreatedAt(payment.getOrderCreatedAt());
+        return event;
+    }
+}
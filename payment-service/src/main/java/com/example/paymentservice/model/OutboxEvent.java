@@ -0,0 +1,45 @@
+package com.example.paymentservice.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "payment_outbox", indexes = @Index(name = "idx_payment_outbox_published_at", columnList = "publishedAt"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_outbox_seq")
+    @SequenceGenerator(name = "payment_outbox_seq", sequenceName = "payment_outbox_seq", allocationSize = 100)
+    private Long id;
+
+    private String topic;
+    private String aggregateId;
+    private String eventType;
+
+    @Lob
+    private String payload;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime publishedAt;
+    // Set while a relay is sending the row; an expired claim means that relay died mid-batch
+    private LocalDateTime claimedUntil;
+
+    // TraceContext of the order flow, re-attached as Kafka headers when the row is relayed
+    private String correlationId;
+    @Column(length = 1024)
+    private String traceHops;
+
+    public OutboxEvent(String topic, String aggregateId, String eventType, String payload) {
+        this.topic = topic;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+    }
+}
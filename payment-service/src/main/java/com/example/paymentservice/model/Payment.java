@@ -1,5 +1,8 @@
 package com.example.paymentservice.model;
 
+import com.example.common.money.Money;
+import com.example.common.trace.TraceContext;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -9,24 +12,53 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payments_order_id", columnNames = "orderId"),
+        indexes = @Index(name = "idx_payments_payment_id", columnList = "paymentId", unique = true))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Payment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence (table-backed on MySQL) with a pooled optimizer, IDENTITY disables insert batching
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_seq")
+    @SequenceGenerator(name = "payment_seq", sequenceName = "payment_seq", allocationSize = 100)
     private Long id;
     
     private String paymentId;
     private String orderId;
     private String customerId;
-    private Double amount;
+
+    // Money as two columns; exposed through getAmount/setAmount
+    @Column(name = "amount_minor")
+    @JsonIgnore
+    private long amountMinor;
+
+    @Column(length = 3)
+    @JsonIgnore
+    private String currency;
+
+    // Double amount of rows written before the Money columns, read until LegacyAmountBackfill converted them
+    @Column(name = "amount", insertable = false, updatable = false)
+    @JsonIgnore
+    private Double legacyAmount;
+
     private String status;
     private String paymentMethod;
+    // Authorization id assigned by the payment gateway, null when it was not asked
+    private String gatewayReference;
     private LocalDateTime paymentDate;
 
+    // Not stored: carried from the OrderEvent into the PaymentEvent for end-to-end latency
+    @Transient
+    @JsonIgnore
+    private Long orderCreatedAt;
+
+    @Transient
+    @JsonIgnore
+    private TraceContext trace;
+
     public String getPaymentId() {
         return paymentId;
     }
@@ -59,12 +91,16 @@ public class Payment {
         this.customerId = customerId;
     }
 
-    public Double getAmount() {
-        return amount;
+    public Money getAmount() {
+        if (currency == null) {
+            return legacyAmount == null ? null : Money.rounded(legacyAmount, Money.DEFAULT_CURRENCY);
+        }
+        return Money.ofMinor(amountMinor, currency);
     }
 
-    public void setAmount(Double amount) {
-        this.amount = amount;
+    public void setAmount(Money amount) {
+        this.amountMinor = amount == null ? 0 : amount.getMinorUnits();
+        this.currency = amount == null ? null : amount.getCurrency();
     }
 
     public String getStatus() {
@@ -90,4 +126,20 @@ public class Payment {
     public void setPaymentDate(LocalDateTime paymentDate) {
         this.paymentDate = paymentDate;
     }
+
+    public Long getOrderCreatedAt() {
+        return orderCreatedAt;
+    }
+
+    public void setOrderCreatedAt(Long orderCreatedAt) {
+        this.orderCreatedAt = orderCreatedAt;
+    }
+
+    public TraceContext getTrace() {
+        return trace;
+    }
+
+    public void setTrace(TraceContext trace) {
+        this.trace = trace;
+    }
 }
\ No newline at end of file
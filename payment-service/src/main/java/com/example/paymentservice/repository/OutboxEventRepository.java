@@ -0,0 +1,47 @@
+package com.example.paymentservice.repository;
+
+import com.example.paymentservice.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // lock.timeout -2 is Hibernate's SKIP LOCKED, so several relay instances never block each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select o from OutboxEvent o where o.publishedAt is null"
+            + " and (o.claimedUntil is null or o.claimedUntil < :now) order by o.id")
+    List<OutboxEvent> findClaimableForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("update OutboxEvent o set o.claimedUntil = :claimedUntil where o.id in :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    @Modifying
+    @Query("update OutboxEvent o set o.publishedAt = :publishedAt, o.claimedUntil = null where o.id in :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    @Modifying
+    @Query("update OutboxEvent o set o.claimedUntil = null where o.id in :ids")
+    int release(@Param("ids") Collection<Long> ids);
+
+    // Oldest published rows first via the publishedAt index, SKIP LOCKED so a purge never waits on the relay
+    @Query(value = "select id from payment_outbox where published_at < :cutoff order by published_at"
+            + " limit :limit for update skip locked", nativeQuery = true)
+    List<Long> findPublishedBeforeForUpdate(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query("delete from OutboxEvent o where o.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
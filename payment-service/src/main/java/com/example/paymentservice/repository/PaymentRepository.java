@@ -1,11 +1,40 @@
 package com.example.paymentservice.repository;
 
 import com.example.paymentservice.model.Payment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Payment findByPaymentId(String paymentId);
     List<Payment> findByOrderId(String orderId);
+
+    // Keyset page: seeks past the last seen id instead of counting an OFFSET
+    @Query("select p from Payment p where p.id > :afterId"
+            + " and (:status is null or p.status = :status)"
+            + " and (:customerId is null or p.customerId = :customerId)"
+            + " and (:from is null or p.paymentDate >= :from)"
+            + " and (:to is null or p.paymentDate < :to)"
+            + " order by p.id")
+    List<Payment> findPageAfter(@Param("afterId") long afterId, @Param("status") String status,
+                                @Param("customerId") String customerId, @Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to, Pageable pageable);
+
+    // Server-side cursor (useCursorFetch=true on MySQL), rows arrive in fetch-size chunks
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select p from Payment p where (:status is null or p.status = :status)"
+            + " and (:customerId is null or p.customerId = :customerId)"
+            + " and (:from is null or p.paymentDate >= :from)"
+            + " and (:to is null or p.paymentDate < :to)"
+            + " order by p.id")
+    Stream<Payment> streamAll(@Param("status") String status, @Param("customerId") String customerId,
+                              @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.example.paymentservice.risk;
+
+// Outcome of the risk checks for one order; rule names the first rule that declined it
+public record RiskDecision(boolean approved, String rule) {
+    public static final RiskDecision APPROVED = new RiskDecision(true, null);
+
+    public static RiskDecision declined(String rule) {
+        return new RiskDecision(false, rule);
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.paymentservice.risk;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.money.Money;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Pre-authorization checks on an order, entirely in memory. Built-in checks decline orders
+ * whose total is missing or not positive, or differs from the sum of price x quantity over the
+ * items. The configured rules (see {@link RiskRule}) run next, against the order and the
+ * customer's sliding-window velocity kept by {@link VelocityWindows}. Every order that gets
+ * this far counts towards the velocity, declined ones included. Each rule that matches counts
+ * a hit; the first one in configuration order declines the order. An order counts once: the
+ * decision is remembered per orderId for the longest window, and a redelivery or retry of the
+ * same order gets it back without touching the velocity again.
+ */
+@Component
+public class RiskEngine {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RiskEngine.class);
+    public static final String NON_POSITIVE_AMOUNT = "non-positive-amount";
+    public static final String TOTAL_MISMATCH = "total-mismatch";
+
+    private final boolean enabled;
+    private final boolean verifyTotal;
+    private final RiskRule[] rules;
+    private final Counter[] ruleHits;
+    // Index of each count/sum rule's window in the velocity totals
+    private final int[] ruleWindow;
+    private final VelocityWindows velocity;
+    private final Cache<String, RiskDecision> decisions;
+    private final Counter nonPositiveHits;
+    private final Counter mismatchHits;
+    private final Counter approvedCounter;
+    private final Counter declinedCounter;
+    private final Counter untrackedCounter;
+
+    public RiskEngine(MeterRegistry meterRegistry,
+                      @Value("${payment.risk.enabled:true}") boolean enabled,
+                      @Value("${payment.risk.verify-total:true}") boolean verifyTotal,
+                      @Value("${payment.risk.rules:}") String rules,
+                      @Value("${payment.risk.bucket-seconds:10}") long bucketSeconds,
+                      @Value("${payment.risk.stripes:64}") int stripes,
+                      @Value("${payment.risk.max-customers:1000000}") int maxCustomers,
+                      @Value("${payment.risk.decision-cache.max-size:100000}") long decisionCacheSize) {
+        this.enabled = enabled;
+        this.verifyTotal = verifyTotal;
+        List<RiskRule> compiled = RiskRule.compile(rules);
+        this.rules = compiled.toArray(RiskRule[]::new);
+
+        TreeSet<Long> windowSet = new TreeSet<>();
+        for (RiskRule rule : this.rules) {
+            if (rule.getWindowMillis() > 0) {
+                windowSet.add(rule.getWindowMillis());
+            }
+        }
+        long[] windowMillis = windowSet.stream().mapToLong(Long::longValue).toArray();
+        this.velocity = windowMillis.length == 0 ? null
+                : new VelocityWindows(stripes, bucketSeconds * 1000, windowMillis, maxCustomers);
+        this.decisions = windowMillis.length == 0 ? null : Caffeine.newBuilder()
+                .maximumSize(decisionCacheSize)
+                .expireAfterWrite(Duration.ofMillis(windowMillis[windowMillis.length - 1]))
+                // Eviction work is small; inline it rather than schedule a task per write
+                .executor(Runnable::run)
+                .build();
+        this.ruleWindow = new int[this.rules.length];
+        this.ruleHits = new Counter[this.rules.length];
+        for (int i = 0; i < this.rules.length; i++) {
+            RiskRule rule = this.rules[i];
+            ruleWindow[i] = Arrays.binarySearch(windowMillis, rule.getWindowMillis());
+            ruleHits[i] = hitCounter(meterRegistry, rule.getName());
+        }
+        this.nonPositiveHits = hitCounter(meterRegistry, NON_POSITIVE_AMOUNT);
+        this.mismatchHits = hitCounter(meterRegistry, TOTAL_MISMATCH);
+        this.approvedCounter = decisionCounter(meterRegistry, "approved");
+        this.declinedCounter = decisionCounter(meterRegistry, "declined");
+        this.untrackedCounter = Counter.builder("payment.risk.untracked")
+                .description("Orders whose customer could not be tracked because the velocity windows are full")
+                .register(meterRegistry);
+        if (velocity != null) {
+            Gauge.builder("payment.risk.customers", velocity, VelocityWindows::size).register(meterRegistry);
+        }
+        LOGGER.info("Risk engine {} with {} rules", enabled ? "enabled" : "disabled", this.rules.length);
+    }
+
+    public RiskDecision evaluate(OrderEvent event) {
+        return evaluate(event, System.currentTimeMillis());
+    }
+
+    public RiskDecision evaluate(OrderEvent event, long nowMillis) {
+        if (!enabled) {
+            return RiskDecision.APPROVED;
+        }
+        Money total = event.getTotalAmount();
+        if (total == null || !total.isPositive()) {
+            return decline(nonPositiveHits, NON_POSITIVE_AMOUNT, event);
+        }
+        if (verifyTotal && !total.equals(itemsTotal(event))) {
+            return decline(mismatchHits, TOTAL_MISMATCH, event);
+        }
+
+        String orderId = event.getOrderId();
+        boolean tracked = velocity != null && event.getCustomerId() != null;
+        if (tracked && orderId != null) {
+            RiskDecision previous = decisions.getIfPresent(orderId);
+            if (previous != null) {
+                return previous;
+            }
+        }
+
+        long amount = total.getMinorUnits();
+        int scale = total.getScale();
+        int items = event.getItems() == null ? 0 : event.getItems().size();
+        long[] counts = null;
+        long[] sums = null;
+        if (tracked) {
+            counts = new long[velocity.windowCount()];
+            sums = new long[velocity.windowCount()];
+            if (!velocity.addAndAggregate(event.getCustomerId(), amount, nowMillis, counts, sums)) {
+                untrackedCounter.increment();
+            }
+        }
+
+        String declinedBy = null;
+        for (int i = 0; i < rules.length; i++) {
+            RiskRule rule = rules[i];
+            long value = switch (rule.getMetric()) {
+                case AMOUNT -> amount;
+                case ITEMS -> items;
+                case COUNT -> counts == null ? 1 : counts[ruleWindow[i]];
+                case SUM -> sums == null ? amount : sums[ruleWindow[i]];
+            };
+            if (rule.matches(value, scale)) {
+                ruleHits[i].increment();
+                if (declinedBy == null) {
+                    declinedBy = rule.getName();
+                }
+            }
+        }
+        RiskDecision decision;
+        if (declinedBy != null) {
+            declinedCounter.increment();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Order {} of customer {} declined by risk rule {}", orderId,
+                        event.getCustomerId(), declinedBy);
+            }
+            decision = RiskDecision.declined(declinedBy);
+        } else {
+            approvedCounter.increment();
+            decision = RiskDecision.APPROVED;
+        }
+        if (tracked && orderId != null) {
+            decisions.put(orderId, decision);
+        }
+        return decision;
+    }
+
+    @Scheduled(fixedDelayString = "${payment.risk.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        if (velocity != null) {
+            int evicted = velocity.evictExpired(System.currentTimeMillis());
+            if (evicted > 0) {
+                LOGGER.debug("Evicted {} customers from the risk velocity windows", evicted);
+            }
+        }
+    }
+
+    private RiskDecision decline(Counter hits, String rule, OrderEvent event) {
+        hits.increment();
+        declinedCounter.increment();
+        LOGGER.debug("Order {} of customer {} declined by risk check {}", event.getOrderId(), event.getCustomerId(), rule);
+        return RiskDecision.declined(rule);
+    }
+
+    private static Money itemsTotal(OrderEvent event) {
+        try {
+            return event.itemsTotal();
+        } catch (ArithmeticException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Counter hitCounter(MeterRegistry meterRegistry, String rule) {
+        return Counter.builder("payment.risk.rule.hits")
+                .description("Orders matched by a risk rule")
+                .tag("rule", rule)
+                .register(meterRegistry);
+    }
+
+    private static Counter decisionCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("payment.risk.decisions")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
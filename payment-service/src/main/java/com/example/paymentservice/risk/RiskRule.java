@@ -0,0 +1,99 @@
+package com.example.paymentservice.risk;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A rule compiled from configuration, e.g. {@code burst: count(10m) > 20}. The metric is one
+ * of {@code amount} (order total), {@code items} (item count), {@code count(window)} and
+ * {@code sum(window)} (the customer's orders and their total over the window, this order
+ * included). Amount thresholds are decimals in major units and are pre-scaled for every
+ * currency scale, so matching is a single long comparison; amounts of different currencies
+ * are not converted.
+ */
+public final class RiskRule {
+    private static final Pattern RULE = Pattern.compile(
+            "\\s*([\\w.-]+)\\s*:\\s*(amount|items|count|sum)(?:\\(\\s*(\\d+)\\s*([smh])\\s*\\))?\\s*(>=|>)\\s*([0-9.]+)\\s*");
+    private static final int MAX_SCALE = 4;
+
+    public enum Metric {
+        AMOUNT, ITEMS, COUNT, SUM
+    }
+
+    private final String name;
+    private final Metric metric;
+    private final long windowMillis;
+    // Matches when value > thresholds[scale], per currency scale for money metrics
+    private final long[] thresholds;
+
+    private RiskRule(String name, Metric metric, long windowMillis, long[] thresholds) {
+        this.name = name;
+        this.metric = metric;
+        this.windowMillis = windowMillis;
+        this.thresholds = thresholds;
+    }
+
+    /**
+     * @param spec rules separated by ';'
+     * @throws IllegalArgumentException naming the rule that does not parse
+     */
+    public static List<RiskRule> compile(String spec) {
+        List<RiskRule> rules = new ArrayList<>();
+        for (String text : spec.split(";")) {
+            if (text.isBlank()) {
+                continue;
+            }
+            Matcher m = RULE.matcher(text);
+            if (!m.matches()) {
+                throw new IllegalArgumentException("Invalid risk rule '" + text.trim()
+                        + "', expected 'name: amount|items|count(<n>s|m|h)|sum(<n>s|m|h) >|>= <number>'");
+            }
+            Metric metric = Metric.valueOf(m.group(2).toUpperCase());
+            boolean windowed = metric == Metric.COUNT || metric == Metric.SUM;
+            if (windowed != (m.group(3) != null)) {
+                throw new IllegalArgumentException("Risk rule '" + text.trim() + "': count and sum need a window, amount and items take none");
+            }
+            long windowMillis = windowed ? Long.parseLong(m.group(3)) * switch (m.group(4)) {
+                case "s" -> 1000L;
+                case "m" -> 60_000L;
+                default -> 3_600_000L;
+            } : 0;
+            if (windowed && windowMillis <= 0) {
+                throw new IllegalArgumentException("Risk rule '" + text.trim() + "': window must be positive");
+            }
+            boolean inclusive = m.group(5).equals(">=");
+            BigDecimal threshold = new BigDecimal(m.group(6));
+            boolean money = metric == Metric.AMOUNT || metric == Metric.SUM;
+            long[] thresholds = new long[money ? MAX_SCALE + 1 : 1];
+            for (int scale = 0; scale < thresholds.length; scale++) {
+                BigDecimal scaled = threshold.movePointRight(scale);
+                // Values are whole minor units: "> t" is "> floor(t)", ">= t" is "> ceil(t) - 1"
+                thresholds[scale] = inclusive
+                        ? scaled.setScale(0, RoundingMode.CEILING).longValueExact() - 1
+                        : scaled.setScale(0, RoundingMode.FLOOR).longValueExact();
+            }
+            rules.add(new RiskRule(m.group(1), metric, windowMillis, thresholds));
+        }
+        return rules;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    boolean matches(long value, int scale) {
+        return value > thresholds[thresholds.length == 1 ? 0 : Math.min(scale, MAX_SCALE)];
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.paymentservice.risk;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Per-customer order count and amount over sliding windows, approximated with buckets of
+ * bucketMillis. Customers are spread over lock stripes, each a plain HashMap guarded by its
+ * own monitor, so concurrent listener threads only contend when their customers share a
+ * stripe. A customer keeps a ring of its non-empty buckets plus a running total per window,
+ * so adding an order costs the same however many buckets a window spans. Buckets are dropped
+ * once they fall out of the longest window; customers left with nothing recent are removed
+ * by {@link #evictExpired}.
+ */
+final class VelocityWindows {
+    private final Stripe[] stripes;
+    private final long bucketMillis;
+    // Window lengths in buckets, ascending
+    private final int[] windows;
+    private final int maxCustomersPerStripe;
+
+    /**
+     * @param windowMillis the window lengths to aggregate, ascending
+     */
+    VelocityWindows(int stripeCount, long bucketMillis, long[] windowMillis, int maxCustomers) {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.bucketMillis = bucketMillis;
+        this.windows = new int[windowMillis.length];
+        for (int i = 0; i < windowMillis.length; i++) {
+            windows[i] = (int) Math.max(1, (windowMillis[i] + bucketMillis - 1) / bucketMillis);
+        }
+        this.maxCustomersPerStripe = Math.max(1, maxCustomers / count);
+    }
+
+    /**
+     * Adds an order and copies the customer's totals, this order included, into counts and
+     * sums, one entry per window.
+     *
+     * @return false if the customer could not be tracked because its stripe is full; the
+     * totals then only hold this order
+     */
+    boolean addAndAggregate(String customerId, long amountMinor, long nowMillis, long[] counts, long[] sums) {
+        long bucket = nowMillis / bucketMillis;
+        Stripe stripe = stripes[spread(customerId.hashCode()) & (stripes.length - 1)];
+        synchronized (stripe) {
+            CustomerWindow window = stripe.customers.get(customerId);
+            if (window == null) {
+                if (stripe.customers.size() >= maxCustomersPerStripe) {
+                    Arrays.fill(counts, 1);
+                    Arrays.fill(sums, amountMinor);
+                    return false;
+                }
+                window = new CustomerWindow(windows.length);
+                stripe.customers.put(customerId, window);
+            }
+            window.add(bucket, amountMinor, windows);
+            window.copyTotals(counts, sums);
+            return true;
+        }
+    }
+
+    int windowCount() {
+        return windows.length;
+    }
+
+    /**
+     * @return the number of customers removed
+     */
+    int evictExpired(long nowMillis) {
+        long oldest = nowMillis / bucketMillis - windows[windows.length - 1] + 1;
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<CustomerWindow> it = stripe.customers.values().iterator();
+                while (it.hasNext()) {
+                    if (it.next().newestBucket() < oldest) {
+                        it.remove();
+                        evicted++;
+                    }
+                }
+            }
+        }
+        return evicted;
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.customers.size();
+            }
+        }
+        return size;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Stripe {
+        private final Map<String, CustomerWindow> customers = new HashMap<>();
+    }
+
+    // Only touched under the stripe's monitor
+    private static final class CustomerWindow {
+        // Ring of (bucket, count, sum) triples, oldest at head; capacity is a power of two
+        private long[] entries = new long[2 * 3];
+        private int head;
+        private int size;
+        // Per window: offset from head of its oldest bucket, and its running count and sum
+        private final int[] starts;
+        private final long[] totals;
+
+        CustomerWindow(int windowCount) {
+            this.starts = new int[windowCount];
+            this.totals = new long[windowCount * 2];
+        }
+
+        void add(long bucket, long amountMinor, int[] windows) {
+            int newest = size - 1;
+            // A clock step back lands in the newest bucket instead of breaking the order
+            if (size > 0 && bucketAt(newest) >= bucket) {
+                bucket = bucketAt(newest);
+                int slot = slot(newest);
+                entries[slot + 1]++;
+                entries[slot + 2] += amountMinor;
+            } else {
+                if (size == entries.length / 3) {
+                    grow();
+                }
+                int slot = slot(size++);
+                entries[slot] = bucket;
+                entries[slot + 1] = 1;
+                entries[slot + 2] = amountMinor;
+            }
+            for (int w = 0; w < windows.length; w++) {
+                totals[2 * w]++;
+                totals[2 * w + 1] += amountMinor;
+                long oldest = bucket - windows[w] + 1;
+                while (bucketAt(starts[w]) < oldest) {
+                    int slot = slot(starts[w]++);
+                    totals[2 * w] -= entries[slot + 1];
+                    totals[2 * w + 1] -= entries[slot + 2];
+                }
+            }
+            // Nothing before the start of the longest window is needed any more
+            int drop = starts[windows.length - 1];
+            if (drop > 0) {
+                head = (head + drop) & (entries.length / 3 - 1);
+                size -= drop;
+                for (int w = 0; w < starts.length; w++) {
+                    starts[w] -= drop;
+                }
+            }
+        }
+
+        void copyTotals(long[] counts, long[] sums) {
+            for (int w = 0; w < starts.length; w++) {
+                counts[w] = totals[2 * w];
+                sums[w] = totals[2 * w + 1];
+            }
+        }
+
+        long newestBucket() {
+            return size == 0 ? Long.MIN_VALUE : bucketAt(size - 1);
+        }
+
+        private long bucketAt(int offset) {
+            return entries[slot(offset)];
+        }
+
+        private int slot(int offset) {
+            return ((head + offset) & (entries.length / 3 - 1)) * 3;
+        }
+
+        private void grow() {
+            int capacity = entries.length / 3;
+            long[] grown = new long[capacity * 2 * 3];
+            for (int i = 0; i < size; i++) {
+                System.arraycopy(entries, slot(i), grown, i * 3, 3);
+            }
+            entries = grown;
+            head = 0;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.paymentservice.service;
+
+import com.example.common.money.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Converts payments stored before the Money columns existed: the double in the old amount
+ * column becomes amount_minor/currency in USD, rounded half-even like {@link Money#rounded}.
+ * Works in batches until a run finds nothing left, then stays idle; rows an older instance
+ * writes after that are still read correctly through Payment's fallback to the old column.
+ */
+@Component
+public class LegacyAmountBackfill {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LegacyAmountBackfill.class);
+    private final JdbcTemplate jdbcTemplate;
+    private volatile boolean done;
+
+    @Value("${payment.backfill.legacy-amount.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.backfill.legacy-amount.batch-size:1000}")
+    private int batchSize;
+
+    public LegacyAmountBackfill(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    private record LegacyRow(long id, double amount) {
+    }
+
+    @Scheduled(initialDelayString = "${payment.backfill.legacy-amount.initial-delay-ms:10000}",
+            fixedDelayString = "${payment.backfill.legacy-amount.interval-ms:1000}")
+    public void backfill() {
+        if (!enabled || done) {
+            return;
+        }
+        try {
+            List<LegacyRow> rows = jdbcTemplate.query(
+                    "select id, amount from payments where currency is null and amount is not null order by id limit ?",
+                    (rs, rowNum) -> new LegacyRow(rs.getLong("id"), rs.getDouble("amount")), batchSize);
+            if (rows.isEmpty()) {
+                done = true;
+                LOGGER.info("No payments with a legacy amount left");
+                return;
+            }
+            // currency is null guards against a concurrent update through the entity
+            jdbcTemplate.batchUpdate("update payments set amount_minor = ?, currency = ? where id = ? and currency is null",
+                    rows, rows.size(), (ps, row) -> {
+                        Money amount = Money.rounded(row.amount(), Money.DEFAULT_CURRENCY);
+                        ps.setLong(1, amount.getMinorUnits());
+                        ps.setString(2, amount.getCurrency());
+                        ps.setLong(3, row.id());
+                    });
+            LOGGER.info("Converted {} payments from the legacy amount column", rows.size());
+        } catch (Exception e) {
+            LOGGER.error("Error converting legacy payment amounts", e);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.paymentservice.service;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.trace.TraceContext;
+import com.example.paymentservice.gateway.PaymentGateway;
+import com.example.paymentservice.mapper.PaymentMapper;
+import com.example.paymentservice.model.Payment;
+import com.example.paymentservice.risk.RiskDecision;
+import com.example.paymentservice.risk.RiskEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns order events into payments exactly once per orderId, no matter how often Kafka
+ * redelivers them. The risk engine runs once per order that is not a known duplicate; orders
+ * it approves are then authorized with the payment gateway, whose answer decides whether the
+ * payment completes or fails. When the gateway gives no answer the order is not saved and the
+ * failure is passed on, so the order goes through the retry topics.
+ */
+@Service
+public class OrderPaymentProcessor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderPaymentProcessor.class);
+    private static final String ORDER_ID_CONSTRAINT = "uk_payments_order_id";
+
+    private final PaymentService paymentService;
+    private final ProcessedOrderCache processedOrderCache;
+    private final RiskEngine riskEngine;
+    private final PaymentGateway paymentGateway;
+    private final Timer singleSaveTimer;
+    private final Timer batchSaveTimer;
+    private final Timer orderLatencyTimer;
+    // Saves of asynchronously authorized orders, off the gateway's response threads
+    private final ExecutorService saveExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public OrderPaymentProcessor(PaymentService paymentService, ProcessedOrderCache processedOrderCache,
+                                 RiskEngine riskEngine, PaymentGateway paymentGateway, MeterRegistry meterRegistry) {
+        this.paymentService = paymentService;
+        this.processedOrderCache = processedOrderCache;
+        this.riskEngine = riskEngine;
+        this.paymentGateway = paymentGateway;
+        // Payment insert plus outbox row, including the commit
+        this.singleSaveTimer = Timer.builder("payment.db.save")
+                .tag("mode", "single")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSaveTimer = Timer.builder("payment.db.save")
+                .tag("mode", "batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.orderLatencyTimer = Timer.builder("payment.order.latency")
+                .description("Order published to payment committed")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public record TracedOrder(OrderEvent event, TraceContext trace) {
+    }
+
+    /**
+     * @param unanswered orderId -> failure for the orders the gateway gave no answer for; they
+     *                   were not saved and should be retried
+     */
+    public record BatchOutcome(int created, Map<String, RuntimeException> unanswered) {
+    }
+
+    /**
+     * @param trace flow of the record the event came from, carried into the outbox
+     * @return {@code true} if a payment was created, {@code false} if the order was a duplicate
+     */
+    public boolean process(OrderEvent event, TraceContext trace) {
+        if (processedOrderCache.isProcessed(event.getOrderId())) {
+            LOGGER.info("Skipping duplicate order event for order: {}", event.getOrderId());
+            return false;
+        }
+        return save(event, await(authorize(event, trace)));
+    }
+
+    /**
+     * Like {@link #process} without waiting for the gateway: the payment is saved once the
+     * authorization is in. Fails like process does when the gateway gives no answer.
+     */
+    public CompletableFuture<Boolean> processAsync(OrderEvent event, TraceContext trace) {
+        if (processedOrderCache.isProcessed(event.getOrderId())) {
+            LOGGER.info("Skipping duplicate order event for order: {}", event.getOrderId());
+            return CompletableFuture.completedFuture(false);
+        }
+        CompletableFuture<Payment> authorization;
+        try {
+            authorization = authorize(event, trace);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return authorization.thenApplyAsync(payment -> save(event, payment), saveExecutor);
+    }
+
+    private boolean save(OrderEvent event, Payment payment) {
+        String orderId = event.getOrderId();
+        try {
+            singleSaveTimer.record(() -> paymentService.processPayment(payment));
+        } catch (DataIntegrityViolationException e) {
+            if (!isDuplicateOrder(e)) {
+                throw e;
+            }
+            LOGGER.info("Payment already exists for order: {}, skipping", orderId);
+            processedOrderCache.markProcessed(orderId);
+            return false;
+        }
+        processedOrderCache.markProcessed(orderId);
+        recordOrderLatency(event);
+        return true;
+    }
+
+    /**
+     * Processes a poll worth of order events in one transaction. The gateway is asked for all of
+     * them at once, so a poll costs about one gateway round trip rather than one per order. If
+     * the batch hits the unique constraint (an order processed by another instance or before a
+     * restart), it falls back to record-by-record saves so only the duplicates are dropped.
+     * Orders the gateway gave no answer for are left out and returned once the others are saved.
+     */
+    public BatchOutcome processAll(List<TracedOrder> orders) {
+        // Drop known duplicates and repeats inside the same poll
+        Map<String, TracedOrder> fresh = new LinkedHashMap<>();
+        for (TracedOrder order : orders) {
+            if (!processedOrderCache.isProcessed(order.event().getOrderId())) {
+                fresh.putIfAbsent(order.event().getOrderId(), order);
+            }
+        }
+        if (fresh.size() < orders.size()) {
+            LOGGER.info("Skipping {} duplicate order events in batch", orders.size() - fresh.size());
+        }
+        if (fresh.isEmpty()) {
+            return new BatchOutcome(0, Collections.emptyMap());
+        }
+
+        List<CompletableFuture<Payment>> authorizations = new ArrayList<>(fresh.size());
+        for (TracedOrder order : fresh.values()) {
+            authorizations.add(authorize(order.event(), order.trace()));
+        }
+        CompletableFuture.allOf(authorizations.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+
+        List<OrderEvent> events = new ArrayList<>(fresh.size());
+        List<Payment> payments = new ArrayList<>(fresh.size());
+        Map<String, RuntimeException> unanswered = new LinkedHashMap<>();
+        int i = 0;
+        for (TracedOrder order : fresh.values()) {
+            try {
+                payments.add(await(authorizations.get(i++)));
+                events.add(order.event());
+            } catch (RuntimeException e) {
+                unanswered.put(order.event().getOrderId(), e);
+            }
+        }
+        int created = payments.isEmpty() ? 0 : saveAll(events, payments);
+        if (!unanswered.isEmpty()) {
+            LOGGER.warn("{} of {} orders got no answer from the payment gateway", unanswered.size(), fresh.size());
+        }
+        return new BatchOutcome(created, unanswered);
+    }
+
+    private int saveAll(List<OrderEvent> events, List<Payment> payments) {
+        try {
+            batchSaveTimer.record(() -> paymentService.processPayments(payments));
+        } catch (DataIntegrityViolationException e) {
+            if (!isDuplicateOrder(e)) {
+                throw e;
+            }
+            LOGGER.info("Batch of {} orders contains already processed orders, retrying one by one", payments.size());
+            int created = 0;
+            for (int i = 0; i < payments.size(); i++) {
+                Payment payment = payments.get(i);
+                payment.setId(null);
+                if (save(events.get(i), payment)) {
+                    created++;
+                }
+            }
+            return created;
+        }
+
+        for (OrderEvent event : events) {
+            processedOrderCache.markProcessed(event.getOrderId());
+            recordOrderLatency(event);
+        }
+        return payments.size();
+    }
+
+    // Declined by the risk engine means no gateway call
+    private CompletableFuture<Payment> authorize(OrderEvent event, TraceContext trace) {
+        RiskDecision decision = riskEngine.evaluate(event);
+        Payment payment = PaymentMapper.fromOrderEvent(event, decision);
+        payment.setTrace(trace);
+        if (!decision.approved()) {
+            return CompletableFuture.completedFuture(payment);
+        }
+        return paymentGateway.authorize(PaymentMapper.toAuthorizationRequest(payment))
+                .thenApply(result -> PaymentMapper.applyAuthorization(payment, result));
+    }
+
+    private static Payment await(CompletableFuture<Payment> authorization) {
+        try {
+            return authorization.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void recordOrderLatency(OrderEvent event) {
+        if (event.getCreatedAt() != null) {
+            orderLatencyTimer.record(System.currentTimeMillis() - event.getCreatedAt(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static boolean isDuplicateOrder(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String constraintName = violation.getConstraintName();
+                return constraintName != null && constraintName.toLowerCase().contains(ORDER_ID_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+}
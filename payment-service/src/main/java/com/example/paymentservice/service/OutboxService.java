@@ -0,0 +1,181 @@
+package com.example.paymentservice.service;
+
+import com.example.common.common_dto.PaymentEvent;
+import com.example.common.constants.TopicConstants;
+import com.example.common.trace.TraceContext;
+import com.example.paymentservice.kafka.PaymentProducer;
+import com.example.paymentservice.model.OutboxEvent;
+import com.example.paymentservice.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Transactional outbox for {@link PaymentEvent}s. Events are stored in the same transaction
+ * as the payment and published later by {@link #relayBatch()}.
+ */
+@Service
+public class OutboxService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxService.class);
+    private static final String PAYMENT_EVENT_TYPE = "PaymentEvent";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final PaymentProducer paymentProducer;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${payment.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${payment.outbox.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    @Value("${payment.outbox.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    // Longer than send-timeout-ms, so only rows of a relay that died mid-batch are claimed twice
+    @Value("${payment.outbox.claim-timeout-ms:120000}")
+    private long claimTimeoutMs;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, PaymentProducer paymentProducer,
+                         ObjectMapper objectMapper, TransactionTemplate transactionTemplate) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.paymentProducer = paymentProducer;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * @param trace flow the event belongs to, null if it was not started by a traced record
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(PaymentEvent event, TraceContext trace) {
+        outboxEventRepository.save(toOutboxEvent(event, trace));
+    }
+
+    /**
+     * Publishes one batch of pending events and marks the acknowledged ones as published.
+     * The batch is claimed in one short transaction and marked in another; no transaction or
+     * row lock is held while waiting for the broker. Rows whose send failed are released and
+     * picked up again by the next run.
+     *
+     * @return the number of rows claimed, so callers can keep draining while batches are full
+     */
+    public int relayBatch() {
+        List<OutboxEvent> pending = transactionTemplate.execute(status -> claimBatch());
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        // Send everything first so the producer can batch, then wait for the acks
+        List<CompletableFuture<?>> sends = new ArrayList<>(pending.size());
+        for (OutboxEvent outboxEvent : pending) {
+            sends.add(send(outboxEvent));
+        }
+
+        List<Long> publishedIds = new ArrayList<>(pending.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (int i = 0; i < pending.size(); i++) {
+            OutboxEvent outboxEvent = pending.get(i);
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                sends.get(i).get(remaining, TimeUnit.NANOSECONDS);
+                publishedIds.add(outboxEvent.getId());
+            } catch (ExecutionException | TimeoutException e) {
+                LOGGER.warn("Outbox event {} for order {} not published, will retry", outboxEvent.getId(),
+                        outboxEvent.getAggregateId(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        Set<Long> published = new HashSet<>(publishedIds);
+        List<Long> failedIds = pending.stream()
+                .map(OutboxEvent::getId)
+                .filter(id -> !published.contains(id))
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!publishedIds.isEmpty()) {
+                outboxEventRepository.markPublished(publishedIds, LocalDateTime.now());
+            }
+            if (!failedIds.isEmpty()) {
+                outboxEventRepository.release(failedIds);
+            }
+        });
+        LOGGER.debug("Outbox relay published {}/{} events", publishedIds.size(), pending.size());
+        return pending.size();
+    }
+
+    // SKIP LOCKED keeps concurrent relays apart while claiming, the claim itself afterwards
+    private List<OutboxEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> pending = outboxEventRepository.findClaimableForUpdate(now, PageRequest.of(0, batchSize));
+        if (!pending.isEmpty()) {
+            outboxEventRepository.claim(pending.stream().map(OutboxEvent::getId).toList(),
+                    now.plus(claimTimeoutMs, ChronoUnit.MILLIS));
+        }
+        return pending;
+    }
+
+    /**
+     * Deletes up to purge-batch-size rows published before the cutoff, in its own short transaction.
+     *
+     * @return the number of rows deleted, so callers can keep purging while batches are full
+     */
+    @Transactional
+    public int purgeBatch(LocalDateTime cutoff) {
+        List<Long> ids = outboxEventRepository.findPublishedBeforeForUpdate(cutoff, purgeBatchSize);
+        return ids.isEmpty() ? 0 : outboxEventRepository.deleteByIds(ids);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getPurgeBatchSize() {
+        return purgeBatchSize;
+    }
+
+    private CompletableFuture<?> send(OutboxEvent outboxEvent) {
+        try {
+            PaymentEvent event = objectMapper.readValue(outboxEvent.getPayload(), PaymentEvent.class);
+            return paymentProducer.sendMessage(event,
+                    TraceContext.decode(outboxEvent.getCorrelationId(), outboxEvent.getTraceHops()));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private OutboxEvent toOutboxEvent(PaymentEvent event, TraceContext trace) {
+        try {
+            OutboxEvent outboxEvent = new OutboxEvent(TopicConstants.PAYMENT_TOPIC, event.getOrderId(),
+                    PAYMENT_EVENT_TYPE, objectMapper.writeValueAsString(event));
+            if (trace != null) {
+                outboxEvent.setCorrelationId(trace.getCorrelationId());
+                outboxEvent.setTraceHops(trace.hop(TraceContext.PAYMENT_SAVED).encodeHops());
+            }
+            return outboxEvent;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize payment event for order: " + event.getOrderId(), e);
+        }
+    }
+}
@@ -1,57 +1,127 @@
 package com.example.paymentservice.service;
 
-import com.example.common.common_dto.PaymentEvent;
-import com.example.paymentservice.kafka.PaymentProducer;
+import com.example.common.common_dto.CursorPage;
+import com.example.paymentservice.config.CacheConfig;
+import com.example.paymentservice.mapper.PaymentMapper;
 import com.example.paymentservice.model.Payment;
 import com.example.paymentservice.repository.PaymentRepository;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class PaymentService {
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
     private final PaymentRepository paymentRepository;
-    private final PaymentProducer paymentProducer;
+    private final OutboxService outboxService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
 
-    public PaymentService(PaymentRepository paymentRepository, PaymentProducer paymentProducer) {
+    public PaymentService(PaymentRepository paymentRepository, OutboxService outboxService,
+                          EntityManager entityManager, ObjectMapper objectMapper, CacheManager cacheManager) {
         this.paymentRepository = paymentRepository;
-        this.paymentProducer = paymentProducer;
+        this.outboxService = outboxService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.cacheManager = cacheManager;
     }
 
     @Transactional
+    @Caching(put = @CachePut(cacheNames = CacheConfig.PAYMENTS_BY_PAYMENT_ID, key = "#result.paymentId"),
+            evict = @CacheEvict(cacheNames = CacheConfig.PAYMENTS_BY_ORDER_ID, key = "#payment.orderId"))
     public Payment processPayment(Payment payment) {
         Payment savedPayment = paymentRepository.save(payment);
         
-        // Create and send payment event
-        PaymentEvent event = new PaymentEvent();
-        event.setPaymentId(savedPayment.getPaymentId());
-        event.setOrderId(savedPayment.getOrderId());
-        event.setCustomerId(savedPayment.getCustomerId());
-        event.setAmount(savedPayment.getAmount());
-        event.setStatus(savedPayment.getStatus());
-        event.setPaymentMethod(savedPayment.getPaymentMethod());
-        
-        paymentProducer.sendMessage(event);
+        // Payment event is written to the outbox in the same transaction and relayed asynchronously
+        outboxService.enqueue(PaymentMapper.toPaymentEvent(savedPayment), savedPayment.getTrace());
         
         return savedPayment;
     }
 
+    @Transactional
+    public List<Payment> processPayments(List<Payment> payments) {
+        List<Payment> savedPayments = paymentRepository.saveAll(payments);
+
+        // Inserted together with the payments by the JDBC batch at flush
+        for (Payment savedPayment : savedPayments) {
+            outboxService.enqueue(PaymentMapper.toPaymentEvent(savedPayment), savedPayment.getTrace());
+        }
+
+        // Deferred until commit by the transaction-aware cache manager
+        Cache paymentsByOrderId = cacheManager.getCache(CacheConfig.PAYMENTS_BY_ORDER_ID);
+        if (paymentsByOrderId != null) {
+            for (Payment savedPayment : savedPayments) {
+                paymentsByOrderId.evict(savedPayment.getOrderId());
+            }
+        }
+
+        return savedPayments;
+    }
+
     public Payment getPaymentById(Long id) {
         return paymentRepository.findById(id).orElseThrow(() -> 
                 new RuntimeException("Payment not found with id: " + id));
     }
 
+    @Cacheable(cacheNames = CacheConfig.PAYMENTS_BY_PAYMENT_ID, unless = "#result == null")
     public Payment getPaymentByPaymentId(String paymentId) {
         return paymentRepository.findByPaymentId(paymentId);
     }
 
+    // Not caching an empty result: a poll before the payment exists must not hide it for the TTL
+    @Cacheable(cacheNames = CacheConfig.PAYMENTS_BY_ORDER_ID, unless = "#result.isEmpty()")
     public List<Payment> getPaymentsByOrderId(String orderId) {
         return paymentRepository.findByOrderId(orderId);
     }
 
-    public List<Payment> getAllPayments() {
-        return paymentRepository.findAll();
+    public CursorPage<Payment> getPaymentsPage(Long after, int size, String status, String customerId,
+                                               LocalDateTime from, LocalDateTime to) {
+        // Fetch one extra row to know whether another page exists
+        List<Payment> payments = paymentRepository.findPageAfter(after == null ? 0L : after, status, customerId,
+                from, to, PageRequest.of(0, size + 1));
+        boolean hasMore = payments.size() > size;
+        if (hasMore) {
+            payments = payments.subList(0, size);
+        }
+        Long nextCursor = payments.isEmpty() ? after : payments.get(payments.size() - 1).getId();
+        return new CursorPage<>(payments, nextCursor, hasMore);
+    }
+
+    // Writes matching payments as NDJSON; entities are detached as they are written so memory stays flat
+    @Transactional(readOnly = true)
+    public void exportPayments(String status, String customerId, LocalDateTime from, LocalDateTime to,
+                               OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        BufferedOutputStream buffered = new BufferedOutputStream(out, EXPORT_BUFFER_SIZE);
+        try (Stream<Payment> payments = paymentRepository.streamAll(status, customerId, from, to)) {
+            for (Payment payment : (Iterable<Payment>) payments::iterator) {
+                writer.writeValue(buffered, payment);
+                buffered.write('\n');
+                entityManager.detach(payment);
+            }
+        }
+        buffered.flush();
     }
 }
@@ -0,0 +1,40 @@
+package com.example.paymentservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded LRU/TTL set of order ids that already have a payment. It answers the common
+ * redelivery case without a DB round trip; the unique constraint on payments.order_id
+ * remains the backstop for entries that were evicted or never seen by this instance.
+ */
+@Component
+public class ProcessedOrderCache {
+    private final Cache<String, Boolean> processedOrders;
+
+    public ProcessedOrderCache(@Value("${payment.idempotency.cache.max-size:100000}") long maxSize,
+                               @Value("${payment.idempotency.cache.ttl:PT1H}") Duration ttl,
+                               MeterRegistry meterRegistry) {
+        this.processedOrders = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Exposes cache.gets{result=hit|miss}, cache.evictions and cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, processedOrders, "payment.processed-orders");
+    }
+
+    public boolean isProcessed(String orderId) {
+        return processedOrders.getIfPresent(orderId) != null;
+    }
+
+    public void markProcessed(String orderId) {
+        processedOrders.put(orderId, Boolean.TRUE);
+    }
+}
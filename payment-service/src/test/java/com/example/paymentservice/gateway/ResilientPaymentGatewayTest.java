@@ -0,0 +1,174 @@
+package com.example.paymentservice.gateway;
+
+import com.example.common.money.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs the gateway protections against {@link StubGatewayServer} over real HTTP. Latency of the
+ * stub is fixed by setting median-ms equal to p99-ms.
+ */
+class ResilientPaymentGatewayTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<StubGatewayServer> stubs = new ArrayList<>();
+
+    @AfterEach
+    void stopStubs() {
+        stubs.forEach(StubGatewayServer::stop);
+    }
+
+    @Test
+    void hedgedAttemptAnswersASlowCall() {
+        PaymentGateway http = stub(5, 0);
+        List<AuthorizationRequest> sent = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<AuthorizationResult>> attempts = new CopyOnWriteArrayList<>();
+        // The first attempt is held back for a second before it goes out
+        PaymentGateway slowFirst = request -> {
+            sent.add(request);
+            CompletableFuture<AuthorizationResult> attempt = sent.size() == 1
+                    ? CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(1, TimeUnit.SECONDS))
+                            .thenCompose(ignored -> http.authorize(request))
+                    : http.authorize(request);
+            attempts.add(attempt);
+            return attempt;
+        };
+        ResilientPaymentGateway gateway = gateway(slowFirst, breaker(), 4, 4, 3000, 50, 2);
+
+        long start = System.nanoTime();
+        AuthorizationResult result = gateway.authorize(request("order-1")).join();
+
+        assertThat(result.approved()).isTrue();
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(900));
+        assertThat(meterRegistry.counter("payment.gateway.hedges").count()).isEqualTo(1);
+        assertThat(sent).extracting(AuthorizationRequest::idempotencyKey).containsExactly("order-1", "order-1");
+        // The slow attempt reaches the stub with the same Idempotency-Key and gets the same answer
+        assertThat(attempts.get(0).join().reference()).isEqualTo(result.reference());
+    }
+
+    @Test
+    void retriesAFailedAttemptWithTheSameIdempotencyKey() {
+        PaymentGateway http = stub(5, 0);
+        List<AuthorizationRequest> sent = new CopyOnWriteArrayList<>();
+        PaymentGateway failingFirst = request -> {
+            sent.add(request);
+            return sent.size() == 1 ? CompletableFuture.failedFuture(new GatewayException("Connection reset"))
+                    : http.authorize(request);
+        };
+        ResilientPaymentGateway gateway = gateway(failingFirst, breaker(), 4, 4, 3000, 0, 2);
+
+        AuthorizationResult result = gateway.authorize(request("order-2")).join();
+
+        assertThat(result.approved()).isTrue();
+        assertThat(meterRegistry.counter("payment.gateway.retries").count()).isEqualTo(1);
+        assertThat(sent).extracting(AuthorizationRequest::idempotencyKey).containsExactly("order-2", "order-2");
+    }
+
+    @Test
+    void failsCallsThatOutliveTheCallTimeout() {
+        ResilientPaymentGateway gateway = gateway(stub(500, 0), breaker(), 4, 4, 100, 0, 1);
+
+        CompletableFuture<AuthorizationResult> call = gateway.authorize(request("order-3"));
+
+        assertThatThrownBy(call::join)
+                .hasCauseInstanceOf(GatewayException.class)
+                .hasMessageContaining("timed out");
+        // Counted right after the call was failed
+        await().untilAsserted(() -> assertThat(meterRegistry.counter("payment.gateway.rejected", "reason", "timeout")
+                .count()).isEqualTo(1));
+    }
+
+    @Test
+    void circuitOpensOnFailuresAndClosesAfterSuccessfulTrials() throws InterruptedException {
+        PaymentGateway failing = stub(5, 1.0);
+        PaymentGateway healthy = stub(5, 0);
+        AtomicReference<PaymentGateway> target = new AtomicReference<>(failing);
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.5, 200, 2);
+        ResilientPaymentGateway gateway = gateway(request -> target.get().authorize(request), breaker, 4, 4, 3000, 0, 1);
+
+        for (int i = 0; i < 4; i++) {
+            CompletableFuture<AuthorizationResult> call = gateway.authorize(request("order-" + i));
+            assertThatThrownBy(call::join).hasCauseInstanceOf(GatewayException.class);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        CompletableFuture<AuthorizationResult> rejected = gateway.authorize(request("order-4"));
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(meterRegistry.counter("payment.gateway.rejected", "reason", "circuit-open").count()).isEqualTo(1);
+
+        target.set(healthy);
+        Thread.sleep(250);
+        assertThat(gateway.authorize(request("order-5")).join().approved()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(gateway.authorize(request("order-6")).join().approved()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void rejectsCallsBeyondTheBulkhead() {
+        ResilientPaymentGateway gateway = gateway(stub(300, 0), breaker(), 1, 1, 3000, 0, 1);
+
+        CompletableFuture<AuthorizationResult> inFlight = gateway.authorize(request("order-7"));
+        CompletableFuture<AuthorizationResult> queued = gateway.authorize(request("order-8"));
+        CompletableFuture<AuthorizationResult> rejected = gateway.authorize(request("order-9"));
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(rejected::join).hasMessageContaining("bulkhead full");
+        assertThat(meterRegistry.counter("payment.gateway.rejected", "reason", "bulkhead-full").count()).isEqualTo(1);
+        assertThat(inFlight.join().approved()).isTrue();
+        assertThat(queued.join().approved()).isTrue();
+    }
+
+    private ResilientPaymentGateway gateway(PaymentGateway delegate, CircuitBreaker breaker, int maxConcurrent,
+                                            int maxQueued, long callTimeoutMs, long hedgeDelayMs, int maxAttempts) {
+        return new ResilientPaymentGateway(delegate, breaker, maxConcurrent, maxQueued, callTimeoutMs, hedgeDelayMs,
+                maxAttempts, meterRegistry);
+    }
+
+    private static CircuitBreaker breaker() {
+        return new CircuitBreaker(100, 20, 0.5, 5000, 5);
+    }
+
+    // A stub answering every request after latencyMs, with a 503 for errorRate of them
+    private PaymentGateway stub(double latencyMs, double errorRate) {
+        int port = freePort();
+        StubGatewayServer stub = new StubGatewayServer(objectMapper, port, latencyMs, latencyMs, errorRate, 0);
+        stub.start();
+        stubs.add(stub);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        return new HttpPaymentGateway(httpClient, objectMapper, "http://localhost:" + port, Duration.ofSeconds(2));
+    }
+
+    private static AuthorizationRequest request(String orderId) {
+        return new AuthorizationRequest(orderId, orderId, "payment-" + orderId, "customer-1",
+                Money.ofMinor(5998, "USD"), "CARD");
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.paymentservice.risk;
+
+import com.example.common.common_dto.OrderEvent;
+import com.example.common.common_dto.OrderItemDto;
+import com.example.common.money.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RiskEngineTest {
+    private static final long NOW = 1_700_000_000_000L;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void countsARedeliveredOrderOnce() {
+        RiskEngine engine = engine("burst: count(1m) >= 3");
+
+        assertThat(engine.evaluate(order("order-1", "c1", Money.ofMinor(500, "USD")), NOW).approved()).isTrue();
+        // Redelivered: same decision, and the velocity still holds one order
+        assertThat(engine.evaluate(order("order-1", "c1", Money.ofMinor(500, "USD")), NOW + 1)).isSameAs(RiskDecision.APPROVED);
+        assertThat(engine.evaluate(order("order-2", "c1", Money.ofMinor(500, "USD")), NOW + 2).approved()).isTrue();
+
+        RiskDecision third = engine.evaluate(order("order-3", "c1", Money.ofMinor(500, "USD")), NOW + 3);
+        assertThat(third).isEqualTo(RiskDecision.declined("burst"));
+        assertThat(engine.evaluate(order("order-3", "c1", Money.ofMinor(500, "USD")), NOW + 4)).isEqualTo(third);
+        assertThat(meterRegistry.counter("payment.risk.rule.hits", "rule", "burst").count()).isEqualTo(1);
+    }
+
+    @Test
+    void comparesAmountsAtTheScaleOfTheirCurrency() {
+        RiskEngine engine = engine("big: amount > 100.5");
+
+        assertThat(engine.evaluate(order("order-1", "c1", Money.ofMinor(10_050, "USD")), NOW).approved()).isTrue();
+        assertThat(engine.evaluate(order("order-2", "c1", Money.ofMinor(10_051, "USD")), NOW).rule()).isEqualTo("big");
+        assertThat(engine.evaluate(order("order-3", "c1", Money.ofMinor(100, "JPY")), NOW).approved()).isTrue();
+        assertThat(engine.evaluate(order("order-4", "c1", Money.ofMinor(101, "JPY")), NOW).rule()).isEqualTo("big");
+        assertThat(engine.evaluate(order("order-5", "c1", Money.ofMinor(100_500, "BHD")), NOW).approved()).isTrue();
+        assertThat(engine.evaluate(order("order-6", "c1", Money.ofMinor(100_501, "BHD")), NOW).rule()).isEqualTo("big");
+    }
+
+    @Test
+    void declinesByTheFirstMatchingRuleAndCountsEveryHit() {
+        RiskEngine engine = engine("big: amount > 10; huge: sum(1h) > 10");
+
+        RiskDecision decision = engine.evaluate(order("order-1", "c1", Money.ofMinor(2000, "USD")), NOW);
+
+        assertThat(decision).isEqualTo(RiskDecision.declined("big"));
+        assertThat(meterRegistry.counter("payment.risk.rule.hits", "rule", "big").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("payment.risk.rule.hits", "rule", "huge").count()).isEqualTo(1);
+    }
+
+    @Test
+    void windowsSlideWithTheClock() {
+        RiskEngine engine = engine("burst: count(1m) > 1");
+
+        assertThat(engine.evaluate(order("order-1", "c1", Money.ofMinor(500, "USD")), NOW).approved()).isTrue();
+        assertThat(engine.evaluate(order("order-2", "c1", Money.ofMinor(500, "USD")), NOW + 1000).approved()).isFalse();
+        assertThat(engine.evaluate(order("order-3", "c1", Money.ofMinor(500, "USD")), NOW + 120_000).approved()).isTrue();
+        assertThat(engine.evaluate(order("order-4", "c2", Money.ofMinor(500, "USD")), NOW + 120_000).approved()).isTrue();
+    }
+
+    @Test
+    void declinesInvalidTotalsBeforeTheRules() {
+        RiskEngine engine = engine("burst: count(1m) >= 1");
+        OrderEvent mismatch = order("order-2", "c1", Money.ofMinor(500, "USD"));
+        mismatch.setTotalAmount(Money.ofMinor(400, "USD"));
+
+        assertThat(engine.evaluate(order("order-1", "c1", Money.ofMinor(0, "USD")), NOW).rule())
+                .isEqualTo(RiskEngine.NON_POSITIVE_AMOUNT);
+        assertThat(engine.evaluate(mismatch, NOW).rule()).isEqualTo(RiskEngine.TOTAL_MISMATCH);
+    }
+
+    private RiskEngine engine(String rules) {
+        return new RiskEngine(meterRegistry, true, true, rules, 10, 4, 1000, 1000);
+    }
+
+    private static OrderEvent order(String orderId, String customerId, Money total) {
+        OrderItemDto item = new OrderItemDto();
+        item.setProductId("product-1");
+        item.setQuantity(1);
+        item.setPrice(total);
+        OrderEvent event = new OrderEvent();
+        event.setOrderId(orderId);
+        event.setCustomerId(customerId);
+        event.setItems(List.of(item));
+        event.setTotalAmount(total);
+        return event;
+    }
+}
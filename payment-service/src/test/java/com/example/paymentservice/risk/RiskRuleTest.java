@@ -0,0 +1,91 @@
+package com.example.paymentservice.risk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RiskRuleTest {
+
+    @Test
+    void exclusiveThresholdAtEveryScale() {
+        RiskRule rule = single("big: amount > 100.5");
+
+        assertThat(rule.matches(101, 0)).isTrue();
+        assertThat(rule.matches(100, 0)).isFalse();
+        assertThat(rule.matches(10_051, 2)).isTrue();
+        assertThat(rule.matches(10_050, 2)).isFalse();
+        assertThat(rule.matches(100_501, 3)).isTrue();
+        assertThat(rule.matches(100_500, 3)).isFalse();
+    }
+
+    @Test
+    void inclusiveThresholdAtEveryScale() {
+        RiskRule rule = single("big: amount >= 100.5");
+
+        assertThat(rule.matches(101, 0)).isTrue();
+        assertThat(rule.matches(100, 0)).isFalse();
+        assertThat(rule.matches(10_050, 2)).isTrue();
+        assertThat(rule.matches(10_049, 2)).isFalse();
+        assertThat(rule.matches(100_500, 3)).isTrue();
+        assertThat(rule.matches(100_499, 3)).isFalse();
+    }
+
+    @Test
+    void wholeThresholds() {
+        RiskRule inclusive = single("big: sum(1h) >= 100");
+        RiskRule exclusive = single("big: sum(1h) > 100");
+
+        assertThat(inclusive.matches(100, 0)).isTrue();
+        assertThat(inclusive.matches(99, 0)).isFalse();
+        assertThat(inclusive.matches(10_000, 2)).isTrue();
+        assertThat(inclusive.matches(9_999, 2)).isFalse();
+        assertThat(exclusive.matches(100, 0)).isFalse();
+        assertThat(exclusive.matches(100_001, 3)).isTrue();
+        assertThat(exclusive.matches(100_000, 3)).isFalse();
+    }
+
+    @Test
+    void countsIgnoreTheCurrencyScale() {
+        RiskRule inclusive = single("burst: count(10m) >= 3");
+        RiskRule exclusive = single("burst: count(10m) > 3");
+
+        assertThat(inclusive.getWindowMillis()).isEqualTo(600_000);
+        assertThat(inclusive.matches(3, 2)).isTrue();
+        assertThat(inclusive.matches(2, 0)).isFalse();
+        assertThat(exclusive.matches(3, 3)).isFalse();
+        assertThat(exclusive.matches(4, 0)).isTrue();
+    }
+
+    @Test
+    void compilesRulesInOrder() {
+        List<RiskRule> rules = RiskRule.compile(" burst: count(30s) > 5 ; ; items: items >= 50;");
+
+        assertThat(rules).extracting(RiskRule::getName).containsExactly("burst", "items");
+        assertThat(rules).extracting(RiskRule::getMetric).containsExactly(RiskRule.Metric.COUNT, RiskRule.Metric.ITEMS);
+        assertThat(rules.get(0).getWindowMillis()).isEqualTo(30_000);
+    }
+
+    @Test
+    void rejectsInvalidRules() {
+        assertThatThrownBy(() -> RiskRule.compile("big: amount = 5"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("big: amount = 5");
+        assertThatThrownBy(() -> RiskRule.compile("burst: count > 5"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("need a window");
+        assertThatThrownBy(() -> RiskRule.compile("big: amount(1h) > 5"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RiskRule.compile("burst: count(0m) > 5"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("positive");
+    }
+
+    private static RiskRule single(String spec) {
+        List<RiskRule> rules = RiskRule.compile(spec);
+        assertThat(rules).hasSize(1);
+        return rules.get(0);
+    }
+}
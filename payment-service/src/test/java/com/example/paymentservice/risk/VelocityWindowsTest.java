@@ -0,0 +1,107 @@
+package com.example.paymentservice.risk;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VelocityWindowsTest {
+    // One-second buckets, windows of 3 and 10 buckets
+    private final VelocityWindows windows = new VelocityWindows(4, 1000, new long[]{3000, 10_000}, 1000);
+    private final long[] counts = new long[2];
+    private final long[] sums = new long[2];
+
+    @Test
+    void dropsOrdersOnceTheirBucketLeavesTheWindow() {
+        add("c1", 1, 0);
+        add("c1", 2, 1000);
+        add("c1", 4, 2500);
+        add("c1", 8, 3000);
+
+        // The 3 second window spans buckets 1 to 3, the 10 second window all of them
+        assertTotals(3, 14, 4, 15);
+
+        add("c1", 16, 12_999);
+        assertTotals(1, 16, 2, 24);
+
+        add("c1", 32, 30_000);
+        assertTotals(1, 32, 1, 32);
+    }
+
+    @Test
+    void keepsTotalsWhenTheRingGrowsWhileWrapped() {
+        add("c1", 1, 0);
+        add("c1", 2, 1000);
+        add("c1", 4, 2000);
+        // The early buckets fall out one by one, so the ring of four slots starts mid-array and wraps
+        add("c1", 8, 11_000);
+        add("c1", 16, 12_000);
+        add("c1", 32, 13_000);
+        assertTotals(3, 56, 3, 56);
+        add("c1", 64, 14_000);
+        assertTotals(3, 112, 4, 120);
+
+        // Full and wrapped: this one grows the ring
+        add("c1", 128, 15_000);
+        assertTotals(3, 224, 5, 248);
+
+        add("c1", 256, 16_000);
+        assertTotals(3, 448, 6, 504);
+    }
+
+    @Test
+    void countsAClockStepBackInTheNewestBucket() {
+        add("c1", 1, 5000);
+        add("c1", 2, 3000);
+        assertTotals(2, 3, 2, 3);
+
+        add("c1", 4, 7999);
+        assertTotals(3, 7, 3, 7);
+
+        // Both early orders were counted in bucket 5, which leaves the short window at bucket 8
+        add("c1", 8, 8000);
+        assertTotals(2, 12, 4, 15);
+    }
+
+    @Test
+    void evictsCustomersWithNothingInTheLongestWindow() {
+        add("c1", 1, 0);
+        add("c2", 1, 8000);
+
+        assertThat(windows.evictExpired(9999)).isZero();
+        assertThat(windows.evictExpired(10_000)).isEqualTo(1);
+        assertThat(windows.size()).isEqualTo(1);
+
+        add("c1", 5, 10_000);
+        assertTotals(1, 5, 1, 5);
+    }
+
+    @Test
+    void stopsTrackingNewCustomersOnceFull() {
+        // Two stripes of one customer each
+        VelocityWindows small = new VelocityWindows(2, 1000, new long[]{3000}, 2);
+        long[] count = new long[1];
+        long[] sum = new long[1];
+        int tracked = 0;
+        for (int i = 0; i < 3; i++) {
+            if (small.addAndAggregate("c" + i, 7, 0, count, sum)) {
+                tracked++;
+            } else {
+                // Only this order counts
+                assertThat(count[0]).isEqualTo(1);
+                assertThat(sum[0]).isEqualTo(7);
+            }
+        }
+
+        assertThat(tracked).isEqualTo(2);
+        assertThat(small.size()).isEqualTo(2);
+    }
+
+    private void add(String customerId, long amount, long nowMillis) {
+        assertThat(windows.addAndAggregate(customerId, amount, nowMillis, counts, sums)).isTrue();
+    }
+
+    private void assertTotals(long shortCount, long shortSum, long longCount, long longSum) {
+        assertThat(counts).containsExactly(shortCount, longCount);
+        assertThat(sums).containsExactly(shortSum, longSum);
+    }
+}